@@ -214,18 +214,20 @@ class MaterialButtonHelper {
     }
     backgroundDrawable.setStroke(strokeWidth, strokeColor);
 
+    // Buttons of the same style share the states of these drawables until they change them.
     MaterialShapeDrawable surfaceColorStrokeDrawable =
-        new MaterialShapeDrawable(shapeAppearanceModel);
-    surfaceColorStrokeDrawable.setTint(Color.TRANSPARENT);
-    surfaceColorStrokeDrawable.setStroke(
-        strokeWidth,
-        shouldDrawSurfaceColorStroke
-            ? MaterialColors.getColor(materialButton, R.attr.colorSurface)
-            : Color.TRANSPARENT);
+        MaterialShapeDrawable.createWithSharedState(
+            shapeAppearanceModel,
+            Color.TRANSPARENT,
+            strokeWidth,
+            shouldDrawSurfaceColorStroke
+                ? MaterialColors.getColor(materialButton, R.attr.colorSurface)
+                : Color.TRANSPARENT);
 
     if (IS_MIN_LOLLIPOP) {
-      maskDrawable = new MaterialShapeDrawable(shapeAppearanceModel);
-      DrawableCompat.setTint(maskDrawable, Color.WHITE);
+      maskDrawable =
+          MaterialShapeDrawable.createWithSharedState(
+              shapeAppearanceModel, Color.WHITE, /* strokeWidth= */ 0, Color.TRANSPARENT);
       rippleDrawable =
           new RippleDrawable(
               RippleUtils.sanitizeRippleDrawableColor(rippleColor),
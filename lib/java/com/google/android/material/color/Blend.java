@@ -16,13 +16,26 @@
 
 package com.google.android.material.color;
 
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.concurrent.Executor;
+
 /** Functions for blending in HCT and CAM16. */
 final class Blend {
   private static final float HARMONIZE_MAX_DEGREES = 15.0f;
   private static final float HARMONIZE_PERCENTAGE = 0.5f;
 
+  /** The minimum number of colors in each task when harmonizing colors in parallel. */
+  private static final int MIN_COLORS_PER_TASK = 1024;
+
+  // Scratch CAM16 dimensions of the two colors being blended, reused so that blending does not
+  // allocate.
+  private static final ThreadLocal<float[]> FROM_CAM_DIMENSIONS = newCamDimensions();
+  private static final ThreadLocal<float[]> TO_CAM_DIMENSIONS = newCamDimensions();
+
   private Blend() {}
 
   /**
@@ -35,15 +48,86 @@ final class Blend {
    *     warmer/cooler variant of the design color's hue.
    */
   public static int harmonize(int designColor, int sourceColor) {
-    Hct fromHct = Hct.fromInt(designColor);
-    Hct toHct = Hct.fromInt(sourceColor);
-    float differenceDegrees = MathUtils.differenceDegrees(fromHct.getHue(), toHct.getHue());
+    float[] sourceCam = TO_CAM_DIMENSIONS.get();
+    Cam16.fromInt(sourceColor, sourceCam);
+    return harmonizeWithHue(designColor, sourceCam[Cam16.HUE]);
+  }
+
+  /**
+   * Blend the design color's HCT hue towards a hue, as in {@link #harmonize(int, int)}.
+   *
+   * @param designColor ARGB representation of an arbitrary color.
+   * @param sourceHue CAM16 hue of the main theme color.
+   */
+  static int harmonizeWithHue(int designColor, float sourceHue) {
+    return harmonizeWithHue(designColor, sourceHue, FROM_CAM_DIMENSIONS.get());
+  }
+
+  /**
+   * Blend every design color's HCT hue towards the source color's HCT hue, as in {@link
+   * #harmonize(int, int)}. The source color is only converted to CAM16 once.
+   *
+   * @param designColors ARGB representations of arbitrary colors.
+   * @param sourceColor ARGB representation of the main theme color.
+   * @param executor The executor to split large arrays of colors across, or null to harmonize
+   *     every color on the calling thread.
+   * @return The harmonized colors, in the same order as the design colors.
+   */
+  @NonNull
+  static int[] harmonize(
+      @NonNull final int[] designColors, int sourceColor, @Nullable Executor executor) {
+    float[] sourceCam = TO_CAM_DIMENSIONS.get();
+    Cam16.fromInt(sourceColor, sourceCam);
+    final float sourceHue = sourceCam[Cam16.HUE];
+    final int[] harmonizedColors = new int[designColors.length];
+
+    int taskCount =
+        executor == null
+            ? 1
+            : max(
+                1,
+                min(
+                    Runtime.getRuntime().availableProcessors(),
+                    designColors.length / MIN_COLORS_PER_TASK));
+    if (taskCount == 1) {
+      harmonizeWithHue(designColors, 0, designColors.length, sourceHue, harmonizedColors);
+      return harmonizedColors;
+    }
+    Runnable[] tasks = new Runnable[taskCount];
+    for (int i = 0; i < taskCount; i++) {
+      final int start = (int) ((long) designColors.length * i / taskCount);
+      final int end = (int) ((long) designColors.length * (i + 1) / taskCount);
+      tasks[i] =
+          new Runnable() {
+            @Override
+            public void run() {
+              harmonizeWithHue(designColors, start, end, sourceHue, harmonizedColors);
+            }
+          };
+    }
+    ParallelTasks.invokeAll(executor, tasks);
+    return harmonizedColors;
+  }
+
+  /** Harmonizes the design colors in {@code [start, end)} into the same range of {@code out}. */
+  private static void harmonizeWithHue(
+      int[] designColors, int start, int end, float sourceHue, int[] out) {
+    float[] designCam = FROM_CAM_DIMENSIONS.get();
+    for (int i = start; i < end; i++) {
+      out[i] = harmonizeWithHue(designColors[i], sourceHue, designCam);
+    }
+  }
+
+  private static int harmonizeWithHue(int designColor, float sourceHue, float[] designCam) {
+    Cam16.fromInt(designColor, designCam);
+    float designHue = designCam[Cam16.HUE];
+    float differenceDegrees = MathUtils.differenceDegrees(designHue, sourceHue);
     float rotationDegrees = min(differenceDegrees * HARMONIZE_PERCENTAGE, HARMONIZE_MAX_DEGREES);
     float outputHue =
         MathUtils.sanitizeDegrees(
-            fromHct.getHue()
-                + rotationDegrees * rotationDirection(fromHct.getHue(), toHct.getHue()));
-    return Hct.from(outputHue, fromHct.getChroma(), fromHct.getTone()).toInt();
+            designHue + rotationDegrees * rotationDirection(designHue, sourceHue));
+    return HctSolver.solveToInt(
+        outputHue, designCam[Cam16.CHROMA], ColorUtils.lstarFromInt(designColor));
   }
 
   /**
@@ -57,9 +141,12 @@ final class Blend {
    */
   public static int blendHctHue(int from, int to, float amount) {
     int ucs = blendCam16Ucs(from, to, amount);
-    Cam16 ucsCam = Cam16.fromInt(ucs);
-    Cam16 fromCam = Cam16.fromInt(from);
-    return Hct.from(ucsCam.getHue(), fromCam.getChroma(), ColorUtils.lstarFromInt(from)).toInt();
+    float[] ucsCam = TO_CAM_DIMENSIONS.get();
+    Cam16.fromInt(ucs, ucsCam);
+    float[] fromCam = FROM_CAM_DIMENSIONS.get();
+    Cam16.fromInt(from, fromCam);
+    return HctSolver.solveToInt(
+        ucsCam[Cam16.HUE], fromCam[Cam16.CHROMA], ColorUtils.lstarFromInt(from));
   }
 
   /**
@@ -71,23 +158,26 @@ final class Blend {
    * @return from, blended towards to. Hue, chroma, and tone will change.
    */
   public static int blendCam16Ucs(int from, int to, float amount) {
-    Cam16 fromCam = Cam16.fromInt(from);
-    Cam16 toCam = Cam16.fromInt(to);
+    float[] fromCam = FROM_CAM_DIMENSIONS.get();
+    Cam16.fromInt(from, fromCam);
+    float[] toCam = TO_CAM_DIMENSIONS.get();
+    Cam16.fromInt(to, toCam);
 
-    float aJ = fromCam.getJStar();
-    float aA = fromCam.getAStar();
-    float aB = fromCam.getBStar();
+    float aJ = fromCam[Cam16.JSTAR];
+    float aA = fromCam[Cam16.ASTAR];
+    float aB = fromCam[Cam16.BSTAR];
 
-    float bJ = toCam.getJStar();
-    float bA = toCam.getAStar();
-    float bB = toCam.getBStar();
+    float bJ = toCam[Cam16.JSTAR];
+    float bA = toCam[Cam16.ASTAR];
+    float bB = toCam[Cam16.BSTAR];
 
     float j = aJ + (bJ - aJ) * amount;
     float a = aA + (bA - aA) * amount;
     float b = aB + (bB - aB) * amount;
 
-    Cam16 blended = Cam16.fromUcs(j, a, b);
-    return blended.getInt();
+    float[] blended = fromCam;
+    Cam16.fromUcs(j, a, b, blended);
+    return Cam16.intFromJch(blended[Cam16.J], blended[Cam16.CHROMA], blended[Cam16.HUE]);
   }
 
   /**
@@ -115,4 +205,13 @@ final class Blend {
       return c >= 0.0 ? 1 : -1;
     }
   }
+
+  private static ThreadLocal<float[]> newCamDimensions() {
+    return new ThreadLocal<float[]>() {
+      @Override
+      protected float[] initialValue() {
+        return new float[Cam16.DIMENSION_COUNT];
+      }
+    };
+  }
 }
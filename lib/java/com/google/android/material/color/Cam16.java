@@ -48,6 +48,22 @@ final class Cam16 {
     {-0.01584150f, -0.03412294f, 1.0499644f}
   };
 
+  // Indices of the CAM16 dimensions in arrays written by the primitive variants of the factory
+  // methods, such as fromInt(int, float[]). Those variants let batch color math run without
+  // creating a Cam16 instance per color.
+  static final int HUE = 0;
+  static final int CHROMA = 1;
+  static final int J = 2;
+  static final int Q = 3;
+  static final int M = 4;
+  static final int S = 5;
+  static final int JSTAR = 6;
+  static final int ASTAR = 7;
+  static final int BSTAR = 8;
+
+  /** Minimum length of an array passed to the primitive variants of the factory methods. */
+  static final int DIMENSION_COUNT = 9;
+
   // CAM16 color dimensions, see getters for documentation.
   private final float hue;
   private final float chroma;
@@ -75,6 +91,21 @@ final class Cam16 {
     return (float) dE;
   }
 
+  /**
+   * Distance in CAM16-UCS between two colors whose dimensions were written by the primitive
+   * factory methods.
+   *
+   * @see #distance(Cam16)
+   */
+  static float distance(float[] cam, float[] other) {
+    float dJ = cam[JSTAR] - other[JSTAR];
+    float dA = cam[ASTAR] - other[ASTAR];
+    float dB = cam[BSTAR] - other[BSTAR];
+    double dEPrime = Math.sqrt(dJ * dJ + dA * dA + dB * dB);
+    double dE = 1.41 * Math.pow(dEPrime, 0.63);
+    return (float) dE;
+  }
+
   /** Hue in CAM16 */
   public float getHue() {
     return hue;
@@ -174,6 +205,19 @@ final class Cam16 {
     this.bstar = bstar;
   }
 
+  private static Cam16 fromDimensions(float[] dimensions) {
+    return new Cam16(
+        dimensions[HUE],
+        dimensions[CHROMA],
+        dimensions[J],
+        dimensions[Q],
+        dimensions[M],
+        dimensions[S],
+        dimensions[JSTAR],
+        dimensions[ASTAR],
+        dimensions[BSTAR]);
+  }
+
   /**
    * Create a CAM16 color from a color, assuming the color was viewed in default viewing conditions.
    *
@@ -183,28 +227,67 @@ final class Cam16 {
     return fromIntInViewingConditions(argb, ViewingConditions.DEFAULT);
   }
 
+  /**
+   * Write the CAM16 dimensions of a color, assuming the color was viewed in default viewing
+   * conditions, into an array indexed by {@link #HUE}, {@link #CHROMA}, {@link #J}, etc.
+   *
+   * @param argb ARGB representation of a color.
+   * @param outDimensions Array of at least {@link #DIMENSION_COUNT} elements to write to.
+   */
+  static void fromInt(int argb, float[] outDimensions) {
+    fromIntInViewingConditions(argb, ViewingConditions.DEFAULT, outDimensions);
+  }
+
   /**
    * Create a CAM16 color from a color in defined viewing conditions.
    *
    * @param argb ARGB representation of a color.
    * @param viewingConditions Information about the environment where the color was observed.
    */
+  static Cam16 fromIntInViewingConditions(int argb, ViewingConditions viewingConditions) {
+    float[] dimensions = new float[DIMENSION_COUNT];
+    fromIntInViewingConditions(argb, viewingConditions, dimensions);
+    return fromDimensions(dimensions);
+  }
+
+  /**
+   * Write the CAM16 dimensions of a color in defined viewing conditions into an array.
+   *
+   * @param argb ARGB representation of a color.
+   * @param viewingConditions Information about the environment where the color was observed.
+   * @param outDimensions Array of at least {@link #DIMENSION_COUNT} elements to write to.
+   */
   // The RGB => XYZ conversion matrix elements are derived scientific constants. While the values
   // may differ at runtime due to floating point imprecision, keeping the values the same, and
   // accurate, across implementations takes precedence.
   @SuppressWarnings("FloatingPointLiteralPrecision")
-  static Cam16 fromIntInViewingConditions(int argb, ViewingConditions viewingConditions) {
+  static void fromIntInViewingConditions(
+      int argb, ViewingConditions viewingConditions, float[] outDimensions) {
     // Transform ARGB int to XYZ
     int red = (argb & 0x00ff0000) >> 16;
     int green = (argb & 0x0000ff00) >> 8;
     int blue = (argb & 0x000000ff);
-    float redL = ColorUtils.linearized(red / 255f) * 100f;
-    float greenL = ColorUtils.linearized(green / 255f) * 100f;
-    float blueL = ColorUtils.linearized(blue / 255f) * 100f;
+    float redL = ColorUtils.linearizedComponent(red);
+    float greenL = ColorUtils.linearizedComponent(green);
+    float blueL = ColorUtils.linearizedComponent(blue);
     float x = 0.41233895f * redL + 0.35762064f * greenL + 0.18051042f * blueL;
     float y = 0.2126f * redL + 0.7152f * greenL + 0.0722f * blueL;
     float z = 0.01932141f * redL + 0.11916382f * greenL + 0.95034478f * blueL;
+    fromXyzInViewingConditions(x, y, z, viewingConditions, outDimensions);
+  }
 
+  /**
+   * Write the CAM16 dimensions of a color given in XYZ, in defined viewing conditions, into an
+   * array. Unlike an ARGB color, the XYZ color does not have to be inside of the sRGB gamut.
+   *
+   * @param x X component of the color.
+   * @param y Y component of the color.
+   * @param z Z component of the color.
+   * @param viewingConditions Information about the environment where the color was observed.
+   * @param outDimensions Array of at least {@link #DIMENSION_COUNT} elements to write to.
+   */
+  static void fromXyzInViewingConditions(
+      float x, float y, float z, ViewingConditions viewingConditions, float[] outDimensions) {
     // Transform XYZ to 'cone'/'rgb' responses
     float[][] matrix = XYZ_TO_CAM16RGB;
     float rT = (x * matrix[0][0]) + (y * matrix[0][1]) + (z * matrix[0][2]);
@@ -281,7 +364,7 @@ final class Cam16 {
     float astar = mstar * (float) Math.cos(hueRadians);
     float bstar = mstar * (float) Math.sin(hueRadians);
 
-    return new Cam16(hue, c, j, q, m, s, jstar, astar, bstar);
+    writeDimensions(outDimensions, hue, c, j, q, m, s, jstar, astar, bstar);
   }
 
   /**
@@ -293,6 +376,16 @@ final class Cam16 {
     return fromJchInViewingConditions(j, c, h, ViewingConditions.DEFAULT);
   }
 
+  /**
+   * @param j CAM16 lightness
+   * @param c CAM16 chroma
+   * @param h CAM16 hue
+   * @param outDimensions Array of at least {@link #DIMENSION_COUNT} elements to write to.
+   */
+  static void fromJch(float j, float c, float h, float[] outDimensions) {
+    fromJchInViewingConditions(j, c, h, ViewingConditions.DEFAULT, outDimensions);
+  }
+
   /**
    * @param j CAM16 lightness
    * @param c CAM16 chroma
@@ -301,6 +394,20 @@ final class Cam16 {
    */
   private static Cam16 fromJchInViewingConditions(
       float j, float c, float h, ViewingConditions viewingConditions) {
+    float[] dimensions = new float[DIMENSION_COUNT];
+    fromJchInViewingConditions(j, c, h, viewingConditions, dimensions);
+    return fromDimensions(dimensions);
+  }
+
+  /**
+   * @param j CAM16 lightness
+   * @param c CAM16 chroma
+   * @param h CAM16 hue
+   * @param viewingConditions Information about the environment where the color was observed.
+   * @param outDimensions Array of at least {@link #DIMENSION_COUNT} elements to write to.
+   */
+  private static void fromJchInViewingConditions(
+      float j, float c, float h, ViewingConditions viewingConditions, float[] outDimensions) {
     float q =
         4.0f
             / viewingConditions.getC()
@@ -319,7 +426,7 @@ final class Cam16 {
     float mstar = 1.0f / 0.0228f * (float) Math.log1p(0.0228 * m);
     float astar = mstar * (float) Math.cos(hueRadians);
     float bstar = mstar * (float) Math.sin(hueRadians);
-    return new Cam16(h, c, j, q, m, s, jstar, astar, bstar);
+    writeDimensions(outDimensions, h, c, j, q, m, s, jstar, astar, bstar);
   }
 
   /**
@@ -348,7 +455,39 @@ final class Cam16 {
    */
   public static Cam16 fromUcsInViewingConditions(
       float jstar, float astar, float bstar, ViewingConditions viewingConditions) {
+    float[] dimensions = new float[DIMENSION_COUNT];
+    fromUcsInViewingConditions(jstar, astar, bstar, viewingConditions, dimensions);
+    return fromDimensions(dimensions);
+  }
 
+  /**
+   * Write the CAM16 dimensions of a color defined by CAM16-UCS coordinates into an array.
+   *
+   * @param jstar CAM16-UCS lightness.
+   * @param astar CAM16-UCS a dimension.
+   * @param bstar CAM16-UCS b dimension.
+   * @param outDimensions Array of at least {@link #DIMENSION_COUNT} elements to write to.
+   */
+  static void fromUcs(float jstar, float astar, float bstar, float[] outDimensions) {
+    fromUcsInViewingConditions(jstar, astar, bstar, ViewingConditions.DEFAULT, outDimensions);
+  }
+
+  /**
+   * Write the CAM16 dimensions of a color defined by CAM16-UCS coordinates in defined viewing
+   * conditions into an array.
+   *
+   * @param jstar CAM16-UCS lightness.
+   * @param astar CAM16-UCS a dimension.
+   * @param bstar CAM16-UCS b dimension.
+   * @param viewingConditions Information about the environment where the color was observed.
+   * @param outDimensions Array of at least {@link #DIMENSION_COUNT} elements to write to.
+   */
+  static void fromUcsInViewingConditions(
+      float jstar,
+      float astar,
+      float bstar,
+      ViewingConditions viewingConditions,
+      float[] outDimensions) {
     double m = Math.hypot(astar, bstar);
     double m2 = Math.expm1(m * 0.0228f) / 0.0228f;
     double c = m2 / viewingConditions.getFlRoot();
@@ -357,7 +496,7 @@ final class Cam16 {
       h += 360.0f;
     }
     float j = jstar / (1f - (jstar - 100f) * 0.007f);
-    return fromJchInViewingConditions(j, (float) c, (float) h, viewingConditions);
+    fromJchInViewingConditions(j, (float) c, (float) h, viewingConditions, outDimensions);
   }
 
   /**
@@ -375,22 +514,44 @@ final class Cam16 {
    * @return ARGB representation of color
    */
   int viewed(ViewingConditions viewingConditions) {
-    float alpha =
-        (getChroma() == 0.0 || getJ() == 0.0)
-            ? 0.0f
-            : getChroma() / (float) Math.sqrt(getJ() / 100.0);
+    return viewed(j, chroma, hue, viewingConditions);
+  }
+
+  /**
+   * ARGB representation of a color with the given CAM16 lightness, chroma, and hue, assuming the
+   * color is viewed in default viewing conditions.
+   *
+   * @param j CAM16 lightness
+   * @param c CAM16 chroma
+   * @param h CAM16 hue
+   */
+  static int intFromJch(float j, float c, float h) {
+    return viewed(j, c, h, ViewingConditions.DEFAULT);
+  }
+
+  /**
+   * ARGB representation of a color with the given CAM16 lightness, chroma, and hue, in defined
+   * viewing conditions.
+   *
+   * @param j CAM16 lightness
+   * @param c CAM16 chroma
+   * @param h CAM16 hue
+   * @param viewingConditions Information about the environment where the color will be viewed.
+   */
+  static int viewed(float j, float c, float h, ViewingConditions viewingConditions) {
+    float alpha = (c == 0.0 || j == 0.0) ? 0.0f : c / (float) Math.sqrt(j / 100.0);
 
     float t =
         (float)
             Math.pow(
                 alpha / Math.pow(1.64 - Math.pow(0.29, viewingConditions.getN()), 0.73), 1.0 / 0.9);
-    float hRad = getHue() * (float) Math.PI / 180.0f;
+    float hRad = h * (float) Math.PI / 180.0f;
 
     float eHue = 0.25f * (float) (Math.cos(hRad + 2.0) + 3.8);
     float ac =
         viewingConditions.getAw()
             * (float)
-                Math.pow(getJ() / 100.0, 1.0 / viewingConditions.getC() / viewingConditions.getZ());
+                Math.pow(j / 100.0, 1.0 / viewingConditions.getC() / viewingConditions.getZ());
     float p1 = eHue * (50000.0f / 13.0f) * viewingConditions.getNc() * viewingConditions.getNcb();
     float p2 = (ac / viewingConditions.getNbb());
 
@@ -430,4 +591,26 @@ final class Cam16 {
 
     return ColorUtils.intFromXyzComponents(x, y, z);
   }
+
+  private static void writeDimensions(
+      float[] outDimensions,
+      float hue,
+      float chroma,
+      float j,
+      float q,
+      float m,
+      float s,
+      float jstar,
+      float astar,
+      float bstar) {
+    outDimensions[HUE] = hue;
+    outDimensions[CHROMA] = chroma;
+    outDimensions[J] = j;
+    outDimensions[Q] = q;
+    outDimensions[M] = m;
+    outDimensions[S] = s;
+    outDimensions[JSTAR] = jstar;
+    outDimensions[ASTAR] = astar;
+    outDimensions[BSTAR] = bstar;
+  }
 }
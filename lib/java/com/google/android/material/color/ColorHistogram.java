@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.color;
+
+import androidx.annotation.NonNull;
+import java.util.Arrays;
+
+/**
+ * Distinct ARGB colors and the number of times each of them occurs, stored as parallel arrays.
+ *
+ * <p>Used as the input and output of the quantizers, so that none of the quantization steps need
+ * to box colors into maps.
+ */
+final class ColorHistogram {
+  private final int[] colors;
+  private final int[] counts;
+  private final int size;
+
+  ColorHistogram(@NonNull int[] colors, @NonNull int[] counts, int size) {
+    this.colors = colors;
+    this.counts = counts;
+    this.size = size;
+  }
+
+  /**
+   * Creates a histogram from pixels that are already sorted, for example with {@link
+   * Arrays#sort(int[], int, int)}.
+   *
+   * @param sortedRuns The pixels; every run in the array is sorted in ascending order.
+   * @param runOffsets The index of the first pixel of each run.
+   * @param runSizes The number of pixels in each run.
+   */
+  @NonNull
+  static ColorHistogram fromSortedRuns(
+      @NonNull int[] sortedRuns, @NonNull int[] runOffsets, @NonNull int[] runSizes) {
+    int runCount = runOffsets.length;
+    int pixelCount = 0;
+    for (int runSize : runSizes) {
+      pixelCount += runSize;
+    }
+    int[] positions = Arrays.copyOf(runOffsets, runCount);
+    int[] colors = new int[pixelCount];
+    int[] counts = new int[pixelCount];
+    int size = 0;
+    for (int i = 0; i < pixelCount; i++) {
+      // Take the smallest head of all runs; the number of runs is small, so a linear scan beats a
+      // heap.
+      int minRun = -1;
+      for (int run = 0; run < runCount; run++) {
+        if (positions[run] < runOffsets[run] + runSizes[run]
+            && (minRun == -1 || sortedRuns[positions[run]] < sortedRuns[positions[minRun]])) {
+          minRun = run;
+        }
+      }
+      int color = sortedRuns[positions[minRun]++];
+      if (size > 0 && colors[size - 1] == color) {
+        counts[size - 1]++;
+      } else {
+        colors[size] = color;
+        counts[size] = 1;
+        size++;
+      }
+    }
+    return new ColorHistogram(colors, counts, size);
+  }
+
+  /** Returns the ARGB color at an index, 0 <= index < {@link #getSize()}. */
+  int getColor(int index) {
+    return colors[index];
+  }
+
+  /** Returns the number of occurrences of the color at an index. */
+  int getCount(int index) {
+    return counts[index];
+  }
+
+  /** Returns the number of distinct colors. */
+  int getSize() {
+    return size;
+  }
+}
@@ -26,9 +26,12 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
+import java.io.File;
 import java.io.FileDescriptor;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 /** This class creates a Resources Table at runtime and helps replace color Resources on the fly. */
@@ -39,21 +42,50 @@ final class ColorResourcesLoaderCreator {
 
   private static final String TAG = ColorResourcesLoaderCreator.class.getSimpleName();
 
+  /**
+   * Creates a {@link ResourcesLoader} that overrides the given color resources.
+   *
+   * @param cacheEnabled Whether to reuse the table cached in app-private storage for the same
+   *     color mapping, or cache the generated table if there is none, see {@link
+   *     ColorResourcesTableCache}.
+   */
   @Nullable
   static ResourcesLoader create(
-      @NonNull Context context, @NonNull Map<Integer, Integer> colorMapping) {
+      @NonNull Context context, @NonNull Map<Integer, Integer> colorMapping, boolean cacheEnabled) {
     try {
-      byte[] contentBytes = ColorResourcesTableCreator.create(context, colorMapping);
-      Log.i(TAG, "Table created, length: " + contentBytes.length);
-      if (contentBytes.length == 0) {
+      File tableFile =
+          cacheEnabled ? ColorResourcesTableCache.getTableFile(context, colorMapping) : null;
+      if (tableFile != null && tableFile.isFile()) {
+        try {
+          ResourcesLoader colorsLoader = createFromFile(tableFile);
+          ColorResourcesTableCache.touchTable(tableFile);
+          return colorsLoader;
+        } catch (IOException e) {
+          Log.w(TAG, "Failed to load the cached table, recreating it.", e);
+          tableFile.delete();
+        }
+      }
+
+      ByteBuffer table = ColorResourcesTableCreator.create(context, colorMapping);
+      Log.i(TAG, "Table created, length: " + table.remaining());
+      if (!table.hasRemaining()) {
         return null;
       }
+      if (tableFile != null && ColorResourcesTableCache.putTable(tableFile, table)) {
+        try {
+          return createFromFile(tableFile);
+        } catch (IOException e) {
+          Log.w(TAG, "Failed to load the cached table, loading it from memory.", e);
+          tableFile.delete();
+        }
+      }
       FileDescriptor arscFile = null;
       try {
         arscFile = Os.memfd_create("temp.arsc", /* flags= */ 0);
         // Note: This must not be closed through the OutputStream.
         try (OutputStream pipeWriter = new FileOutputStream(arscFile)) {
-          pipeWriter.write(contentBytes);
+          pipeWriter.write(
+              table.array(), table.arrayOffset() + table.position(), table.remaining());
 
           try (ParcelFileDescriptor pfd = ParcelFileDescriptor.dup(arscFile)) {
             ResourcesLoader colorsLoader = new ResourcesLoader();
@@ -72,4 +104,18 @@ final class ColorResourcesLoaderCreator {
     }
     return null;
   }
+
+  /**
+   * Creates a {@link ResourcesLoader} from a table file. The framework maps the file into memory,
+   * so the table is not copied.
+   */
+  @NonNull
+  private static ResourcesLoader createFromFile(@NonNull File tableFile) throws IOException {
+    try (ParcelFileDescriptor pfd =
+        ParcelFileDescriptor.open(tableFile, ParcelFileDescriptor.MODE_READ_ONLY)) {
+      ResourcesLoader colorsLoader = new ResourcesLoader();
+      colorsLoader.addProvider(ResourcesProvider.loadFromTable(pfd, /* assetsProvider= */ null));
+      return colorsLoader;
+    }
+  }
 }
@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.color;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager.NameNotFoundException;
+import android.os.Build.VERSION_CODES;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import androidx.annotation.VisibleForTesting;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores color resources tables in app-private storage, so that the table for a color mapping is
+ * only generated once rather than on every process start.
+ *
+ * <p>A table file is named after the version of the app and a hash of the color mapping it was
+ * generated for. Resource ids may change between versions of the app, so whenever a table is
+ * stored, the tables of every other version are evicted.
+ */
+@RequiresApi(VERSION_CODES.R)
+final class ColorResourcesTableCache {
+
+  private ColorResourcesTableCache() {}
+
+  private static final String TAG = ColorResourcesTableCache.class.getSimpleName();
+
+  private static final String CACHE_DIRECTORY_NAME = "com.google.android.material.color";
+  private static final String TABLE_FILE_SUFFIX = ".arsc";
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+  /** The maximum number of tables kept for the current version of the app. */
+  private static final int MAX_CACHED_TABLES = 8;
+
+  /** How often a table that keeps being used is marked as used again. */
+  private static final long TOUCH_INTERVAL_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+  /**
+   * How old a temporary file must be before it is considered left behind by a write that never
+   * completed, rather than being written by another process of the app.
+   */
+  private static final long STALE_TEMP_FILE_AGE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+  // The install of the app can't change while this process is running, so it is only looked up
+  // once.
+  @Nullable private static volatile String versionPrefix;
+
+  // The table file of the most recently used color mapping, which is usually the same for every
+  // activity.
+  @Nullable private static volatile TableFile lastTableFile;
+
+  private static final Comparator<File> MOST_RECENTLY_USED_FIRST =
+      new Comparator<File>() {
+        @Override
+        public int compare(File file1, File file2) {
+          return Long.compare(file2.lastModified(), file1.lastModified());
+        }
+      };
+
+  /**
+   * Returns the file the table for a color mapping is cached in, which may not exist yet, or null
+   * if the table can't be cached.
+   */
+  @Nullable
+  static File getTableFile(@NonNull Context context, @NonNull Map<Integer, Integer> colorMapping) {
+    TableFile tableFile = lastTableFile;
+    if (tableFile != null && tableFile.colorMapping.equals(colorMapping)) {
+      return tableFile.file;
+    }
+
+    String prefix = versionPrefix;
+    MessageDigest digest;
+    try {
+      if (prefix == null) {
+        prefix =
+            getVersionPrefix(
+                context.getPackageManager().getPackageInfo(context.getPackageName(), 0));
+        versionPrefix = prefix;
+      }
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NameNotFoundException | NoSuchAlgorithmException e) {
+      Log.w(TAG, "Color resources tables can't be cached.", e);
+      return null;
+    }
+
+    // Hash the mapping in the order of resource ids, so that the key doesn't depend on the order
+    // the map iterates in.
+    int[] resourceIds = new int[colorMapping.size()];
+    int i = 0;
+    for (int resourceId : colorMapping.keySet()) {
+      resourceIds[i++] = resourceId;
+    }
+    Arrays.sort(resourceIds);
+    ByteBuffer entry = ByteBuffer.allocate(8);
+    for (int resourceId : resourceIds) {
+      entry.clear();
+      entry.putInt(resourceId).putInt(colorMapping.get(resourceId));
+      digest.update(entry.array());
+    }
+
+    StringBuilder fileName = new StringBuilder(prefix);
+    for (byte b : digest.digest()) {
+      fileName.append(Character.forDigit((b >> 4) & 0xF, 16));
+      fileName.append(Character.forDigit(b & 0xF, 16));
+    }
+    fileName.append(TABLE_FILE_SUFFIX);
+    File file =
+        new File(new File(context.getCacheDir(), CACHE_DIRECTORY_NAME), fileName.toString());
+    lastTableFile = new TableFile(new HashMap<>(colorMapping), file);
+    return file;
+  }
+
+  /** Forgets the table file of the most recently used color mapping. */
+  @VisibleForTesting
+  static void clearLastTableFile() {
+    lastTableFile = null;
+  }
+
+  /**
+   * Marks a cached table as used, so that it is the last to be evicted. Tables are only marked
+   * once per {@link #TOUCH_INTERVAL_MILLIS}, so that loading a cached table doesn't write to
+   * storage every time.
+   */
+  static void touchTable(@NonNull File tableFile) {
+    long now = System.currentTimeMillis();
+    if (now - tableFile.lastModified() >= TOUCH_INTERVAL_MILLIS) {
+      // Best effort; a table that fails to be marked is only evicted sooner.
+      tableFile.setLastModified(now);
+    }
+  }
+
+  /**
+   * Stores a table in its file, and evicts tables of other versions of the app and the least
+   * recently used tables of this version.
+   *
+   * @return Whether the table was stored.
+   */
+  static boolean putTable(@NonNull File tableFile, @NonNull ByteBuffer table) {
+    File directory = tableFile.getParentFile();
+    if (directory == null || (!directory.isDirectory() && !directory.mkdirs())) {
+      return false;
+    }
+    String versionPrefix = getVersionPrefix(tableFile);
+
+    // Write to a temporary file first, so that a table file is either complete or missing. The
+    // file isn't synced, as a table torn by a crash of the device fails to load and is created
+    // again, see ColorResourcesLoaderCreator.
+    File tempFile = null;
+    try {
+      tempFile = File.createTempFile(versionPrefix, TEMP_FILE_SUFFIX, directory);
+      try (FileOutputStream outputStream = new FileOutputStream(tempFile)) {
+        outputStream.write(
+            table.array(), table.arrayOffset() + table.position(), table.remaining());
+      }
+      if (!tempFile.renameTo(tableFile)) {
+        throw new IOException("Failed to rename " + tempFile + " to " + tableFile);
+      }
+    } catch (IOException e) {
+      Log.w(TAG, "Failed to cache the color resources table.", e);
+      if (tempFile != null) {
+        tempFile.delete();
+      }
+      return false;
+    }
+
+    evictStaleTables(directory, versionPrefix);
+    return true;
+  }
+
+  private static void evictStaleTables(@NonNull File directory, @NonNull String versionPrefix) {
+    File[] files = directory.listFiles();
+    if (files == null) {
+      return;
+    }
+    File[] tables = new File[files.length];
+    int tableCount = 0;
+    long now = System.currentTimeMillis();
+    for (File file : files) {
+      if (!file.getName().startsWith(versionPrefix)) {
+        file.delete();
+      } else if (file.getName().endsWith(TABLE_FILE_SUFFIX)) {
+        tables[tableCount++] = file;
+      } else if (file.getName().endsWith(TEMP_FILE_SUFFIX)
+          && now - file.lastModified() >= STALE_TEMP_FILE_AGE_MILLIS) {
+        // Left behind by a write that never completed.
+        file.delete();
+      }
+    }
+    if (tableCount > MAX_CACHED_TABLES) {
+      Arrays.sort(tables, 0, tableCount, MOST_RECENTLY_USED_FIRST);
+      for (int i = MAX_CACHED_TABLES; i < tableCount; i++) {
+        tables[i].delete();
+      }
+    }
+  }
+
+  /**
+   * Returns the prefix of the names of table files generated by this install of the app. The
+   * update time changes on every install, even if the version code doesn't.
+   */
+  @NonNull
+  private static String getVersionPrefix(@NonNull PackageInfo packageInfo) {
+    return "v" + packageInfo.getLongVersionCode() + "-" + packageInfo.lastUpdateTime + "-";
+  }
+
+  @NonNull
+  private static String getVersionPrefix(@NonNull File tableFile) {
+    String fileName = tableFile.getName();
+    return fileName.substring(0, fileName.lastIndexOf('-') + 1);
+  }
+
+  private static final class TableFile {
+    @NonNull final Map<Integer, Integer> colorMapping;
+    @NonNull final File file;
+
+    TableFile(@NonNull Map<Integer, Integer> colorMapping, @NonNull File file) {
+      this.colorMapping = colorMapping;
+      this.file = file;
+    }
+  }
+}
@@ -19,18 +19,17 @@ package com.google.android.material.color;
 import android.content.Context;
 import android.util.Pair;
 import androidx.annotation.ColorInt;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import androidx.annotation.NonNull;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
 
 /**
  * This class consists of definitions of resource data structures and helps creates a Color
@@ -62,17 +61,39 @@ final class ColorResourcesTableCreator {
         }
       };
 
-  static byte[] create(Context context, Map<Integer, Integer> colorMapping) throws IOException {
-    PackageInfo applicationPackageInfo =
-        new PackageInfo(APPLICATION_PACKAGE_ID, context.getPackageName());
-
-    Map<PackageInfo, List<ColorResource>> colorResourceMap = new HashMap<>();
+  /**
+   * Creates a resources table that overrides the given color resources.
+   *
+   * @return A little-endian buffer holding exactly the table, positioned at its start.
+   */
+  @NonNull
+  static ByteBuffer create(@NonNull Context context, @NonNull Map<Integer, Integer> colorMapping) {
+    List<ColorResource> colorResources = new ArrayList<>(colorMapping.size());
     for (Map.Entry<Integer, Integer> entry : colorMapping.entrySet()) {
-      ColorResource colorResource =
+      colorResources.add(
           new ColorResource(
               entry.getKey(),
               context.getResources().getResourceName(entry.getKey()),
-              entry.getValue());
+              entry.getValue()));
+    }
+    return create(context.getPackageName(), colorResources);
+  }
+
+  /**
+   * Creates a resources table that overrides the given color resources of the application package
+   * and the android package.
+   *
+   * <p>The size of every chunk is known before anything is written, so the table is written into
+   * a single buffer of exactly the right size.
+   */
+  @NonNull
+  static ByteBuffer create(
+      @NonNull String applicationPackageName, @NonNull List<ColorResource> colorResources) {
+    PackageInfo applicationPackageInfo =
+        new PackageInfo(APPLICATION_PACKAGE_ID, applicationPackageName);
+
+    Map<PackageInfo, List<ColorResource>> colorResourceMap = new HashMap<>();
+    for (ColorResource colorResource : colorResources) {
       if (colorResource.typeId != TYPE_ID_COLOR) {
         throw new IllegalArgumentException("Non color resource found: " + colorResource.name);
       }
@@ -90,9 +111,12 @@ final class ColorResourcesTableCreator {
       }
       colorResourceMap.get(packageInfo).add(colorResource);
     }
-    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-    new ResTable(colorResourceMap).writeTo(outputStream);
-    return outputStream.toByteArray();
+    ResTable resTable = new ResTable(colorResourceMap);
+    ByteBuffer buffer =
+        ByteBuffer.allocate(resTable.getOverallSize()).order(ByteOrder.LITTLE_ENDIAN);
+    resTable.writeTo(buffer);
+    buffer.flip();
+    return buffer;
   }
 
   /**
@@ -122,16 +146,16 @@ final class ColorResourcesTableCreator {
       header = new ResChunkHeader(HEADER_TYPE_RES_TABLE, HEADER_SIZE, getOverallSize());
     }
 
-    void writeTo(ByteArrayOutputStream outputStream) throws IOException {
-      header.writeTo(outputStream);
-      outputStream.write(intToByteArray(packageCount));
-      stringPool.writeTo(outputStream);
+    void writeTo(ByteBuffer buffer) {
+      header.writeTo(buffer);
+      buffer.putInt(packageCount);
+      stringPool.writeTo(buffer);
       for (PackageChunk packageChunk : packageChunks) {
-        packageChunk.writeTo(outputStream);
+        packageChunk.writeTo(buffer);
       }
     }
 
-    private int getOverallSize() {
+    int getOverallSize() {
       int packageChunkSize = 0;
       for (PackageChunk packageChunk : packageChunks) {
         packageChunkSize += packageChunk.getChunkSize();
@@ -162,10 +186,10 @@ final class ColorResourcesTableCreator {
       this.chunkSize = chunkSize;
     }
 
-    void writeTo(ByteArrayOutputStream outputStream) throws IOException {
-      outputStream.write(shortToByteArray(type));
-      outputStream.write(shortToByteArray(headerSize));
-      outputStream.write(intToByteArray(chunkSize));
+    void writeTo(ByteBuffer buffer) {
+      buffer.putShort(type);
+      buffer.putShort(headerSize);
+      buffer.putInt(chunkSize);
     }
   }
 
@@ -242,30 +266,30 @@ final class ColorResourcesTableCreator {
       header = new ResChunkHeader(HEADER_TYPE_STRING_POOL, HEADER_SIZE, chunkSize);
     }
 
-    void writeTo(ByteArrayOutputStream outputStream) throws IOException {
-      header.writeTo(outputStream);
-      outputStream.write(intToByteArray(stringCount));
-      outputStream.write(intToByteArray(styledSpanCount));
-      outputStream.write(intToByteArray(utf8Encode ? FLAG_UTF8 : 0));
-      outputStream.write(intToByteArray(stringsStart));
-      outputStream.write(intToByteArray(styledSpansStart));
+    void writeTo(ByteBuffer buffer) {
+      header.writeTo(buffer);
+      buffer.putInt(stringCount);
+      buffer.putInt(styledSpanCount);
+      buffer.putInt(utf8Encode ? FLAG_UTF8 : 0);
+      buffer.putInt(stringsStart);
+      buffer.putInt(styledSpansStart);
       for (Integer index : stringIndex) {
-        outputStream.write(intToByteArray(index));
+        buffer.putInt(index);
       }
       for (Integer index : styledSpanIndex) {
-        outputStream.write(intToByteArray(index));
+        buffer.putInt(index);
       }
       for (byte[] string : strings) {
-        outputStream.write(string);
+        buffer.put(string);
       }
-      if (stringsPaddingSize > 0) {
-        outputStream.write(new byte[stringsPaddingSize]);
+      for (int i = 0; i < stringsPaddingSize; i++) {
+        buffer.put((byte) 0);
       }
       for (List<StringStyledSpan> styledSpanList : styledSpans) {
         for (StringStyledSpan styledSpan : styledSpanList) {
-          styledSpan.writeTo(outputStream);
+          styledSpan.writeTo(buffer);
         }
-        outputStream.write(intToByteArray(STYLED_SPAN_LIST_END));
+        buffer.putInt(STYLED_SPAN_LIST_END);
       }
     }
 
@@ -289,10 +313,10 @@ final class ColorResourcesTableCreator {
     private int firstCharacterIndex;
     private int lastCharacterIndex;
 
-    void writeTo(ByteArrayOutputStream outputStream) throws IOException {
-      outputStream.write(intToByteArray(nameReference));
-      outputStream.write(intToByteArray(firstCharacterIndex));
-      outputStream.write(intToByteArray(lastCharacterIndex));
+    void writeTo(ByteBuffer buffer) {
+      buffer.putInt(nameReference);
+      buffer.putInt(firstCharacterIndex);
+      buffer.putInt(lastCharacterIndex);
     }
   }
 
@@ -330,26 +354,21 @@ final class ColorResourcesTableCreator {
       header = new ResChunkHeader(HEADER_TYPE_PACKAGE, HEADER_SIZE, getChunkSize());
     }
 
-    void writeTo(ByteArrayOutputStream outputStream) throws IOException {
-      header.writeTo(outputStream);
-      outputStream.write(intToByteArray(packageInfo.id));
-      char[] packageName = packageInfo.name.toCharArray();
+    void writeTo(ByteBuffer buffer) {
+      header.writeTo(buffer);
+      buffer.putInt(packageInfo.id);
+      String packageName = packageInfo.name;
       for (int i = 0; i < PACKAGE_NAME_MAX_LENGTH; i++) {
-        if (i < packageName.length) {
-          outputStream.write(charToByteArray(packageName[i]));
-        } else {
-          outputStream.write(charToByteArray((char) 0));
-        }
+        buffer.putChar(i < packageName.length() ? packageName.charAt(i) : (char) 0);
       }
-      outputStream.write(intToByteArray(HEADER_SIZE)); // Type strings offset
-      outputStream.write(intToByteArray(0)); // Last public type
-      outputStream.write(
-          intToByteArray(HEADER_SIZE + typeStrings.getChunkSize())); // Key strings offset
-      outputStream.write(intToByteArray(0)); // Last public key
-      outputStream.write(intToByteArray(0)); // Note
-      typeStrings.writeTo(outputStream);
-      keyStrings.writeTo(outputStream);
-      typeSpecChunk.writeTo(outputStream);
+      buffer.putInt(HEADER_SIZE); // Type strings offset
+      buffer.putInt(0); // Last public type
+      buffer.putInt(HEADER_SIZE + typeStrings.getChunkSize()); // Key strings offset
+      buffer.putInt(0); // Last public key
+      buffer.putInt(0); // Note
+      typeStrings.writeTo(buffer);
+      keyStrings.writeTo(buffer);
+      typeSpecChunk.writeTo(buffer);
     }
 
     int getChunkSize() {
@@ -380,14 +399,14 @@ final class ColorResourcesTableCreator {
 
     TypeSpecChunk(List<ColorResource> colorResources) {
       entryCount = colorResources.get(colorResources.size() - 1).entryId + 1;
-      Set<Short> validEntryIds = new HashSet<>();
+      boolean[] validEntryIds = new boolean[entryCount];
       for (ColorResource colorResource : colorResources) {
-        validEntryIds.add(colorResource.entryId);
+        validEntryIds[colorResource.entryId] = true;
       }
       entryFlags = new int[entryCount];
       // All color resources in the table are marked as PUBLIC.
       for (short entryId = 0; entryId < entryCount; entryId++) {
-        if (validEntryIds.contains(entryId)) {
+        if (validEntryIds[entryId]) {
           entryFlags[entryId] = SPEC_PUBLIC;
         }
       }
@@ -397,14 +416,14 @@ final class ColorResourcesTableCreator {
       typeChunk = new TypeChunk(colorResources, validEntryIds, entryCount);
     }
 
-    void writeTo(ByteArrayOutputStream outputStream) throws IOException {
-      header.writeTo(outputStream);
-      outputStream.write(new byte[] {TYPE_ID_COLOR, 0x00, 0x00, 0x00});
-      outputStream.write(intToByteArray(entryCount));
+    void writeTo(ByteBuffer buffer) {
+      header.writeTo(buffer);
+      buffer.put(TYPE_ID_COLOR).put((byte) 0x00).putShort((short) 0x0000);
+      buffer.putInt(entryCount);
       for (int entryFlag : entryFlags) {
-        outputStream.write(intToByteArray(entryFlag));
+        buffer.putInt(entryFlag);
       }
-      typeChunk.writeTo(outputStream);
+      typeChunk.writeTo(buffer);
     }
 
     int getChunkSizeWithTypeChunk() {
@@ -434,7 +453,7 @@ final class ColorResourcesTableCreator {
     private final int[] offsetTable;
     private final ResEntry[] resEntries;
 
-    TypeChunk(List<ColorResource> colorResources, Set<Short> entryIds, int entryCount) {
+    TypeChunk(List<ColorResource> colorResources, boolean[] entryIds, int entryCount) {
       this.entryCount = entryCount;
       this.config[0] = CONFIG_SIZE;
 
@@ -448,7 +467,7 @@ final class ColorResourcesTableCreator {
       this.offsetTable = new int[entryCount];
       int currentOffset = 0;
       for (short entryId = 0; entryId < entryCount; entryId++) {
-        if (entryIds.contains(entryId)) {
+        if (entryIds[entryId]) {
           this.offsetTable[entryId] = currentOffset;
           currentOffset += ResEntry.SIZE;
         } else {
@@ -459,17 +478,17 @@ final class ColorResourcesTableCreator {
       this.header = new ResChunkHeader(HEADER_TYPE_TYPE, HEADER_SIZE, getChunkSize());
     }
 
-    void writeTo(ByteArrayOutputStream outputStream) throws IOException {
-      header.writeTo(outputStream);
-      outputStream.write(new byte[] {TYPE_ID_COLOR, 0x00, 0x00, 0x00});
-      outputStream.write(intToByteArray(entryCount));
-      outputStream.write(intToByteArray(getEntryStart()));
-      outputStream.write(config);
+    void writeTo(ByteBuffer buffer) {
+      header.writeTo(buffer);
+      buffer.put(TYPE_ID_COLOR).put((byte) 0x00).putShort((short) 0x0000);
+      buffer.putInt(entryCount);
+      buffer.putInt(getEntryStart());
+      buffer.put(config);
       for (int offset : offsetTable) {
-        outputStream.write(intToByteArray(offset));
+        buffer.putInt(offset);
       }
       for (ResEntry entry : resEntries) {
-        entry.writeTo(outputStream);
+        entry.writeTo(buffer);
       }
     }
 
@@ -508,13 +527,13 @@ final class ColorResourcesTableCreator {
       this.data = data;
     }
 
-    void writeTo(ByteArrayOutputStream outputStream) throws IOException {
-      outputStream.write(shortToByteArray(ENTRY_SIZE));
-      outputStream.write(shortToByteArray(FLAG_PUBLIC));
-      outputStream.write(intToByteArray(keyStringIndex));
-      outputStream.write(shortToByteArray(VALUE_SIZE));
-      outputStream.write(new byte[] {0x00, DATA_TYPE_AARRGGBB});
-      outputStream.write(intToByteArray(data));
+    void writeTo(ByteBuffer buffer) {
+      buffer.putShort(ENTRY_SIZE);
+      buffer.putShort(FLAG_PUBLIC);
+      buffer.putInt(keyStringIndex);
+      buffer.putShort(VALUE_SIZE);
+      buffer.put((byte) 0x00).put(DATA_TYPE_AARRGGBB);
+      buffer.putInt(data);
     }
   }
 
@@ -552,37 +571,15 @@ final class ColorResourcesTableCreator {
     }
   }
 
-  private static byte[] shortToByteArray(short value) {
-    return new byte[] {
-      (byte) (value & 0xFF), (byte) ((value >> 8) & 0xFF),
-    };
-  }
-
-  private static byte[] charToByteArray(char value) {
-    return new byte[] {
-      (byte) (value & 0xFF), (byte) ((value >> 8) & 0xFF),
-    };
-  }
-
-  private static byte[] intToByteArray(int value) {
-    return new byte[] {
-      (byte) (value & 0xFF),
-      (byte) ((value >> 8) & 0xFF),
-      (byte) ((value >> 16) & 0xFF),
-      (byte) ((value >> 24) & 0xFF),
-    };
-  }
-
   private static byte[] stringToByteArray(String value) {
-    char[] chars = value.toCharArray();
-    byte[] bytes = new byte[chars.length * 2 + 4];
-    byte[] lengthBytes = shortToByteArray((short) chars.length);
-    bytes[0] = lengthBytes[0];
-    bytes[1] = lengthBytes[1];
-    for (int i = 0; i < chars.length; i++) {
-      byte[] charBytes = charToByteArray(chars[i]);
-      bytes[i * 2 + 2] = charBytes[0];
-      bytes[i * 2 + 3] = charBytes[1];
+    int length = value.length();
+    byte[] bytes = new byte[length * 2 + 4];
+    bytes[0] = (byte) (length & 0xFF);
+    bytes[1] = (byte) ((length >> 8) & 0xFF);
+    for (int i = 0; i < length; i++) {
+      char c = value.charAt(i);
+      bytes[i * 2 + 2] = (byte) (c & 0xFF);
+      bytes[i * 2 + 3] = (byte) ((c >> 8) & 0xFF);
     }
     bytes[bytes.length - 2] = 0;
     bytes[bytes.length - 1] = 0; // EOS
@@ -26,6 +26,37 @@ final class ColorUtils {
 
   private static final float[] WHITE_POINT_D65 = {95.047f, 100.0f, 108.883f};
 
+  /** {@link #linearized(float)} of every 8-bit channel value, scaled to 0..100. */
+  private static final float[] LINEARIZED_COMPONENTS = new float[256];
+
+  /**
+   * The linear RGB component, from 0 to 100, at which each channel value above 0 starts; the
+   * component that delinearizes to the midpoint between that value and the one below it.
+   */
+  private static final double[] CHANNEL_THRESHOLDS = new double[255];
+
+  static {
+    for (int i = 0; i < LINEARIZED_COMPONENTS.length; i++) {
+      LINEARIZED_COMPONENTS[i] = linearized(i / 255f) * 100f;
+    }
+    for (int i = 0; i < CHANNEL_THRESHOLDS.length; i++) {
+      double normalized = (i + 0.5) / 255.0;
+      CHANNEL_THRESHOLDS[i] =
+          100.0
+              * (normalized <= 0.04045
+                  ? normalized / 12.92
+                  : Math.pow((normalized + 0.055) / 1.055, 2.4));
+    }
+  }
+
+  /**
+   * Returns the linear RGB component, from 0 to 100, at which the 8-bit channel value {@code i + 1}
+   * starts. These are also the planes {@link HctSolver} bisects the RGB cube at.
+   */
+  static double channelThreshold(int i) {
+    return CHANNEL_THRESHOLDS[i];
+  }
+
   /** Standard white point; white on a sunny day. */
   public static final float[] whitePointD65() {
     return Arrays.copyOf(WHITE_POINT_D65, 3);
@@ -64,7 +95,30 @@ final class ColorUtils {
    * @param argb ARGB representation of a color.
    */
   public static float lstarFromInt(int argb) {
-    return (float) labFromInt(argb)[0];
+    final float r = linearizedComponent(redFromInt(argb));
+    final float g = linearizedComponent(greenFromInt(argb));
+    final float b = linearizedComponent(blueFromInt(argb));
+    final float y = 0.2126f * r + 0.7152f * g + 0.0722f * b;
+    return lstarFromY(y);
+  }
+
+  /**
+   * L* in L*a*b* from Y in XYZ; the inverse of {@link #yFromLstar(float)}.
+   *
+   * @param y Y in XYZ
+   * @return L* in L*a*b*
+   */
+  public static float lstarFromY(float y) {
+    final double e = 216.0 / 24389.0;
+    final double kappa = 24389.0 / 27.0;
+    final double yNormalized = y / WHITE_POINT_D65[1];
+    double fy;
+    if (yNormalized > e) {
+      fy = Math.cbrt(yNormalized);
+    } else {
+      fy = (kappa * yNormalized + 16) / 116;
+    }
+    return (float) (116.0 * fy - 16);
   }
 
   /**
@@ -89,9 +143,9 @@ final class ColorUtils {
   // accurate, across implementations takes precedence.
   @SuppressWarnings("FloatingPointLiteralPrecision")
   public static float[] xyzFromInt(int argb) {
-    final float r = linearized(redFromInt(argb) / 255f) * 100f;
-    final float g = linearized(greenFromInt(argb) / 255f) * 100f;
-    final float b = linearized(blueFromInt(argb) / 255f) * 100f;
+    final float r = linearizedComponent(redFromInt(argb));
+    final float g = linearizedComponent(greenFromInt(argb));
+    final float b = linearizedComponent(blueFromInt(argb));
     final float x = 0.41233894f * r + 0.35762064f * g + 0.18051042f * b;
     final float y = 0.2126f * r + 0.7152f * g + 0.0722f * b;
     final float z = 0.01932141f * r + 0.11916382f * g + 0.95034478f * b;
@@ -176,14 +230,10 @@ final class ColorUtils {
     float gL = x * -0.9689f + y * 1.8758f + z * 0.0415f;
     float bL = x * 0.0557f + y * -0.204f + z * 1.057f;
 
-    float r = ColorUtils.delinearized(rL);
-    float g = ColorUtils.delinearized(gL);
-    float b = ColorUtils.delinearized(bL);
-
-    int rInt = (Math.max(Math.min(255, Math.round(r * 255)), 0));
-    int gInt = (Math.max(Math.min(255, Math.round(g * 255)), 0));
-    int bInt = (Math.max(Math.min(255, Math.round(b * 255)), 0));
-    return intFromRgb(rInt, gInt, bInt);
+    return intFromRgb(
+        delinearizedComponent(rL * 100f),
+        delinearizedComponent(gL * 100f),
+        delinearizedComponent(bL * 100f));
   }
 
   /** ARGB representation of color in the XYZ color space. */
@@ -227,7 +277,8 @@ final class ColorUtils {
   public static float yFromLstar(float lstar) {
     float ke = 8.0f;
     if (lstar > ke) {
-      return (float) Math.pow(((lstar + 16.0) / 116.0), 3) * 100f;
+      double fy = (lstar + 16.0) / 116.0;
+      return (float) (fy * fy * fy) * 100f;
     } else {
       return lstar / (24389f / 27f) * 100f;
     }
@@ -258,4 +309,36 @@ final class ColorUtils {
       return ((1.055f * (float) Math.pow(rgb, 1.0f / 2.4f)) - 0.055f);
     }
   }
+
+  /**
+   * Convert an 8-bit RGB channel to a linear RGB component, using a lookup table.
+   *
+   * @param rgbComponent 0 <= rgbComponent <= 255, represents R/G/B channel
+   * @return 0.0 <= output <= 100.0, equal to {@code linearized(rgbComponent / 255f) * 100f}
+   */
+  public static float linearizedComponent(int rgbComponent) {
+    return LINEARIZED_COMPONENTS[rgbComponent];
+  }
+
+  /**
+   * Convert a linear RGB component to the nearest 8-bit RGB channel, using a lookup table.
+   * Components outside of the sRGB gamut are clamped.
+   *
+   * @param linearComponent linear R/G/B component, where 0.0 to 100.0 is in gamut
+   * @return 0 <= output <= 255, equal to {@code round(delinearized(linearComponent / 100f) * 255)}
+   */
+  public static int delinearizedComponent(double linearComponent) {
+    // The number of thresholds at or below the component, by binary search.
+    int low = 0;
+    int high = CHANNEL_THRESHOLDS.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (linearComponent >= CHANNEL_THRESHOLDS[mid]) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
 }
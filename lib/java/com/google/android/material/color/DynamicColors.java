@@ -22,6 +22,7 @@ import android.app.Activity;
 import android.app.Application;
 import android.app.Application.ActivityLifecycleCallbacks;
 import android.content.Context;
+import android.content.res.Resources.Theme;
 import android.content.res.TypedArray;
 import android.os.Build;
 import android.os.Build.VERSION;
@@ -36,6 +37,11 @@ import java.lang.reflect.Method;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 
 /** Utility for applying dynamic colors to application/activities. */
 public class DynamicColors {
@@ -53,7 +59,8 @@ public class DynamicColors {
   @SuppressLint("PrivateApi")
   private static final DeviceSupportCondition SAMSUNG_DEVICE_SUPPORT_CONDITION =
       new DeviceSupportCondition() {
-        private Long version;
+        // Volatile, as availability may be checked on a precompute executor.
+        private volatile Long version;
 
         @Override
         public boolean isSupported() {
@@ -199,6 +206,11 @@ public class DynamicColors {
    * are applying any other theme overlays after that, you will need to be careful about not
    * overriding the colors or you may lose the dynamic color support.
    *
+   * <p>If the options specify a {@link DynamicColorsOptions#getPrecomputeExecutor() precompute
+   * executor}, whether dynamic colors are available is determined, and the theme overlay is
+   * loaded, on that executor right away, so that the callback only resolves and applies the theme
+   * overlay of each activity.
+   *
    * @param application The target application.
    * @param dynamicColorsOptions The dynamic colors options object that specifies the theme resource
    *     ID, precondition to decide if dynamic colors should be applied and the callback function
@@ -207,7 +219,7 @@ public class DynamicColors {
   public static void applyToActivitiesIfAvailable(
       @NonNull Application application, @NonNull DynamicColorsOptions dynamicColorsOptions) {
     application.registerActivityLifecycleCallbacks(
-        new DynamicColorsActivityLifecycleCallbacks(dynamicColorsOptions));
+        new DynamicColorsActivityLifecycleCallbacks(application, dynamicColorsOptions));
   }
 
   /**
@@ -285,6 +297,15 @@ public class DynamicColors {
     if (!isDynamicColorAvailable()) {
       return;
     }
+    applyToActivity(activity, theme, precondition, onAppliedCallback);
+  }
+
+  /** Applies dynamic colors to the activity, assuming that they are available. */
+  private static void applyToActivity(
+      @NonNull Activity activity,
+      @StyleRes int theme,
+      @NonNull Precondition precondition,
+      @NonNull OnAppliedCallback onAppliedCallback) {
     if (theme == USE_DEFAULT_THEME_OVERLAY) {
       theme = getDefaultThemeOverlay(activity);
     }
@@ -370,22 +391,143 @@ public class DynamicColors {
     void onApplied(@NonNull Activity activity);
   }
 
+  /**
+   * Callbacks that report how long dynamic colors took to prepare and apply when they are applied
+   * to all activities, see {@link DynamicColorsOptions.Builder#setTimingCallback(TimingCallback)}.
+   */
+  public interface TimingCallback {
+
+    /**
+     * Called on the precompute executor once dynamic colors have been prepared in the background.
+     *
+     * @param durationNanos The time spent preparing dynamic colors, in nanoseconds.
+     */
+    void onPrecomputed(long durationNanos);
+
+    /**
+     * Called on the main thread after dynamic colors have been applied, or found not to apply, to
+     * an activity that is being created.
+     *
+     * @param activity The activity being created.
+     * @param durationNanos The time spent on the main thread, in nanoseconds.
+     * @param precomputed Whether dynamic colors had already been prepared in the background.
+     */
+    void onActivityPreCreated(@NonNull Activity activity, long durationNanos, boolean precomputed);
+  }
+
   private static class DynamicColorsActivityLifecycleCallbacks
       implements ActivityLifecycleCallbacks {
     private final DynamicColorsOptions dynamicColorsOptions;
 
-    DynamicColorsActivityLifecycleCallbacks(@NonNull DynamicColorsOptions options) {
+    // Completes with whether dynamic colors are available, once the theme overlay has been loaded
+    // in the background; null if nothing is prepared in the background.
+    @Nullable private final FutureTask<Boolean> precomputation;
+
+    DynamicColorsActivityLifecycleCallbacks(
+        @NonNull Application application, @NonNull DynamicColorsOptions options) {
       this.dynamicColorsOptions = options;
+      this.precomputation = startPrecomputation(application, options);
     }
 
     @Override
     public void onActivityPreCreated(
         @NonNull Activity activity, @Nullable Bundle savedInstanceState) {
-      applyToActivityIfAvailable(
-          activity,
-          dynamicColorsOptions.getThemeOverlay(),
-          dynamicColorsOptions.getPrecondition(),
-          dynamicColorsOptions.getOnAppliedCallback());
+      long startNanos = System.nanoTime();
+      Boolean precomputedAvailability = getPrecomputedAvailability();
+      if (precomputedAvailability == null) {
+        applyToActivityIfAvailable(
+            activity,
+            dynamicColorsOptions.getThemeOverlay(),
+            dynamicColorsOptions.getPrecondition(),
+            dynamicColorsOptions.getOnAppliedCallback());
+      } else if (precomputedAvailability) {
+        // The default overlay still depends on the activity's own theme, so it is resolved here.
+        applyToActivity(
+            activity,
+            dynamicColorsOptions.getThemeOverlay(),
+            dynamicColorsOptions.getPrecondition(),
+            dynamicColorsOptions.getOnAppliedCallback());
+      }
+      TimingCallback timingCallback = dynamicColorsOptions.getTimingCallback();
+      if (timingCallback != null) {
+        timingCallback.onActivityPreCreated(
+            activity, System.nanoTime() - startNanos, precomputedAvailability != null);
+      }
+    }
+
+    /**
+     * Returns whether dynamic colors are available, as determined in the background; null if the
+     * precomputation hasn't completed, or isn't enabled. Never waits.
+     */
+    @Nullable
+    private Boolean getPrecomputedAvailability() {
+      if (precomputation == null || !precomputation.isDone()) {
+        return null;
+      }
+      try {
+        return precomputation.get();
+      } catch (InterruptedException | ExecutionException e) {
+        // Prepare dynamic colors on the main thread instead.
+        return null;
+      }
+    }
+
+    @Nullable
+    private static FutureTask<Boolean> startPrecomputation(
+        @NonNull final Application application, @NonNull final DynamicColorsOptions options) {
+      Executor executor = options.getPrecomputeExecutor();
+      if (executor == null) {
+        return null;
+      }
+      FutureTask<Boolean> precomputation =
+          new FutureTask<>(
+              new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                  long startNanos = System.nanoTime();
+                  boolean available = isDynamicColorAvailable();
+                  if (available) {
+                    preloadThemeOverlay(application, options.getThemeOverlay());
+                  }
+                  TimingCallback timingCallback = options.getTimingCallback();
+                  if (timingCallback != null) {
+                    timingCallback.onPrecomputed(System.nanoTime() - startNanos);
+                  }
+                  return available;
+                }
+              });
+      try {
+        executor.execute(precomputation);
+      } catch (RejectedExecutionException e) {
+        return null;
+      }
+      return precomputation;
+    }
+
+    /**
+     * Applies the theme overlay to a throwaway theme, so that its style is already resolved and
+     * cached by the shared {@link android.content.res.AssetManager} when activities apply it. The
+     * throwaway theme starts from the application's theme resource rather than its {@link Theme}
+     * object, which is not safe to use off the main thread.
+     *
+     * <p>The default theme overlay is looked up in the application's theme only to warm the cache;
+     * activities still resolve it from their own themes, which may differ.
+     */
+    private static void preloadThemeOverlay(@NonNull Application application, @StyleRes int theme) {
+      Theme preloadedTheme = application.getResources().newTheme();
+      int applicationTheme = application.getApplicationInfo().theme;
+      if (applicationTheme != 0) {
+        preloadedTheme.applyStyle(applicationTheme, /* force= */ true);
+      }
+      if (theme == USE_DEFAULT_THEME_OVERLAY) {
+        TypedArray dynamicColorAttributes =
+            preloadedTheme.obtainStyledAttributes(DYNAMIC_COLOR_THEME_OVERLAY_ATTRIBUTE);
+        theme = dynamicColorAttributes.getResourceId(0, 0);
+        dynamicColorAttributes.recycle();
+      }
+      if (theme != 0) {
+        preloadedTheme.applyStyle(theme, /* force= */ true);
+      }
     }
 
     @Override
@@ -18,9 +18,12 @@ package com.google.android.material.color;
 
 import android.app.Activity;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.StyleRes;
 import com.google.android.material.color.DynamicColors.OnAppliedCallback;
 import com.google.android.material.color.DynamicColors.Precondition;
+import com.google.android.material.color.DynamicColors.TimingCallback;
+import java.util.concurrent.Executor;
 
 /** Wrapper class for specifying dynamic colors options when applying dynamic colors. */
 public class DynamicColorsOptions {
@@ -42,11 +45,15 @@ public class DynamicColorsOptions {
   @StyleRes private final int themeOverlay;
   @NonNull private final Precondition precondition;
   @NonNull private final OnAppliedCallback onAppliedCallback;
+  @Nullable private final Executor precomputeExecutor;
+  @Nullable private final TimingCallback timingCallback;
 
   private DynamicColorsOptions(Builder builder) {
     this.themeOverlay = builder.themeOverlay;
     this.precondition = builder.precondition;
     this.onAppliedCallback = builder.onAppliedCallback;
+    this.precomputeExecutor = builder.precomputeExecutor;
+    this.timingCallback = builder.timingCallback;
   }
 
   /** Returns the resource ID of the theme overlay that provides dynamic color definition. */
@@ -67,12 +74,29 @@ public class DynamicColorsOptions {
     return onAppliedCallback;
   }
 
+  /**
+   * Returns the executor that dynamic colors are prepared on when applied to all activities, or
+   * {@code null} if they are prepared on the main thread.
+   */
+  @Nullable
+  public Executor getPrecomputeExecutor() {
+    return precomputeExecutor;
+  }
+
+  /** Returns the callback that reports how long dynamic colors took to prepare and apply. */
+  @Nullable
+  public TimingCallback getTimingCallback() {
+    return timingCallback;
+  }
+
   /** Builder class for specifying options when applying dynamic colors. */
   public static class Builder {
 
     @StyleRes private int themeOverlay;
     @NonNull private Precondition precondition = ALWAYS_ALLOW;
     @NonNull private OnAppliedCallback onAppliedCallback = NO_OP_CALLBACK;
+    @Nullable private Executor precomputeExecutor;
+    @Nullable private TimingCallback timingCallback;
 
     /** Sets the resource ID of the theme overlay that provides dynamic color definition. */
     @NonNull
@@ -95,6 +119,32 @@ public class DynamicColorsOptions {
       return this;
     }
 
+    /**
+     * Sets the executor to prepare dynamic colors on when they are applied to all activities with
+     * {@link DynamicColors#applyToActivitiesIfAvailable(android.app.Application,
+     * DynamicColorsOptions)}.
+     *
+     * <p>Dynamic colors are then prepared in the background as soon as the application registers
+     * them, and activities created after that only apply the prepared theme overlay. Activities
+     * created before preparation completes prepare dynamic colors on the main thread, as they would
+     * without an executor.
+     */
+    @NonNull
+    public Builder setPrecomputeExecutor(@Nullable Executor precomputeExecutor) {
+      this.precomputeExecutor = precomputeExecutor;
+      return this;
+    }
+
+    /**
+     * Sets the callback that reports how long dynamic colors took to prepare and apply, for
+     * example to measure their impact on startup time.
+     */
+    @NonNull
+    public Builder setTimingCallback(@Nullable TimingCallback timingCallback) {
+      this.timingCallback = timingCallback;
+      return this;
+    }
+
     @NonNull
     public DynamicColorsOptions build() {
       return new DynamicColorsOptions(this);
@@ -25,11 +25,11 @@ import android.os.Build.VERSION_CODES;
 import android.util.TypedValue;
 import android.view.ContextThemeWrapper;
 import androidx.annotation.ChecksSdkIntAtLeast;
-import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.core.content.ContextCompat;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -120,7 +120,9 @@ public class HarmonizedColors {
       Context context, HarmonizedColorsOptions options) {
     ResourcesLoader resourcesLoader =
         ColorResourcesLoaderCreator.create(
-            context, createHarmonizedColorReplacementMap(context, options));
+            context,
+            createHarmonizedColorReplacementMap(context, options),
+            options.isCacheEnabled());
     if (resourcesLoader != null) {
       context.getResources().addLoaders(resourcesLoader);
       return true;
@@ -131,53 +133,71 @@ public class HarmonizedColors {
   @RequiresApi(api = VERSION_CODES.LOLLIPOP)
   private static Map<Integer, Integer> createHarmonizedColorReplacementMap(
       Context context, HarmonizedColorsOptions options) {
-    Map<Integer, Integer> colorReplacementMap = new HashMap<>();
     int colorToHarmonizeWith =
         MaterialColors.getColor(context, options.getColorAttributeToHarmonizeWith(), TAG);
-
-    // Harmonize color resources.
-    for (int colorResourceId : options.getColorResourceIds()) {
-      int harmonizedColor =
-          MaterialColors.harmonize(
-              ContextCompat.getColor(context, colorResourceId), colorToHarmonizeWith);
-      colorReplacementMap.put(colorResourceId, harmonizedColor);
+    int[] colorResourceIds = options.getColorResourceIds();
+    HarmonizedColorAttributes colorAttributes = options.getColorAttributes();
+    int[] attributes = colorAttributes != null ? colorAttributes.getAttributes() : new int[0];
+
+    // Collect every color first, so that they are all harmonized in one batch.
+    int[] resourceIds = new int[colorResourceIds.length + attributes.length];
+    int[] colors = new int[resourceIds.length];
+    int colorCount = 0;
+
+    // Color resources.
+    for (int colorResourceId : colorResourceIds) {
+      resourceIds[colorCount] = colorResourceId;
+      colors[colorCount] = ContextCompat.getColor(context, colorResourceId);
+      colorCount++;
     }
 
-    HarmonizedColorAttributes colorAttributes = options.getColorAttributes();
-    if (colorAttributes != null) {
-      int[] attributes = colorAttributes.getAttributes();
-      if (attributes.length > 0) {
-        // Harmonize theme overlay attributes in the custom theme overlay. If custom theme overlay
-        // is not provided, look up resources value the theme attributes point to and
-        // harmonize directly.
-        int themeOverlay = colorAttributes.getThemeOverlay();
-        TypedArray themeAttributesTypedArray = context.obtainStyledAttributes(attributes);
-        TypedArray themeOverlayAttributesTypedArray =
-            themeOverlay != 0
-                ? new ContextThemeWrapper(context, themeOverlay).obtainStyledAttributes(attributes)
-                : null;
-        addHarmonizedColorAttributesToReplacementMap(
-            colorReplacementMap,
-            themeAttributesTypedArray,
-            themeOverlayAttributesTypedArray,
-            colorToHarmonizeWith);
-
-        themeAttributesTypedArray.recycle();
-        if (themeOverlayAttributesTypedArray != null) {
-          themeOverlayAttributesTypedArray.recycle();
-        }
+    if (attributes.length > 0) {
+      // Harmonize theme overlay attributes in the custom theme overlay. If custom theme overlay
+      // is not provided, look up resources value the theme attributes point to and
+      // harmonize directly.
+      int themeOverlay = colorAttributes.getThemeOverlay();
+      TypedArray themeAttributesTypedArray = context.obtainStyledAttributes(attributes);
+      TypedArray themeOverlayAttributesTypedArray =
+          themeOverlay != 0
+              ? new ContextThemeWrapper(context, themeOverlay).obtainStyledAttributes(attributes)
+              : null;
+      colorCount =
+          addColorAttributes(
+              resourceIds,
+              colors,
+              colorCount,
+              themeAttributesTypedArray,
+              themeOverlayAttributesTypedArray);
+
+      themeAttributesTypedArray.recycle();
+      if (themeOverlayAttributesTypedArray != null) {
+        themeOverlayAttributesTypedArray.recycle();
       }
     }
+
+    int[] harmonizedColors =
+        Blend.harmonize(
+            Arrays.copyOf(colors, colorCount), colorToHarmonizeWith, /* executor= */ null);
+    Map<Integer, Integer> colorReplacementMap = new HashMap<>();
+    for (int i = 0; i < colorCount; i++) {
+      colorReplacementMap.put(resourceIds[i], harmonizedColors[i]);
+    }
     return colorReplacementMap;
   }
 
+  /**
+   * Adds the color resources the attributes point to, and their colors, to the arrays.
+   *
+   * @return The number of colors in the arrays.
+   */
   // TypedArray.getType() requires API >= 21.
   @RequiresApi(api = VERSION_CODES.LOLLIPOP)
-  private static void addHarmonizedColorAttributesToReplacementMap(
-      @NonNull Map<Integer, Integer> colorReplacementMap,
+  private static int addColorAttributes(
+      @NonNull int[] resourceIds,
+      @NonNull int[] colors,
+      int colorCount,
       @NonNull TypedArray themeAttributesTypedArray,
-      @Nullable TypedArray themeOverlayAttributesTypedArray,
-      @ColorInt int colorToHarmonizeWith) {
+      @Nullable TypedArray themeOverlayAttributesTypedArray) {
     TypedArray resourceIdTypedArray =
         themeOverlayAttributesTypedArray != null
             ? themeOverlayAttributesTypedArray
@@ -188,11 +208,12 @@ public class HarmonizedColors {
       if (resourceId != 0
           && themeAttributesTypedArray.hasValue(i)
           && isColorResource(themeAttributesTypedArray.getType(i))) {
-        int colorToHarmonize = themeAttributesTypedArray.getColor(i, 0);
-        colorReplacementMap.put(
-            resourceId, MaterialColors.harmonize(colorToHarmonize, colorToHarmonizeWith));
+        resourceIds[colorCount] = resourceId;
+        colors[colorCount] = themeAttributesTypedArray.getColor(i, 0);
+        colorCount++;
       }
     }
+    return colorCount;
   }
 
   private static boolean isColorResource(int attrType) {
@@ -34,6 +34,7 @@ public class HarmonizedColorsOptions {
   @NonNull @ColorRes private final int[] colorResourceIds;
   @Nullable private final HarmonizedColorAttributes colorAttributes;
   @AttrRes private final int colorAttributeToHarmonizeWith;
+  private final boolean cacheEnabled;
 
   /**
    * Create HarmonizedColorsOptions with Material default, with Error colors being harmonized with
@@ -50,6 +51,7 @@ public class HarmonizedColorsOptions {
     this.colorResourceIds = builder.colorResourceIds;
     this.colorAttributes = builder.colorAttributes;
     this.colorAttributeToHarmonizeWith = builder.colorAttributeToHarmonizeWith;
+    this.cacheEnabled = builder.cacheEnabled;
   }
 
   /** Returns the array of color resource ids that needs to be harmonized. */
@@ -74,12 +76,21 @@ public class HarmonizedColorsOptions {
     return colorAttributeToHarmonizeWith;
   }
 
+  /**
+   * Returns whether the generated color resources are cached in app-private storage across
+   * process starts.
+   */
+  public boolean isCacheEnabled() {
+    return cacheEnabled;
+  }
+
   /** Builder class for specifying options when harmonizing colors. */
   public static class Builder {
 
     @NonNull @ColorRes private int[] colorResourceIds = new int[] {};
     @Nullable private HarmonizedColorAttributes colorAttributes;
     @AttrRes private int colorAttributeToHarmonizeWith = R.attr.colorPrimary;
+    private boolean cacheEnabled;
 
     /**
      * Sets the array of color resource ids for harmonization.
@@ -120,6 +131,19 @@ public class HarmonizedColorsOptions {
       return this;
     }
 
+    /**
+     * Sets whether the generated color resources are cached in app-private storage, so that later
+     * process starts that harmonize to the same colors reuse them instead of generating them
+     * again. Cached resources are evicted when the app is updated. Disabled by default.
+     *
+     * @param cacheEnabled Whether to cache the generated color resources.
+     */
+    @NonNull
+    public Builder setCacheEnabled(boolean cacheEnabled) {
+      this.cacheEnabled = cacheEnabled;
+      return this;
+    }
+
     @NonNull
     public HarmonizedColorsOptions build() {
       return new HarmonizedColorsOptions(this);
@@ -36,6 +36,15 @@ package com.google.android.material.color;
  * lighting environments.
  */
 final class Hct {
+  // Scratch CAM16 dimensions, reused so that converting colors to HCT does not allocate.
+  private static final ThreadLocal<float[]> CAM_DIMENSIONS =
+      new ThreadLocal<float[]>() {
+        @Override
+        protected float[] initialValue() {
+          return new float[Cam16.DIMENSION_COUNT];
+        }
+      };
+
   private float hue;
   private float chroma;
   private float tone;
@@ -60,8 +69,9 @@ final class Hct {
    * @return HCT representation of a color in default viewing conditions
    */
   public static Hct fromInt(int argb) {
-    Cam16 cam = Cam16.fromInt(argb);
-    return new Hct(cam.getHue(), cam.getChroma(), ColorUtils.lstarFromInt(argb));
+    float[] cam = CAM_DIMENSIONS.get();
+    Cam16.fromInt(argb, cam);
+    return new Hct(cam[Cam16.HUE], cam[Cam16.CHROMA], ColorUtils.lstarFromInt(argb));
   }
 
   private Hct(float hue, float chroma, float tone) {
@@ -115,11 +125,11 @@ final class Hct {
   }
 
   private void setInternalState(int argb) {
-    Cam16 cam = Cam16.fromInt(argb);
-    float tone = ColorUtils.lstarFromInt(argb);
-    hue = cam.getHue();
-    chroma = cam.getChroma();
-    this.tone = tone;
+    float[] cam = CAM_DIMENSIONS.get();
+    Cam16.fromInt(argb, cam);
+    hue = cam[Cam16.HUE];
+    chroma = cam[Cam16.CHROMA];
+    tone = ColorUtils.lstarFromInt(argb);
   }
 
   /**
@@ -157,10 +167,13 @@ final class Hct {
    * @return ARGB representation of a color in default viewing conditions
    */
   private static int gamutMap(float hue, float chroma, float tone) {
-    return gamutMapInViewingConditions(hue, chroma, tone, ViewingConditions.DEFAULT);
+    return HctSolver.solveToInt(hue, chroma, tone);
   }
 
   /**
+   * Gamut maps a color by binary searching chroma and CAM16 lightness. Colors in default viewing
+   * conditions are solved by {@link HctSolver}, which is much faster.
+   *
    * @param hue CAM16 hue.
    * @param chroma CAM16 chroma.
    * @param tone L*a*b* lightness.
@@ -0,0 +1,391 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.color;
+
+/**
+ * A class that solves the HCT equation, converting hue, chroma, and tone to an ARGB color in
+ * default viewing conditions.
+ *
+ * <p>Unlike the binary searches in {@link Hct#gamutMapInViewingConditions(float, float, float,
+ * ViewingConditions)}, the solver works directly in linear RGB. It first tries to find an exact
+ * answer with a few Newton iterations on CAM16 lightness. If the requested chroma is outside of the
+ * sRGB gamut, it bisects along the intersection of the gamut and the plane of constant luminance
+ * until the color with the requested hue is found, only stopping at the planes where an 8-bit
+ * channel value changes.
+ *
+ * <p>The solver does not allocate per call; intermediate points are kept in a per-thread scratch
+ * buffer.
+ */
+final class HctSolver {
+  private HctSolver() {}
+
+  // Transforms linear RGB, 0 <= x <= 100, to 'cone'/'RGB' responses in CAM16, with the illuminant
+  // discounted and scaled by the luminance level adaptation factor of the default viewing
+  // conditions.
+  private static final double[][] SCALED_DISCOUNT_FROM_LINRGB = new double[3][3];
+
+  // Inverse of SCALED_DISCOUNT_FROM_LINRGB.
+  private static final double[][] LINRGB_FROM_SCALED_DISCOUNT = new double[3][3];
+
+  // Y, relative luminance, as a weighted sum of linear RGB components.
+  private static final double[] Y_FROM_LINRGB = {0.2126, 0.7152, 0.0722};
+
+  // Offsets of the points held in the scratch buffer.
+  private static final int LEFT = 0;
+  private static final int RIGHT = 3;
+  private static final int MID = 6;
+
+  private static final ThreadLocal<double[]> SCRATCH =
+      new ThreadLocal<double[]>() {
+        @Override
+        protected double[] initialValue() {
+          return new double[9];
+        }
+      };
+
+  // The RGB => XYZ conversion matrix elements are derived scientific constants. While the values
+  // may differ at runtime due to floating point imprecision, keeping the values the same, and
+  // accurate, across implementations takes precedence.
+  @SuppressWarnings("FloatingPointLiteralPrecision")
+  private static final double[][] XYZ_FROM_LINRGB = {
+    {0.41233895, 0.35762064, 0.18051042},
+    {0.2126, 0.7152, 0.0722},
+    {0.01932141, 0.11916382, 0.95034478}
+  };
+
+  static {
+    ViewingConditions viewingConditions = ViewingConditions.DEFAULT;
+    float[][] cam16RgbFromXyz = Cam16.XYZ_TO_CAM16RGB;
+    for (int row = 0; row < 3; row++) {
+      double scale = viewingConditions.getRgbD()[row] * viewingConditions.getFl() / 100.0;
+      for (int column = 0; column < 3; column++) {
+        double sum = 0.0;
+        for (int k = 0; k < 3; k++) {
+          sum += cam16RgbFromXyz[row][k] * XYZ_FROM_LINRGB[k][column];
+        }
+        SCALED_DISCOUNT_FROM_LINRGB[row][column] = sum * scale;
+      }
+    }
+    invert(SCALED_DISCOUNT_FROM_LINRGB, LINRGB_FROM_SCALED_DISCOUNT);
+  }
+
+  /**
+   * Finds a color with the given hue, chroma, and L*, if possible.
+   *
+   * @param hueDegrees The desired hue, in degrees.
+   * @param chroma The desired chroma.
+   * @param lstar The desired L*.
+   * @return ARGB representation of a color with the given hue and L*, and the chroma closest to the
+   *     requested chroma that is inside the sRGB gamut.
+   */
+  static int solveToInt(float hueDegrees, float chroma, float lstar) {
+    if (chroma < 0.0001f || lstar < 0.0001f || lstar > 99.9999f) {
+      return ColorUtils.intFromLstar(lstar);
+    }
+    double hueRadians = Math.toRadians(MathUtils.sanitizeDegrees(hueDegrees));
+    double y = ColorUtils.yFromLstar(lstar);
+    double[] scratch = SCRATCH.get();
+    if (findResultByJ(hueRadians, chroma, y, scratch)) {
+      return intFromLinrgb(scratch, MID);
+    }
+    bisectToLimit(y, hueRadians, scratch);
+    return intFromLinrgb(scratch, MID);
+  }
+
+  /**
+   * Iterates with Newton's method on CAM16 lightness to find a color with the requested hue,
+   * chroma, and relative luminance.
+   *
+   * @return true if the color was found and written to the MID point of the scratch buffer, false
+   *     if it is outside of the sRGB gamut.
+   */
+  private static boolean findResultByJ(
+      double hueRadians, double chroma, double y, double[] scratch) {
+    ViewingConditions viewingConditions = ViewingConditions.DEFAULT;
+    // Initial estimate of J.
+    double j = Math.sqrt(y) * 11.0;
+    double tInnerCoeff = 1.0 / Math.pow(1.64 - Math.pow(0.29, viewingConditions.getN()), 0.73);
+    double eHue = 0.25 * (Math.cos(hueRadians + 2.0) + 3.8);
+    double p1 = eHue * (50000.0 / 13.0) * viewingConditions.getNc() * viewingConditions.getNcb();
+    double hSin = Math.sin(hueRadians);
+    double hCos = Math.cos(hueRadians);
+    double acExponent = 1.0 / viewingConditions.getC() / viewingConditions.getZ();
+
+    for (int iterationRound = 0; iterationRound < 5; iterationRound++) {
+      double jNormalized = j / 100.0;
+      double alpha = chroma == 0.0 || j == 0.0 ? 0.0 : chroma / Math.sqrt(jNormalized);
+      double t = Math.pow(alpha * tInnerCoeff, 1.0 / 0.9);
+      double ac = viewingConditions.getAw() * Math.pow(jNormalized, acExponent);
+      double p2 = ac / viewingConditions.getNbb();
+      double gamma = 23.0 * (p2 + 0.305) * t / (23.0 * p1 + 11.0 * t * hCos + 108.0 * t * hSin);
+      double a = gamma * hCos;
+      double b = gamma * hSin;
+      double rA = (460.0 * p2 + 451.0 * a + 288.0 * b) / 1403.0;
+      double gA = (460.0 * p2 - 891.0 * a - 261.0 * b) / 1403.0;
+      double bA = (460.0 * p2 - 220.0 * a - 6300.0 * b) / 1403.0;
+      double rCScaled = inverseChromaticAdaptation(rA);
+      double gCScaled = inverseChromaticAdaptation(gA);
+      double bCScaled = inverseChromaticAdaptation(bA);
+      double[][] matrix = LINRGB_FROM_SCALED_DISCOUNT;
+      double r = matrix[0][0] * rCScaled + matrix[0][1] * gCScaled + matrix[0][2] * bCScaled;
+      double g = matrix[1][0] * rCScaled + matrix[1][1] * gCScaled + matrix[1][2] * bCScaled;
+      double bl = matrix[2][0] * rCScaled + matrix[2][1] * gCScaled + matrix[2][2] * bCScaled;
+
+      if (r < 0 || g < 0 || bl < 0) {
+        return false;
+      }
+      double fnj = Y_FROM_LINRGB[0] * r + Y_FROM_LINRGB[1] * g + Y_FROM_LINRGB[2] * bl;
+      if (fnj <= 0) {
+        return false;
+      }
+      if (iterationRound == 4 || Math.abs(fnj - y) < 0.002) {
+        if (r > 100.01 || g > 100.01 || bl > 100.01) {
+          return false;
+        }
+        scratch[MID] = r;
+        scratch[MID + 1] = g;
+        scratch[MID + 2] = bl;
+        return true;
+      }
+      // Iterates with Newton's method, using 2 * fn(j) / j as the approximation of fn'(j).
+      j = j - (fnj - y) * j / (2 * fnj);
+    }
+    return false;
+  }
+
+  /**
+   * Finds the color on the boundary of the sRGB gamut with the given relative luminance and hue,
+   * and writes it to the MID point of the scratch buffer.
+   */
+  private static void bisectToLimit(double y, double targetHue, double[] scratch) {
+    bisectToSegment(y, targetHue, scratch);
+    double leftHue = hueOf(scratch, LEFT);
+    for (int axis = 0; axis < 3; axis++) {
+      double leftCoordinate = scratch[LEFT + axis];
+      double rightCoordinate = scratch[RIGHT + axis];
+      if (leftCoordinate == rightCoordinate) {
+        continue;
+      }
+      int lPlane;
+      int rPlane;
+      if (leftCoordinate < rightCoordinate) {
+        lPlane = criticalPlaneBelow(trueDelinearized(leftCoordinate));
+        rPlane = criticalPlaneAbove(trueDelinearized(rightCoordinate));
+      } else {
+        lPlane = criticalPlaneAbove(trueDelinearized(leftCoordinate));
+        rPlane = criticalPlaneBelow(trueDelinearized(rightCoordinate));
+      }
+      for (int i = 0; i < 8 && Math.abs(rPlane - lPlane) > 1; i++) {
+        int mPlane = (int) Math.floor((lPlane + rPlane) / 2.0);
+        // The linear RGB values where an 8-bit sRGB channel value changes.
+        setCoordinate(scratch, ColorUtils.channelThreshold(mPlane), axis);
+        double midHue = hueOf(scratch, MID);
+        if (areInCyclicOrder(leftHue, targetHue, midHue)) {
+          copyPoint(scratch, MID, RIGHT);
+          rPlane = mPlane;
+        } else {
+          copyPoint(scratch, MID, LEFT);
+          leftHue = midHue;
+          lPlane = mPlane;
+        }
+      }
+    }
+    for (int i = 0; i < 3; i++) {
+      scratch[MID + i] = (scratch[LEFT + i] + scratch[RIGHT + i]) / 2.0;
+    }
+  }
+
+  /**
+   * Finds the two vertices of the polygon formed by intersecting the sRGB cube with the plane of
+   * the given relative luminance that enclose the target hue, and writes them to the LEFT and RIGHT
+   * points of the scratch buffer.
+   */
+  private static void bisectToSegment(double y, double targetHue, double[] scratch) {
+    double leftHue = 0.0;
+    double rightHue = 0.0;
+    boolean initialized = false;
+    boolean uncut = true;
+    for (int n = 0; n < 12; n++) {
+      if (!nthVertex(y, n, scratch)) {
+        continue;
+      }
+      double midHue = hueOf(scratch, MID);
+      if (!initialized) {
+        copyPoint(scratch, MID, LEFT);
+        copyPoint(scratch, MID, RIGHT);
+        leftHue = midHue;
+        rightHue = midHue;
+        initialized = true;
+        continue;
+      }
+      if (uncut || areInCyclicOrder(leftHue, midHue, rightHue)) {
+        uncut = false;
+        if (areInCyclicOrder(leftHue, targetHue, midHue)) {
+          copyPoint(scratch, MID, RIGHT);
+          rightHue = midHue;
+        } else {
+          copyPoint(scratch, MID, LEFT);
+          leftHue = midHue;
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes the nth possible vertex of the polygon formed by intersecting the sRGB cube with the
+   * plane of the given relative luminance to the MID point of the scratch buffer.
+   *
+   * @param n An integer, 0 <= n < 12.
+   * @return true if the vertex lies on the cube, false otherwise.
+   */
+  private static boolean nthVertex(double y, int n, double[] scratch) {
+    double kR = Y_FROM_LINRGB[0];
+    double kG = Y_FROM_LINRGB[1];
+    double kB = Y_FROM_LINRGB[2];
+    double coordA = n % 4 <= 1 ? 0.0 : 100.0;
+    double coordB = n % 2 == 0 ? 0.0 : 100.0;
+    double r;
+    double g;
+    double b;
+    double solved;
+    if (n < 4) {
+      g = coordA;
+      b = coordB;
+      r = solved = (y - g * kG - b * kB) / kR;
+    } else if (n < 8) {
+      b = coordA;
+      r = coordB;
+      g = solved = (y - r * kR - b * kB) / kG;
+    } else {
+      r = coordA;
+      g = coordB;
+      b = solved = (y - r * kR - g * kG) / kB;
+    }
+    if (solved < 0.0 || solved > 100.0) {
+      return false;
+    }
+    scratch[MID] = r;
+    scratch[MID + 1] = g;
+    scratch[MID + 2] = b;
+    return true;
+  }
+
+  /**
+   * Writes the point on the segment between the LEFT and RIGHT points of the scratch buffer whose
+   * coordinate on the given axis is the given value to the MID point.
+   */
+  private static void setCoordinate(double[] scratch, double coordinate, int axis) {
+    double source = scratch[LEFT + axis];
+    double t = (coordinate - source) / (scratch[RIGHT + axis] - source);
+    for (int i = 0; i < 3; i++) {
+      scratch[MID + i] = scratch[LEFT + i] + (scratch[RIGHT + i] - scratch[LEFT + i]) * t;
+    }
+  }
+
+  private static void copyPoint(double[] scratch, int from, int to) {
+    scratch[to] = scratch[from];
+    scratch[to + 1] = scratch[from + 1];
+    scratch[to + 2] = scratch[from + 2];
+  }
+
+  /** CAM16 hue, in radians, of the linear RGB point at the given offset of the scratch buffer. */
+  private static double hueOf(double[] scratch, int offset) {
+    double r = scratch[offset];
+    double g = scratch[offset + 1];
+    double b = scratch[offset + 2];
+    double[][] matrix = SCALED_DISCOUNT_FROM_LINRGB;
+    double rA = chromaticAdaptation(matrix[0][0] * r + matrix[0][1] * g + matrix[0][2] * b);
+    double gA = chromaticAdaptation(matrix[1][0] * r + matrix[1][1] * g + matrix[1][2] * b);
+    double bA = chromaticAdaptation(matrix[2][0] * r + matrix[2][1] * g + matrix[2][2] * b);
+    // redness-greenness
+    double redness = (11.0 * rA + -12.0 * gA + bA) / 11.0;
+    // yellowness-blueness
+    double yellowness = (rA + gA - 2.0 * bA) / 9.0;
+    return Math.atan2(yellowness, redness);
+  }
+
+  private static boolean areInCyclicOrder(double a, double b, double c) {
+    double deltaAB = sanitizeRadians(b - a);
+    double deltaAC = sanitizeRadians(c - a);
+    return deltaAB < deltaAC;
+  }
+
+  private static double sanitizeRadians(double angle) {
+    return (angle + Math.PI * 8) % (Math.PI * 2);
+  }
+
+  private static double chromaticAdaptation(double component) {
+    double af = Math.pow(Math.abs(component), 0.42);
+    return Math.signum(component) * 400.0 * af / (af + 27.13);
+  }
+
+  private static double inverseChromaticAdaptation(double adapted) {
+    double adaptedAbs = Math.abs(adapted);
+    double base = Math.max(0, 27.13 * adaptedAbs / (400.0 - adaptedAbs));
+    return Math.signum(adapted) * Math.pow(base, 1.0 / 0.42);
+  }
+
+  /**
+   * Delinearizes an RGB component, returning a floating-point number.
+   *
+   * @param rgbComponent 0.0 <= rgbComponent <= 100.0, represents linear R/G/B channel
+   * @return 0.0 <= output <= 255.0, color channel converted to regular RGB space
+   */
+  private static double trueDelinearized(double rgbComponent) {
+    double normalized = rgbComponent / 100.0;
+    double delinearized;
+    if (normalized <= 0.0031308) {
+      delinearized = normalized * 12.92;
+    } else {
+      delinearized = 1.055 * Math.pow(normalized, 1.0 / 2.4) - 0.055;
+    }
+    return delinearized * 255.0;
+  }
+
+  private static int criticalPlaneBelow(double x) {
+    return (int) Math.floor(x - 0.5);
+  }
+
+  private static int criticalPlaneAbove(double x) {
+    return (int) Math.ceil(x - 0.5);
+  }
+
+  /** ARGB representation of the linear RGB point at the given offset of the scratch buffer. */
+  private static int intFromLinrgb(double[] scratch, int offset) {
+    return ColorUtils.intFromRgb(
+        ColorUtils.delinearizedComponent(scratch[offset]),
+        ColorUtils.delinearizedComponent(scratch[offset + 1]),
+        ColorUtils.delinearizedComponent(scratch[offset + 2]));
+  }
+
+  /** Writes the inverse of a 3x3 matrix to {@code out}. */
+  private static void invert(double[][] m, double[][] out) {
+    double c00 = m[1][1] * m[2][2] - m[1][2] * m[2][1];
+    double c01 = m[1][2] * m[2][0] - m[1][0] * m[2][2];
+    double c02 = m[1][0] * m[2][1] - m[1][1] * m[2][0];
+    double determinant = m[0][0] * c00 + m[0][1] * c01 + m[0][2] * c02;
+    out[0][0] = c00 / determinant;
+    out[0][1] = (m[0][2] * m[2][1] - m[0][1] * m[2][2]) / determinant;
+    out[0][2] = (m[0][1] * m[1][2] - m[0][2] * m[1][1]) / determinant;
+    out[1][0] = c01 / determinant;
+    out[1][1] = (m[0][0] * m[2][2] - m[0][2] * m[2][0]) / determinant;
+    out[1][2] = (m[0][2] * m[1][0] - m[0][0] * m[1][2]) / determinant;
+    out[2][0] = c02 / determinant;
+    out[2][1] = (m[0][1] * m[2][0] - m[0][0] * m[2][1]) / determinant;
+    out[2][2] = (m[0][0] * m[1][1] - m[0][1] * m[1][0]) / determinant;
+  }
+}
@@ -21,7 +21,6 @@ import static android.graphics.Color.TRANSPARENT;
 
 import android.content.Context;
 import android.graphics.Color;
-import android.util.TypedValue;
 import android.view.View;
 import androidx.annotation.AttrRes;
 import androidx.annotation.ColorInt;
@@ -30,6 +29,7 @@ import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
 import androidx.core.graphics.ColorUtils;
 import com.google.android.material.resources.MaterialAttributes;
+import java.util.concurrent.Executor;
 
 /**
  * A utility class for common color variants used in Material themes.
@@ -97,12 +97,7 @@ public class MaterialColors {
   @ColorInt
   public static int getColor(
       @NonNull Context context, @AttrRes int colorAttributeResId, @ColorInt int defaultValue) {
-    TypedValue typedValue = MaterialAttributes.resolve(context, colorAttributeResId);
-    if (typedValue != null) {
-      return typedValue.data;
-    } else {
-      return defaultValue;
-    }
+    return MaterialAttributes.resolveData(context, colorAttributeResId, defaultValue);
   }
 
   /**
@@ -200,6 +195,55 @@ public class MaterialColors {
     return Blend.harmonize(colorToHarmonize, colorToHarmonizeWith);
   }
 
+  /**
+   * Returns the given colors harmonized with the context theme's colorPrimary. Faster than calling
+   * {@link #harmonizeWithPrimary(Context, int)} for each color, as colorPrimary is only resolved
+   * and analyzed once.
+   *
+   * @param context The target context.
+   * @param colorsToHarmonize The colors to harmonize.
+   * @return The harmonized colors, in the same order as the colors to harmonize.
+   */
+  @NonNull
+  public static int[] harmonizeWithPrimary(
+      @NonNull Context context, @NonNull @ColorInt int[] colorsToHarmonize) {
+    return harmonize(
+        colorsToHarmonize,
+        getColor(context, R.attr.colorPrimary, MaterialColors.class.getCanonicalName()));
+  }
+
+  /**
+   * Harmonizes every color in an array with the same color. Faster than calling {@link
+   * #harmonize(int, int)} for each color, as the color to harmonize with is only analyzed once.
+   *
+   * @param colorsToHarmonize The colors to harmonize.
+   * @param colorToHarmonizeWith The primary color selected for harmonization.
+   * @return The harmonized colors, in the same order as the colors to harmonize.
+   */
+  @NonNull
+  public static int[] harmonize(
+      @NonNull @ColorInt int[] colorsToHarmonize, @ColorInt int colorToHarmonizeWith) {
+    return Blend.harmonize(colorsToHarmonize, colorToHarmonizeWith, /* executor= */ null);
+  }
+
+  /**
+   * Harmonizes every color in an array with the same color, as in {@link #harmonize(int[], int)}.
+   * Large arrays are split into tasks that run in parallel on the executor; the calling thread
+   * runs any task the executor hasn't started, and returns once all colors are harmonized.
+   *
+   * @param colorsToHarmonize The colors to harmonize.
+   * @param colorToHarmonizeWith The primary color selected for harmonization.
+   * @param executor The executor to run tasks on, for example a thread pool.
+   * @return The harmonized colors, in the same order as the colors to harmonize.
+   */
+  @NonNull
+  public static int[] harmonize(
+      @NonNull @ColorInt int[] colorsToHarmonize,
+      @ColorInt int colorToHarmonizeWith,
+      @NonNull Executor executor) {
+    return Blend.harmonize(colorsToHarmonize, colorToHarmonizeWith, executor);
+  }
+
   /**
    * Returns the {@link ColorRoles} object generated from the provided input color.
    *
@@ -236,8 +280,6 @@ public class MaterialColors {
 
   @ColorInt
   private static int getColorRole(@ColorInt int color, @IntRange(from = 0, to = 100) int tone) {
-    Hct hctColor = Hct.fromInt(color);
-    hctColor.setTone(tone);
-    return hctColor.toInt();
+    return TonalPalette.fromInt(color).tone(tone);
   }
 }
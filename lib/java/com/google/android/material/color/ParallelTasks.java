@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.color;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs independent tasks in parallel on an executor.
+ *
+ * <p>Tasks are forked to the executor and joined by running any task the executor has not started
+ * yet on the calling thread, so the calling thread never waits for a busy executor. {@code
+ * ForkJoinPool} works the same way, but requires API 21.
+ */
+final class ParallelTasks {
+
+  private ParallelTasks() {}
+
+  /**
+   * Runs all tasks and returns once they have completed.
+   *
+   * @param executor The executor to run tasks on in parallel, or null to run every task on the
+   *     calling thread.
+   * @param tasks The tasks to run. The first task always runs on the calling thread.
+   * @throws CancellationException if the calling thread is interrupted. Tasks that haven't
+   *     completed are cancelled.
+   * @throws RuntimeException thrown by any of the tasks, after cancelling the others.
+   */
+  static void invokeAll(@Nullable Executor executor, @NonNull Runnable... tasks) {
+    FutureTask<?>[] futures = new FutureTask<?>[tasks.length];
+    for (int i = 0; i < tasks.length; i++) {
+      futures[i] = new FutureTask<>(tasks[i], null);
+    }
+
+    boolean completed = false;
+    try {
+      if (executor != null) {
+        for (int i = 1; i < futures.length; i++) {
+          try {
+            executor.execute(futures[i]);
+          } catch (RejectedExecutionException e) {
+            // The task is run on this thread below.
+          }
+        }
+      }
+      for (FutureTask<?> future : futures) {
+        // No-op if the executor has already started the task.
+        future.run();
+      }
+      for (FutureTask<?> future : futures) {
+        future.get();
+      }
+      completed = true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IllegalStateException(cause);
+    } finally {
+      if (!completed) {
+        for (FutureTask<?> future : futures) {
+          future.cancel(true);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.color;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * An image quantizer that improves on the speed of a standard K-Means algorithm by implementing
+ * several optimizations, including deduping identical pixels and a triangle inequality rule that
+ * reduces the number of comparisons needed to identify which cluster a point should be moved to.
+ *
+ * <p>Wsmeans stands for Weighted Square Means.
+ *
+ * <p>This algorithm was designed by M. Emre Celebi, and was found in their 2011 paper, Improving
+ * the Performance of K-Means for Color Quantization. https://arxiv.org/abs/1101.0395
+ *
+ * <p>Points are clustered in L*a*b*, where Euclidean distance approximates perceptual distance.
+ */
+final class QuantizerWsmeans {
+  private QuantizerWsmeans() {}
+
+  private static final int MAX_ITERATIONS = 10;
+  private static final double MIN_MOVEMENT_DISTANCE = 3.0;
+
+  // Seed for the initial assignment of points to clusters, so that results are deterministic.
+  private static final int RANDOM_SEED = 0x42688;
+
+  /**
+   * Reduce the number of colors needed to represent the input, minimizing the difference between
+   * the original image and the recolored image.
+   *
+   * @param histogram Colors in the image and the number of times each occurs.
+   * @param startingClusters Defines the initial state of the quantizer. Passing an empty array is
+   *     fine, the implementation will create its own initial state that leads to reproducible
+   *     results for the same inputs. Passing an array that is the result of Wu quantization leads
+   *     to higher quality results.
+   * @param startingClusterIndices The index in {@code startingClusters} of the cluster each color
+   *     of the histogram initially belongs to, or null to assign colors randomly. Assigning colors
+   *     to a nearby cluster, such as the Wu box they fell into, lets the first iteration skip most
+   *     distance computations.
+   * @param maxColors The number of colors to divide the image into. A lower number of colors may be
+   *     returned.
+   * @return Colors in the quantized image, and the number of pixels each of them represents.
+   */
+  @NonNull
+  static ColorHistogram quantize(
+      @NonNull ColorHistogram histogram,
+      @NonNull int[] startingClusters,
+      @Nullable int[] startingClusterIndices,
+      int maxColors) {
+    int pointCount = histogram.getSize();
+    double[] points = new double[pointCount * 3];
+    int[] counts = new int[pointCount];
+    for (int i = 0; i < pointCount; i++) {
+      writeLab(histogram.getColor(i), points, i);
+      counts[i] = histogram.getCount(i);
+    }
+
+    int clusterCount = Math.min(maxColors, pointCount);
+    if (startingClusters.length != 0) {
+      clusterCount = Math.min(clusterCount, startingClusters.length);
+    }
+    double[] clusters = new double[clusterCount * 3];
+    for (int i = 0; i < clusterCount; i++) {
+      int startingCluster =
+          startingClusters.length != 0 ? startingClusters[i] : histogram.getColor(i);
+      writeLab(startingCluster, clusters, i);
+    }
+
+    int[] clusterIndices = new int[pointCount];
+    Random random = new Random(RANDOM_SEED);
+    for (int i = 0; i < pointCount; i++) {
+      clusterIndices[i] =
+          startingClusterIndices != null && startingClusterIndices[i] < clusterCount
+              ? startingClusterIndices[i]
+              : random.nextInt(clusterCount);
+    }
+
+    // For each cluster, the other clusters sorted by their distance to it. Each entry packs the
+    // distance, as float bits, into the high half and the index of the cluster into the low half;
+    // the bits of non-negative floats sort in the same order as their values.
+    long[] sortedNeighbors = new long[clusterCount * clusterCount];
+    int[] pixelCountSums = new int[clusterCount];
+    double[] componentSums = new double[clusterCount * 3];
+    for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+      SeedColorExtractor.throwIfCancelled();
+
+      for (int i = 0; i < clusterCount; i++) {
+        int rowStart = i * clusterCount;
+        for (int j = 0; j < clusterCount; j++) {
+          float distance = (float) distance(clusters, i, clusters, j);
+          sortedNeighbors[rowStart + j] = ((long) Float.floatToIntBits(distance) << 32) | j;
+        }
+        Arrays.sort(sortedNeighbors, rowStart, rowStart + clusterCount);
+      }
+
+      int pointsMoved = 0;
+      for (int i = 0; i < pointCount; i++) {
+        int previousClusterIndex = clusterIndices[i];
+        double previousDistance = distance(points, i, clusters, previousClusterIndex);
+        double minimumDistance = previousDistance;
+        int newClusterIndex = -1;
+        int rowStart = previousClusterIndex * clusterCount;
+        for (int n = 0; n < clusterCount; n++) {
+          long neighbor = sortedNeighbors[rowStart + n];
+          // Distances are squared, so by the triangle inequality neither this cluster nor any
+          // farther one can be closer to the point than the previous cluster.
+          if (Float.intBitsToFloat((int) (neighbor >>> 32)) >= 4 * previousDistance) {
+            break;
+          }
+          int j = (int) neighbor;
+          double distance = distance(points, i, clusters, j);
+          if (distance < minimumDistance) {
+            minimumDistance = distance;
+            newClusterIndex = j;
+          }
+        }
+        if (newClusterIndex != -1) {
+          double distanceChange =
+              Math.abs(Math.sqrt(minimumDistance) - Math.sqrt(previousDistance));
+          if (distanceChange > MIN_MOVEMENT_DISTANCE) {
+            pointsMoved++;
+            clusterIndices[i] = newClusterIndex;
+          }
+        }
+      }
+
+      if (pointsMoved == 0 && iteration != 0) {
+        break;
+      }
+
+      Arrays.fill(pixelCountSums, 0);
+      Arrays.fill(componentSums, 0);
+      for (int i = 0; i < pointCount; i++) {
+        int clusterIndex = clusterIndices[i];
+        int count = counts[i];
+        pixelCountSums[clusterIndex] += count;
+        componentSums[clusterIndex * 3] += points[i * 3] * count;
+        componentSums[clusterIndex * 3 + 1] += points[i * 3 + 1] * count;
+        componentSums[clusterIndex * 3 + 2] += points[i * 3 + 2] * count;
+      }
+      for (int i = 0; i < clusterCount; i++) {
+        int count = pixelCountSums[i];
+        for (int component = 0; component < 3; component++) {
+          clusters[i * 3 + component] = count == 0 ? 0 : componentSums[i * 3 + component] / count;
+        }
+      }
+    }
+
+    int[] colors = new int[clusterCount];
+    int[] populations = new int[clusterCount];
+    int size = 0;
+    for (int i = 0; i < clusterCount; i++) {
+      int count = pixelCountSums[i];
+      if (count == 0) {
+        continue;
+      }
+      int color = ColorUtils.intFromLab(clusters[i * 3], clusters[i * 3 + 1], clusters[i * 3 + 2]);
+      if (indexOf(colors, size, color) != -1) {
+        continue;
+      }
+      colors[size] = color;
+      populations[size] = count;
+      size++;
+    }
+    return new ColorHistogram(colors, populations, size);
+  }
+
+  private static void writeLab(int argb, double[] out, int index) {
+    double[] lab = ColorUtils.labFromInt(argb);
+    out[index * 3] = lab[0];
+    out[index * 3 + 1] = lab[1];
+    out[index * 3 + 2] = lab[2];
+  }
+
+  /** Squared Euclidean distance between two points in L*a*b*. */
+  private static double distance(double[] a, int aIndex, double[] b, int bIndex) {
+    double dL = a[aIndex * 3] - b[bIndex * 3];
+    double dA = a[aIndex * 3 + 1] - b[bIndex * 3 + 1];
+    double dB = a[aIndex * 3 + 2] - b[bIndex * 3 + 2];
+    return dL * dL + dA * dA + dB * dB;
+  }
+
+  private static int indexOf(int[] array, int size, int value) {
+    for (int i = 0; i < size; i++) {
+      if (array[i] == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+}
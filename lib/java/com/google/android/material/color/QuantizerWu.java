@@ -0,0 +1,466 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.color;
+
+import androidx.annotation.NonNull;
+import java.util.Arrays;
+
+/**
+ * An image quantizer that divides the image's pixels into clusters by recursively cutting an RGB
+ * cube, based on the weight of pixels in each area of the cube.
+ *
+ * <p>The algorithm was described by Xiaolin Wu in Graphic Gems II, published in 1991.
+ */
+final class QuantizerWu {
+  // A histogram of all the input colors is constructed. It has the shape of a cube. The cube
+  // would be too large if it contained all 16 million colors: historical best practice is to use
+  // 5 bits of the 8 in each channel, reducing the histogram to a volume of ~32,000.
+  private static final int INDEX_BITS = 5;
+  private static final int INDEX_COUNT = (1 << INDEX_BITS) + 1;
+  private static final int TOTAL_SIZE = INDEX_COUNT * INDEX_COUNT * INDEX_COUNT;
+
+  private static final int RED = 0;
+  private static final int GREEN = 1;
+  private static final int BLUE = 2;
+
+  private final int[] weights = new int[TOTAL_SIZE];
+  private final long[] momentsR = new long[TOTAL_SIZE];
+  private final long[] momentsG = new long[TOTAL_SIZE];
+  private final long[] momentsB = new long[TOTAL_SIZE];
+  private final double[] moments = new double[TOTAL_SIZE];
+
+  // The index in the result of the box each cell of the histogram belongs to.
+  private final int[] tags = new int[TOTAL_SIZE];
+
+  // Result of the last call to maximize().
+  private int maximizedCut;
+  private double maximizedValue;
+
+  /**
+   * Quantizes a histogram of colors.
+   *
+   * @param histogram The colors to quantize and their counts.
+   * @param maxColors The maximum number of colors to return.
+   * @return Up to {@code maxColors} colors representing the histogram.
+   */
+  @NonNull
+  int[] quantize(@NonNull ColorHistogram histogram, int maxColors) {
+    constructHistogram(histogram);
+    createMoments();
+    Box[] cubes = new Box[maxColors];
+    int resultCount = createBoxes(cubes);
+    return createResult(cubes, resultCount);
+  }
+
+  /**
+   * Returns the index, in the result of the last call to {@link #quantize(ColorHistogram, int)},
+   * of the color a color of the quantized histogram was assigned to.
+   */
+  int getClusterIndex(int argb) {
+    int bitsToRemove = 8 - INDEX_BITS;
+    return tags[
+        getIndex(
+            (ColorUtils.redFromInt(argb) >> bitsToRemove) + 1,
+            (ColorUtils.greenFromInt(argb) >> bitsToRemove) + 1,
+            (ColorUtils.blueFromInt(argb) >> bitsToRemove) + 1)];
+  }
+
+  private static int getIndex(int r, int g, int b) {
+    return (r << (INDEX_BITS * 2)) + (r << (INDEX_BITS + 1)) + r + (g << INDEX_BITS) + g + b;
+  }
+
+  private void constructHistogram(ColorHistogram histogram) {
+    Arrays.fill(weights, 0);
+    Arrays.fill(momentsR, 0);
+    Arrays.fill(momentsG, 0);
+    Arrays.fill(momentsB, 0);
+    Arrays.fill(moments, 0);
+    int bitsToRemove = 8 - INDEX_BITS;
+    for (int i = 0; i < histogram.getSize(); i++) {
+      int pixel = histogram.getColor(i);
+      int count = histogram.getCount(i);
+      int red = ColorUtils.redFromInt(pixel);
+      int green = ColorUtils.greenFromInt(pixel);
+      int blue = ColorUtils.blueFromInt(pixel);
+      int index =
+          getIndex(
+              (red >> bitsToRemove) + 1, (green >> bitsToRemove) + 1, (blue >> bitsToRemove) + 1);
+      weights[index] += count;
+      momentsR[index] += (long) red * count;
+      momentsG[index] += (long) green * count;
+      momentsB[index] += (long) blue * count;
+      moments[index] += (double) count * ((red * red) + (green * green) + (blue * blue));
+    }
+  }
+
+  /** Converts the histogram into cumulative moments, so that any box can be summed in O(1). */
+  private void createMoments() {
+    int[] area = new int[INDEX_COUNT];
+    long[] areaR = new long[INDEX_COUNT];
+    long[] areaG = new long[INDEX_COUNT];
+    long[] areaB = new long[INDEX_COUNT];
+    double[] area2 = new double[INDEX_COUNT];
+    for (int r = 1; r < INDEX_COUNT; r++) {
+      Arrays.fill(area, 0);
+      Arrays.fill(areaR, 0);
+      Arrays.fill(areaG, 0);
+      Arrays.fill(areaB, 0);
+      Arrays.fill(area2, 0);
+      for (int g = 1; g < INDEX_COUNT; g++) {
+        int line = 0;
+        long lineR = 0;
+        long lineG = 0;
+        long lineB = 0;
+        double line2 = 0.0;
+        for (int b = 1; b < INDEX_COUNT; b++) {
+          int index = getIndex(r, g, b);
+          line += weights[index];
+          lineR += momentsR[index];
+          lineG += momentsG[index];
+          lineB += momentsB[index];
+          line2 += moments[index];
+
+          area[b] += line;
+          areaR[b] += lineR;
+          areaG[b] += lineG;
+          areaB[b] += lineB;
+          area2[b] += line2;
+
+          int previousIndex = getIndex(r - 1, g, b);
+          weights[index] = weights[previousIndex] + area[b];
+          momentsR[index] = momentsR[previousIndex] + areaR[b];
+          momentsG[index] = momentsG[previousIndex] + areaG[b];
+          momentsB[index] = momentsB[previousIndex] + areaB[b];
+          moments[index] = moments[previousIndex] + area2[b];
+        }
+      }
+    }
+  }
+
+  /**
+   * Repeatedly cuts the box with the largest variance in two.
+   *
+   * @return The number of boxes created.
+   */
+  private int createBoxes(Box[] cubes) {
+    int maxColorCount = cubes.length;
+    for (int i = 0; i < maxColorCount; i++) {
+      cubes[i] = new Box();
+    }
+    double[] volumeVariance = new double[maxColorCount];
+    Box firstBox = cubes[0];
+    firstBox.r1 = INDEX_COUNT - 1;
+    firstBox.g1 = INDEX_COUNT - 1;
+    firstBox.b1 = INDEX_COUNT - 1;
+
+    int generatedColorCount = maxColorCount;
+    int next = 0;
+    for (int i = 1; i < maxColorCount; i++) {
+      if (cut(cubes[next], cubes[i])) {
+        volumeVariance[next] = (cubes[next].vol > 1) ? variance(cubes[next]) : 0.0;
+        volumeVariance[i] = (cubes[i].vol > 1) ? variance(cubes[i]) : 0.0;
+      } else {
+        volumeVariance[next] = 0.0;
+        i--;
+      }
+
+      next = 0;
+      double temp = volumeVariance[0];
+      for (int j = 1; j <= i; j++) {
+        if (volumeVariance[j] > temp) {
+          temp = volumeVariance[j];
+          next = j;
+        }
+      }
+      if (temp <= 0.0) {
+        generatedColorCount = i + 1;
+        break;
+      }
+    }
+    return generatedColorCount;
+  }
+
+  private int[] createResult(Box[] cubes, int colorCount) {
+    int[] colors = new int[colorCount];
+    int size = 0;
+    for (int i = 0; i < colorCount; i++) {
+      Box cube = cubes[i];
+      long weight = volume(cube, weights);
+      if (weight > 0) {
+        int r = (int) (volume(cube, momentsR) / weight);
+        int g = (int) (volume(cube, momentsG) / weight);
+        int b = (int) (volume(cube, momentsB) / weight);
+        tag(cube, size);
+        colors[size++] = ColorUtils.intFromRgb(r, g, b);
+      }
+    }
+    return size == colorCount ? colors : Arrays.copyOf(colors, size);
+  }
+
+  private void tag(Box cube, int label) {
+    for (int r = cube.r0 + 1; r <= cube.r1; r++) {
+      for (int g = cube.g0 + 1; g <= cube.g1; g++) {
+        for (int b = cube.b0 + 1; b <= cube.b1; b++) {
+          tags[getIndex(r, g, b)] = label;
+        }
+      }
+    }
+  }
+
+  private double variance(Box cube) {
+    double dr = volume(cube, momentsR);
+    double dg = volume(cube, momentsG);
+    double db = volume(cube, momentsB);
+    double xx =
+        moments[getIndex(cube.r1, cube.g1, cube.b1)]
+            - moments[getIndex(cube.r1, cube.g1, cube.b0)]
+            - moments[getIndex(cube.r1, cube.g0, cube.b1)]
+            + moments[getIndex(cube.r1, cube.g0, cube.b0)]
+            - moments[getIndex(cube.r0, cube.g1, cube.b1)]
+            + moments[getIndex(cube.r0, cube.g1, cube.b0)]
+            + moments[getIndex(cube.r0, cube.g0, cube.b1)]
+            - moments[getIndex(cube.r0, cube.g0, cube.b0)];
+    double hypotenuse = dr * dr + dg * dg + db * db;
+    long volume = volume(cube, weights);
+    return xx - hypotenuse / volume;
+  }
+
+  /**
+   * Cuts {@code one} in two along the direction that maximizes the separation of its moments, and
+   * stores the upper half in {@code two}.
+   *
+   * @return false if the box cannot be cut.
+   */
+  private boolean cut(Box one, Box two) {
+    long wholeR = volume(one, momentsR);
+    long wholeG = volume(one, momentsG);
+    long wholeB = volume(one, momentsB);
+    long wholeW = volume(one, weights);
+
+    maximize(one, RED, one.r0 + 1, one.r1, wholeR, wholeG, wholeB, wholeW);
+    int cutR = maximizedCut;
+    double maxR = maximizedValue;
+    maximize(one, GREEN, one.g0 + 1, one.g1, wholeR, wholeG, wholeB, wholeW);
+    int cutG = maximizedCut;
+    double maxG = maximizedValue;
+    maximize(one, BLUE, one.b0 + 1, one.b1, wholeR, wholeG, wholeB, wholeW);
+    int cutB = maximizedCut;
+    double maxB = maximizedValue;
+
+    int cutDirection;
+    if (maxR >= maxG && maxR >= maxB) {
+      if (cutR < 0) {
+        return false;
+      }
+      cutDirection = RED;
+    } else if (maxG >= maxR && maxG >= maxB) {
+      cutDirection = GREEN;
+    } else {
+      cutDirection = BLUE;
+    }
+
+    two.r1 = one.r1;
+    two.g1 = one.g1;
+    two.b1 = one.b1;
+
+    switch (cutDirection) {
+      case RED:
+        one.r1 = cutR;
+        two.r0 = one.r1;
+        two.g0 = one.g0;
+        two.b0 = one.b0;
+        break;
+      case GREEN:
+        one.g1 = cutG;
+        two.r0 = one.r0;
+        two.g0 = one.g1;
+        two.b0 = one.b0;
+        break;
+      default:
+        one.b1 = cutB;
+        two.r0 = one.r0;
+        two.g0 = one.g0;
+        two.b0 = one.b1;
+        break;
+    }
+
+    one.vol = (one.r1 - one.r0) * (one.g1 - one.g0) * (one.b1 - one.b0);
+    two.vol = (two.r1 - two.r0) * (two.g1 - two.g0) * (two.b1 - two.b0);
+    return true;
+  }
+
+  /**
+   * Finds the position in {@code [first, last)} along a direction to cut a box at, storing it in
+   * {@link #maximizedCut}, or -1 if no cut is possible.
+   */
+  private void maximize(
+      Box cube,
+      int direction,
+      int first,
+      int last,
+      long wholeR,
+      long wholeG,
+      long wholeB,
+      long wholeW) {
+    long bottomR = bottom(cube, direction, momentsR);
+    long bottomG = bottom(cube, direction, momentsG);
+    long bottomB = bottom(cube, direction, momentsB);
+    long bottomW = bottom(cube, direction, weights);
+
+    double max = 0.0;
+    int cut = -1;
+    for (int i = first; i < last; i++) {
+      double halfR = bottomR + top(cube, direction, i, momentsR);
+      double halfG = bottomG + top(cube, direction, i, momentsG);
+      double halfB = bottomB + top(cube, direction, i, momentsB);
+      double halfW = bottomW + top(cube, direction, i, weights);
+      if (halfW == 0) {
+        continue;
+      }
+      double temp = (halfR * halfR + halfG * halfG + halfB * halfB) / halfW;
+
+      halfR = wholeR - halfR;
+      halfG = wholeG - halfG;
+      halfB = wholeB - halfB;
+      halfW = wholeW - halfW;
+      if (halfW == 0) {
+        continue;
+      }
+      temp += (halfR * halfR + halfG * halfG + halfB * halfB) / halfW;
+
+      if (temp > max) {
+        max = temp;
+        cut = i;
+      }
+    }
+    maximizedCut = cut;
+    maximizedValue = max;
+  }
+
+  private static long volume(Box cube, int[] moment) {
+    return (long) moment[getIndex(cube.r1, cube.g1, cube.b1)]
+        - moment[getIndex(cube.r1, cube.g1, cube.b0)]
+        - moment[getIndex(cube.r1, cube.g0, cube.b1)]
+        + moment[getIndex(cube.r1, cube.g0, cube.b0)]
+        - moment[getIndex(cube.r0, cube.g1, cube.b1)]
+        + moment[getIndex(cube.r0, cube.g1, cube.b0)]
+        + moment[getIndex(cube.r0, cube.g0, cube.b1)]
+        - moment[getIndex(cube.r0, cube.g0, cube.b0)];
+  }
+
+  private static long volume(Box cube, long[] moment) {
+    return moment[getIndex(cube.r1, cube.g1, cube.b1)]
+        - moment[getIndex(cube.r1, cube.g1, cube.b0)]
+        - moment[getIndex(cube.r1, cube.g0, cube.b1)]
+        + moment[getIndex(cube.r1, cube.g0, cube.b0)]
+        - moment[getIndex(cube.r0, cube.g1, cube.b1)]
+        + moment[getIndex(cube.r0, cube.g1, cube.b0)]
+        + moment[getIndex(cube.r0, cube.g0, cube.b1)]
+        - moment[getIndex(cube.r0, cube.g0, cube.b0)];
+  }
+
+  private static long bottom(Box cube, int direction, int[] moment) {
+    switch (direction) {
+      case RED:
+        return -(long) moment[getIndex(cube.r0, cube.g1, cube.b1)]
+            + moment[getIndex(cube.r0, cube.g1, cube.b0)]
+            + moment[getIndex(cube.r0, cube.g0, cube.b1)]
+            - moment[getIndex(cube.r0, cube.g0, cube.b0)];
+      case GREEN:
+        return -(long) moment[getIndex(cube.r1, cube.g0, cube.b1)]
+            + moment[getIndex(cube.r1, cube.g0, cube.b0)]
+            + moment[getIndex(cube.r0, cube.g0, cube.b1)]
+            - moment[getIndex(cube.r0, cube.g0, cube.b0)];
+      default:
+        return -(long) moment[getIndex(cube.r1, cube.g1, cube.b0)]
+            + moment[getIndex(cube.r1, cube.g0, cube.b0)]
+            + moment[getIndex(cube.r0, cube.g1, cube.b0)]
+            - moment[getIndex(cube.r0, cube.g0, cube.b0)];
+    }
+  }
+
+  private static long bottom(Box cube, int direction, long[] moment) {
+    switch (direction) {
+      case RED:
+        return -moment[getIndex(cube.r0, cube.g1, cube.b1)]
+            + moment[getIndex(cube.r0, cube.g1, cube.b0)]
+            + moment[getIndex(cube.r0, cube.g0, cube.b1)]
+            - moment[getIndex(cube.r0, cube.g0, cube.b0)];
+      case GREEN:
+        return -moment[getIndex(cube.r1, cube.g0, cube.b1)]
+            + moment[getIndex(cube.r1, cube.g0, cube.b0)]
+            + moment[getIndex(cube.r0, cube.g0, cube.b1)]
+            - moment[getIndex(cube.r0, cube.g0, cube.b0)];
+      default:
+        return -moment[getIndex(cube.r1, cube.g1, cube.b0)]
+            + moment[getIndex(cube.r1, cube.g0, cube.b0)]
+            + moment[getIndex(cube.r0, cube.g1, cube.b0)]
+            - moment[getIndex(cube.r0, cube.g0, cube.b0)];
+    }
+  }
+
+  private static long top(Box cube, int direction, int position, int[] moment) {
+    switch (direction) {
+      case RED:
+        return (long) moment[getIndex(position, cube.g1, cube.b1)]
+            - moment[getIndex(position, cube.g1, cube.b0)]
+            - moment[getIndex(position, cube.g0, cube.b1)]
+            + moment[getIndex(position, cube.g0, cube.b0)];
+      case GREEN:
+        return (long) moment[getIndex(cube.r1, position, cube.b1)]
+            - moment[getIndex(cube.r1, position, cube.b0)]
+            - moment[getIndex(cube.r0, position, cube.b1)]
+            + moment[getIndex(cube.r0, position, cube.b0)];
+      default:
+        return (long) moment[getIndex(cube.r1, cube.g1, position)]
+            - moment[getIndex(cube.r1, cube.g0, position)]
+            - moment[getIndex(cube.r0, cube.g1, position)]
+            + moment[getIndex(cube.r0, cube.g0, position)];
+    }
+  }
+
+  private static long top(Box cube, int direction, int position, long[] moment) {
+    switch (direction) {
+      case RED:
+        return moment[getIndex(position, cube.g1, cube.b1)]
+            - moment[getIndex(position, cube.g1, cube.b0)]
+            - moment[getIndex(position, cube.g0, cube.b1)]
+            + moment[getIndex(position, cube.g0, cube.b0)];
+      case GREEN:
+        return moment[getIndex(cube.r1, position, cube.b1)]
+            - moment[getIndex(cube.r1, position, cube.b0)]
+            - moment[getIndex(cube.r0, position, cube.b1)]
+            + moment[getIndex(cube.r0, position, cube.b0)];
+      default:
+        return moment[getIndex(cube.r1, cube.g1, position)]
+            - moment[getIndex(cube.r1, cube.g0, position)]
+            - moment[getIndex(cube.r0, cube.g1, position)]
+            + moment[getIndex(cube.r0, cube.g0, position)];
+    }
+  }
+
+  /** A box in the RGB cube, with exclusive lower and inclusive upper bounds on each axis. */
+  private static final class Box {
+    int r0 = 0;
+    int r1 = 0;
+    int g0 = 0;
+    int g1 = 0;
+    int b0 = 0;
+    int b1 = 0;
+    int vol = 0;
+  }
+}
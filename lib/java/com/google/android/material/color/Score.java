@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.color;
+
+import androidx.annotation.NonNull;
+import java.util.Arrays;
+
+/**
+ * Given a large set of colors, remove colors that are unsuitable for a UI theme, and rank the rest
+ * based on suitability.
+ *
+ * <p>Enables use of a high cluster count for image quantization, thus ensuring colors aren't
+ * muddied, while curating the high cluster count to a much smaller number of appropriate choices.
+ */
+final class Score {
+  private static final float CUTOFF_CHROMA = 15f;
+  private static final float CUTOFF_EXCITED_PROPORTION = 0.01f;
+  private static final float CUTOFF_TONE = 10f;
+  private static final float TARGET_CHROMA = 48f;
+  private static final float WEIGHT_PROPORTION = 0.7f;
+  private static final float WEIGHT_CHROMA_ABOVE = 0.3f;
+  private static final float WEIGHT_CHROMA_BELOW = 0.1f;
+
+  /** Colors closer in hue than this to a higher ranked color are dropped. */
+  private static final float MIN_HUE_DIFFERENCE = 15f;
+
+  /** Returned when no color is suitable; Google Blue. */
+  static final int FALLBACK_COLOR = 0xff4285f4;
+
+  private Score() {}
+
+  /**
+   * Ranks the colors of an image by their suitability as the source color of a UI theme.
+   *
+   * <p>Colors are ranked by how many pixels have a similar hue and how close their chroma is to a
+   * target, and colors with low chroma or tone, with hues close to a higher ranked color, or that
+   * are too rare in the image are removed.
+   *
+   * @param colorsToPopulation Colors and the number of pixels they represent, usually the result
+   *     of quantization.
+   * @return Colors sorted by suitability, highest first. Never empty: if no color is suitable, it
+   *     only contains {@link #FALLBACK_COLOR}.
+   */
+  @NonNull
+  static int[] score(@NonNull ColorHistogram colorsToPopulation) {
+    int size = colorsToPopulation.getSize();
+    float populationSum = 0;
+    for (int i = 0; i < size; i++) {
+      populationSum += colorsToPopulation.getCount(i);
+    }
+
+    // Hue and chroma of every color, and the proportion of the image in each integer hue.
+    float[] hues = new float[size];
+    float[] chromas = new float[size];
+    float[] hueProportions = new float[360];
+    float[] cam = new float[Cam16.DIMENSION_COUNT];
+    for (int i = 0; i < size; i++) {
+      Cam16.fromInt(colorsToPopulation.getColor(i), cam);
+      hues[i] = cam[Cam16.HUE];
+      chromas[i] = cam[Cam16.CHROMA];
+      int hue = MathUtils.sanitizeDegrees(Math.round(hues[i]));
+      hueProportions[hue] += colorsToPopulation.getCount(i) / populationSum;
+    }
+
+    // Filter out unsuitable colors, and score the rest by the proportion of the image with a
+    // similar hue and by their chroma.
+    int[] candidates = new int[size];
+    float[] scores = new float[size];
+    int candidateCount = 0;
+    for (int i = 0; i < size; i++) {
+      int hue = Math.round(hues[i]);
+      float excitedProportion = 0f;
+      for (int neighbor = hue - 15; neighbor < hue + 15; neighbor++) {
+        excitedProportion += hueProportions[MathUtils.sanitizeDegrees(neighbor)];
+      }
+      int color = colorsToPopulation.getColor(i);
+      if (chromas[i] < CUTOFF_CHROMA
+          || ColorUtils.lstarFromInt(color) < CUTOFF_TONE
+          || excitedProportion < CUTOFF_EXCITED_PROPORTION) {
+        continue;
+      }
+      float proportionScore = excitedProportion * 100f * WEIGHT_PROPORTION;
+      float chromaWeight = chromas[i] < TARGET_CHROMA ? WEIGHT_CHROMA_BELOW : WEIGHT_CHROMA_ABOVE;
+      float chromaScore = (chromas[i] - TARGET_CHROMA) * chromaWeight;
+      candidates[candidateCount] = i;
+      scores[candidateCount] = proportionScore + chromaScore;
+      candidateCount++;
+    }
+
+    // Insertion sort by descending score; there are at most as many candidates as clusters.
+    for (int i = 1; i < candidateCount; i++) {
+      int candidate = candidates[i];
+      float score = scores[i];
+      int j = i - 1;
+      while (j >= 0 && scores[j] < score) {
+        candidates[j + 1] = candidates[j];
+        scores[j + 1] = scores[j];
+        j--;
+      }
+      candidates[j + 1] = candidate;
+      scores[j + 1] = score;
+    }
+
+    // Drop colors whose hue is too close to a higher ranked color.
+    int[] ranked = new int[candidateCount];
+    float[] rankedHues = new float[candidateCount];
+    int rankedCount = 0;
+    for (int i = 0; i < candidateCount; i++) {
+      float hue = hues[candidates[i]];
+      boolean duplicateHue = false;
+      for (int j = 0; j < rankedCount; j++) {
+        if (MathUtils.differenceDegrees(hue, rankedHues[j]) < MIN_HUE_DIFFERENCE) {
+          duplicateHue = true;
+          break;
+        }
+      }
+      if (!duplicateHue) {
+        ranked[rankedCount] = colorsToPopulation.getColor(candidates[i]);
+        rankedHues[rankedCount] = hue;
+        rankedCount++;
+      }
+    }
+
+    if (rankedCount == 0) {
+      return new int[] {FALLBACK_COLOR};
+    }
+    return Arrays.copyOf(ranked, rankedCount);
+  }
+}
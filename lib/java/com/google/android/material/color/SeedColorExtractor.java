@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.color;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Extracts seed colors for dynamic color from an image, such as a wallpaper or album art.
+ *
+ * <p>The image is subsampled to at most 112x112 pixels and its opaque pixels are counted into a
+ * histogram. The histogram is divided into clusters by Wu's quantizer, the clusters are refined by
+ * a weighted k-means in L*a*b*, and the resulting colors are ranked by their suitability as the
+ * source color of a theme.
+ */
+public final class SeedColorExtractor {
+
+  /** The maximum number of pixels sampled from an image. */
+  private static final int MAX_SAMPLE_AREA = 112 * 112;
+
+  /** The number of clusters the image is quantized into before ranking. */
+  private static final int MAX_COLORS = 128;
+
+  /** The maximum number of tasks the histogram is built with. */
+  private static final int MAX_HISTOGRAM_TASKS = 4;
+
+  private SeedColorExtractor() {}
+
+  /**
+   * Extracts seed colors from an image on the calling thread.
+   *
+   * @param bitmap The image; must not use {@link Bitmap.Config#HARDWARE}.
+   * @return Colors in the image that are suitable as the seed of a dynamic color theme, most
+   *     suitable first. Never empty: if the image has no suitable colors, a default blue is
+   *     returned.
+   * @throws CancellationException if the calling thread is interrupted.
+   */
+  @WorkerThread
+  @NonNull
+  public static int[] extractSeedColors(@NonNull Bitmap bitmap) {
+    return extract(bitmap, null);
+  }
+
+  /**
+   * Extracts seed colors from an image on an executor. Building the histogram of the image is
+   * split into tasks that run on the same executor in parallel, when it has idle threads.
+   *
+   * <p>Cancelling the returned future with {@code mayInterruptIfRunning} set stops the extraction
+   * at the next step.
+   *
+   * @param bitmap The image; must not use {@link Bitmap.Config#HARDWARE}.
+   * @param executor The executor to run the extraction on.
+   * @return A future that completes with the result of {@link #extractSeedColors(Bitmap)}.
+   */
+  @NonNull
+  public static Future<int[]> extractSeedColors(
+      @NonNull final Bitmap bitmap, @NonNull final Executor executor) {
+    FutureTask<int[]> task =
+        new FutureTask<>(
+            new Callable<int[]>() {
+              @Override
+              public int[] call() {
+                return extract(bitmap, executor);
+              }
+            });
+    executor.execute(task);
+    return task;
+  }
+
+  @NonNull
+  private static int[] extract(@NonNull Bitmap bitmap, @Nullable Executor executor) {
+    ColorHistogram histogram = buildHistogram(bitmap, executor);
+    throwIfCancelled();
+    QuantizerWu quantizerWu = new QuantizerWu();
+    int[] wuClusters = quantizerWu.quantize(histogram, MAX_COLORS);
+    int[] wuClusterIndices = new int[histogram.getSize()];
+    for (int i = 0; i < wuClusterIndices.length; i++) {
+      wuClusterIndices[i] = quantizerWu.getClusterIndex(histogram.getColor(i));
+    }
+    throwIfCancelled();
+    ColorHistogram clusters =
+        QuantizerWsmeans.quantize(histogram, wuClusters, wuClusterIndices, MAX_COLORS);
+    throwIfCancelled();
+    return Score.score(clusters);
+  }
+
+  /**
+   * Samples the opaque pixels of the bitmap into a histogram. Rows of the sampled image are split
+   * between tasks that each sort their own samples, and the sorted runs are then merged.
+   */
+  @NonNull
+  private static ColorHistogram buildHistogram(
+      @NonNull Bitmap bitmap, @Nullable Executor executor) {
+    int width = bitmap.getWidth();
+    int height = bitmap.getHeight();
+    int step = Math.max(1, (int) Math.ceil(Math.sqrt((double) width * height / MAX_SAMPLE_AREA)));
+    int sampledWidth = (width + step - 1) / step;
+    int sampledHeight = (height + step - 1) / step;
+    int taskCount =
+        executor == null ? 1 : Math.max(1, Math.min(MAX_HISTOGRAM_TASKS, sampledHeight));
+
+    int[] samples = new int[sampledWidth * sampledHeight];
+    int[] runOffsets = new int[taskCount];
+    int[] runSizes = new int[taskCount];
+    Runnable[] tasks = new Runnable[taskCount];
+    for (int i = 0; i < taskCount; i++) {
+      int firstRow = sampledHeight * i / taskCount;
+      int lastRow = sampledHeight * (i + 1) / taskCount;
+      runOffsets[i] = firstRow * sampledWidth;
+      tasks[i] =
+          new HistogramTask(bitmap, step, firstRow, lastRow, samples, runOffsets, runSizes, i);
+    }
+    ParallelTasks.invokeAll(executor, tasks);
+    return ColorHistogram.fromSortedRuns(samples, runOffsets, runSizes);
+  }
+
+  /** Throws a {@link CancellationException} if the current thread has been interrupted. */
+  static void throwIfCancelled() {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new CancellationException();
+    }
+  }
+
+  /** Samples a range of rows of a bitmap into a sorted run of pixels. */
+  private static final class HistogramTask implements Runnable {
+    private final Bitmap bitmap;
+    private final int step;
+    private final int firstRow;
+    private final int lastRow;
+    private final int[] samples;
+    private final int[] runOffsets;
+    private final int[] runSizes;
+    private final int index;
+
+    HistogramTask(
+        Bitmap bitmap,
+        int step,
+        int firstRow,
+        int lastRow,
+        int[] samples,
+        int[] runOffsets,
+        int[] runSizes,
+        int index) {
+      this.bitmap = bitmap;
+      this.step = step;
+      this.firstRow = firstRow;
+      this.lastRow = lastRow;
+      this.samples = samples;
+      this.runOffsets = runOffsets;
+      this.runSizes = runSizes;
+      this.index = index;
+    }
+
+    @Override
+    public void run() {
+      int width = bitmap.getWidth();
+      int[] row = new int[width];
+      int offset = runOffsets[index];
+      int size = 0;
+      for (int sampledRow = firstRow; sampledRow < lastRow; sampledRow++) {
+        throwIfCancelled();
+        bitmap.getPixels(row, 0, width, 0, sampledRow * step, width, 1);
+        for (int x = 0; x < width; x += step) {
+          int pixel = row[x];
+          // Translucent pixels don't have a well defined color.
+          if (Color.alpha(pixel) < 255) {
+            continue;
+          }
+          samples[offset + size++] = pixel;
+        }
+      }
+      Arrays.sort(samples, offset, offset + size);
+      runSizes[index] = size;
+    }
+  }
+}
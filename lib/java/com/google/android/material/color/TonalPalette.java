@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.color;
+
+import androidx.annotation.ColorInt;
+import androidx.annotation.IntRange;
+import androidx.annotation.NonNull;
+import androidx.collection.LruCache;
+
+/**
+ * A convenience class for retrieving colors that are constant in hue and chroma, but vary in tone.
+ *
+ * <p>Each tone is solved once, on first use, and kept in a table of the 101 integer tones.
+ * Palettes are shared through a bounded process-wide cache keyed by their hue and chroma, so that
+ * repeated lookups for the same seed color cost an array read instead of a gamut map.
+ */
+final class TonalPalette {
+  /** The maximum number of palettes kept in the process-wide cache. */
+  private static final int MAX_CACHED_PALETTES = 32;
+
+  private static final int TONE_COUNT = 101;
+
+  private static final LruCache<Long, TonalPalette> cache = new LruCache<>(MAX_CACHED_PALETTES);
+
+  private final float hue;
+  private final float chroma;
+
+  // ARGB representation of each integer tone, or 0 if the tone has not been solved yet. Solved
+  // colors are always opaque, so 0 never collides with a real value.
+  private final int[] tones = new int[TONE_COUNT];
+
+  private TonalPalette(float hue, float chroma) {
+    this.hue = hue;
+    this.chroma = chroma;
+  }
+
+  /**
+   * Returns the palette with the hue and chroma of a color.
+   *
+   * @param argb ARGB representation of a color.
+   */
+  @NonNull
+  static TonalPalette fromInt(@ColorInt int argb) {
+    Hct hct = Hct.fromInt(argb);
+    return fromHueAndChroma(hct.getHue(), hct.getChroma());
+  }
+
+  /**
+   * Returns the palette with a hue and chroma.
+   *
+   * @param hue HCT hue; invalid values are corrected.
+   * @param chroma HCT chroma.
+   */
+  @NonNull
+  static TonalPalette fromHueAndChroma(float hue, float chroma) {
+    hue = MathUtils.sanitizeDegrees(hue);
+    chroma = Math.max(0f, chroma);
+    // Keyed on the exact values, so that cached tones match the colors Hct#setTone would solve.
+    Long key =
+        ((long) Float.floatToIntBits(hue) << 32) | (Float.floatToIntBits(chroma) & 0xffffffffL);
+    TonalPalette palette = cache.get(key);
+    if (palette == null) {
+      palette = new TonalPalette(hue, chroma);
+      cache.put(key, palette);
+    }
+    return palette;
+  }
+
+  /** Clears the process-wide palette cache. */
+  static void clearCache() {
+    cache.evictAll();
+  }
+
+  /**
+   * Returns the ARGB representation of a tone of this palette.
+   *
+   * @param tone HCT tone, 0 <= tone <= 100.
+   */
+  @ColorInt
+  int tone(@IntRange(from = 0, to = 100) int tone) {
+    int color = tones[tone];
+    if (color == 0) {
+      // Racing threads solve the same color, so unsynchronized writes are benign.
+      color = HctSolver.solveToInt(hue, chroma, tone);
+      tones[tone] = color;
+    }
+    return color;
+  }
+
+  float getHue() {
+    return hue;
+  }
+
+  float getChroma() {
+    return chroma;
+  }
+}
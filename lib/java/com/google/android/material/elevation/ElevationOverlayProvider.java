@@ -23,6 +23,8 @@ import android.graphics.Color;
 import android.view.View;
 import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.LruCache;
 import androidx.core.graphics.ColorUtils;
 import com.google.android.material.color.MaterialColors;
 import com.google.android.material.internal.ViewUtils;
@@ -35,12 +37,29 @@ public class ElevationOverlayProvider {
   private static final float FORMULA_OFFSET = 2f;
   private static final int OVERLAY_ACCENT_COLOR_ALPHA = (int) Math.round(0.02 * 255);
 
+  /** The maximum number of tables of theme surface colors kept for different theme colors. */
+  private static final int MAX_THEME_SURFACE_COLOR_TABLES = 8;
+
+  // Tables of the theme surface color composited with the overlay, shared by every provider with
+  // the same surface, overlay and accent colors. Entries are only ever set to the same color, so
+  // a table may be filled in from several threads.
+  private static final LruCache<ThemeColors, int[]> themeSurfaceColorTables =
+      new LruCache<>(MAX_THEME_SURFACE_COLOR_TABLES);
+
   private final boolean elevationOverlayEnabled;
   private final int elevationOverlayColor;
   private final int elevationOverlayAccentColor;
   private final int colorSurface;
   private final float displayDensity;
 
+  /**
+   * The theme surface color composited with the overlay at each overlay alpha, lazily filled in.
+   * The overlay alpha is rounded to an int before blending, so colors only change at these 256
+   * alphas, plus at the elevation of 0 where the accent color isn't applied. Shared with other
+   * providers with the same theme colors.
+   */
+  @Nullable private int[] themeSurfaceColors;
+
   public ElevationOverlayProvider(@NonNull Context context) {
     this(
         MaterialAttributes.resolveBoolean(context, R.attr.elevationOverlayEnabled, false),
@@ -132,6 +151,49 @@ public class ElevationOverlayProvider {
     float overlayAlphaFraction = calculateOverlayAlphaFraction(elevation);
     int backgroundAlpha = Color.alpha(backgroundColor);
     int backgroundColorOpaque = ColorUtils.setAlphaComponent(backgroundColor, 255);
+    int overlayColorOpaque;
+    if (backgroundColorOpaque == colorSurface) {
+      overlayColorOpaque = compositeOverlayWithThemeSurfaceColor(overlayAlphaFraction);
+    } else {
+      overlayColorOpaque = compositeOverlayOpaque(backgroundColorOpaque, overlayAlphaFraction);
+    }
+    return ColorUtils.setAlphaComponent(overlayColorOpaque, backgroundAlpha);
+  }
+
+  @ColorInt
+  private int compositeOverlayWithThemeSurfaceColor(float overlayAlphaFraction) {
+    if (themeSurfaceColors == null) {
+      themeSurfaceColors = getThemeSurfaceColorTable();
+    }
+    // Index 0 is the surface color without any overlay.
+    int index =
+        overlayAlphaFraction > 0
+            ? Math.round(Color.alpha(elevationOverlayColor) * overlayAlphaFraction) + 1
+            : 0;
+    int color = themeSurfaceColors[index];
+    // Composited colors are opaque, so 0 is never a color of the table.
+    if (color == 0) {
+      color = compositeOverlayOpaque(colorSurface, overlayAlphaFraction);
+      themeSurfaceColors[index] = color;
+    }
+    return color;
+  }
+
+  @NonNull
+  private int[] getThemeSurfaceColorTable() {
+    ThemeColors themeColors =
+        new ThemeColors(colorSurface, elevationOverlayColor, elevationOverlayAccentColor);
+    int[] table = themeSurfaceColorTables.get(themeColors);
+    if (table == null) {
+      table = new int[257];
+      themeSurfaceColorTables.put(themeColors, table);
+    }
+    return table;
+  }
+
+  @ColorInt
+  private int compositeOverlayOpaque(
+      @ColorInt int backgroundColorOpaque, float overlayAlphaFraction) {
     int overlayColorOpaque =
         MaterialColors.layer(backgroundColorOpaque, elevationOverlayColor, overlayAlphaFraction);
     if (overlayAlphaFraction > 0 && elevationOverlayAccentColor != Color.TRANSPARENT) {
@@ -139,7 +201,7 @@ public class ElevationOverlayProvider {
           ColorUtils.setAlphaComponent(elevationOverlayAccentColor, OVERLAY_ACCENT_COLOR_ALPHA);
       overlayColorOpaque = MaterialColors.layer(overlayColorOpaque, overlayAccentColor);
     }
-    return ColorUtils.setAlphaComponent(overlayColorOpaque, backgroundAlpha);
+    return overlayColorOpaque;
   }
 
   /**
@@ -192,4 +254,36 @@ public class ElevationOverlayProvider {
   private boolean isThemeSurfaceColor(@ColorInt int color) {
     return ColorUtils.setAlphaComponent(color, 255) == colorSurface;
   }
+
+  /** The theme colors a table of theme surface colors is composited from. */
+  private static final class ThemeColors {
+    private final int colorSurface;
+    private final int elevationOverlayColor;
+    private final int elevationOverlayAccentColor;
+
+    ThemeColors(int colorSurface, int elevationOverlayColor, int elevationOverlayAccentColor) {
+      this.colorSurface = colorSurface;
+      this.elevationOverlayColor = elevationOverlayColor;
+      this.elevationOverlayAccentColor = elevationOverlayAccentColor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ThemeColors)) {
+        return false;
+      }
+      ThemeColors that = (ThemeColors) o;
+      return colorSurface == that.colorSurface
+          && elevationOverlayColor == that.elevationOverlayColor
+          && elevationOverlayAccentColor == that.elevationOverlayAccentColor;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * colorSurface + elevationOverlayColor) + elevationOverlayAccentColor;
+    }
+  }
 }
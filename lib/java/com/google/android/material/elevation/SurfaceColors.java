@@ -19,12 +19,15 @@ package com.google.android.material.elevation;
 import com.google.android.material.R;
 
 import android.content.Context;
+import android.content.res.Resources.Theme;
 import android.graphics.Color;
 import androidx.annotation.ColorInt;
 import androidx.annotation.DimenRes;
 import androidx.annotation.Dimension;
 import androidx.annotation.NonNull;
 import com.google.android.material.color.MaterialColors;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * Provides a convenient way to get color values of tonal variations of {@code R.attr.colorSurface}.
@@ -37,6 +40,9 @@ public enum SurfaceColors {
   SURFACE_4(R.dimen.m3_sys_elevation_level4),
   SURFACE_5(R.dimen.m3_sys_elevation_level5);
 
+  private static final Map<Theme, ElevationOverlayProvider> cachedOverlayProviders =
+      new WeakHashMap<>();
+
   private final int elevationResId;
 
   SurfaceColors(@DimenRes int elevationResId) {
@@ -60,4 +66,26 @@ public enum SurfaceColors {
     return new ElevationOverlayProvider(context).compositeOverlay(
         MaterialColors.getColor(context, R.attr.colorSurface, Color.TRANSPARENT), elevation);
   }
+
+  /**
+   * Returns the corresponding surface color in RGB with the given elevation, like {@link
+   * #getColorForElevation(Context, float)}, but resolves the theme attributes only once for each
+   * theme. Use this for elevations that change often, such as during animations.
+   *
+   * <p>Changes to the theme of the {@code context} made after its first call aren't reflected.
+   */
+  @ColorInt
+  public static int getCachedColorForElevation(
+      @NonNull Context context, @Dimension float elevation) {
+    Theme theme = context.getTheme();
+    ElevationOverlayProvider overlayProvider;
+    synchronized (cachedOverlayProviders) {
+      overlayProvider = cachedOverlayProviders.get(theme);
+      if (overlayProvider == null) {
+        overlayProvider = new ElevationOverlayProvider(context);
+        cachedOverlayProviders.put(theme, overlayProvider);
+      }
+    }
+    return overlayProvider.compositeOverlay(overlayProvider.getThemeSurfaceColor(), elevation);
+  }
 }
@@ -24,8 +24,12 @@ import android.annotation.TargetApi;
 import android.content.Context;
 import android.content.res.ColorStateList;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.ColorFilter;
+import android.graphics.Matrix;
 import android.graphics.Outline;
 import android.graphics.Paint;
 import android.graphics.Paint.Style;
@@ -35,11 +39,16 @@ import android.graphics.PorterDuff.Mode;
 import android.graphics.PorterDuffXfermode;
 import android.graphics.Rect;
 import android.graphics.RectF;
+import android.graphics.Shader.TileMode;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
 import android.os.Build.VERSION;
 import android.os.Build.VERSION_CODES;
 import androidx.appcompat.content.res.AppCompatResources;
 import androidx.appcompat.widget.AppCompatImageView;
 import android.util.AttributeSet;
+import android.view.Gravity;
 import android.view.View;
 import android.view.ViewOutlineProvider;
 import androidx.annotation.ColorRes;
@@ -48,6 +57,10 @@ import androidx.annotation.Dimension;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
+import androidx.annotation.VisibleForTesting;
+import androidx.core.graphics.drawable.DrawableCompat;
+import androidx.core.view.ViewCompat;
+import androidx.core.widget.ImageViewCompat;
 import com.google.android.material.resources.MaterialResources;
 import com.google.android.material.shape.MaterialShapeDrawable;
 import com.google.android.material.shape.ShapeAppearanceModel;
@@ -61,13 +74,27 @@ public class ShapeableImageView extends AppCompatImageView implements Shapeable
 
   private static final int UNDEFINED_PADDING = Integer.MIN_VALUE;
 
+  // How the image is clipped to the shape. The view is drawn to a layer only for the mask.
+  static final int CLIP_MODE_MASK = 0;
+  static final int CLIP_MODE_OUTLINE = 1;
+  static final int CLIP_MODE_BITMAP_SHADER = 2;
+
   private final ShapeAppearancePathProvider pathProvider =
       ShapeAppearancePathProvider.getInstance();
+  // The bounds of the shape, which are whole pixels so that the outline and the path match.
+  private final Rect destinationRect = new Rect();
   private final RectF destination;
   private final RectF maskRect;
   private final Paint borderPaint;
   private final Paint clearPaint;
   private final Path path = new Path();
+  private final Paint bitmapPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+  private final Matrix shaderMatrix = new Matrix();
+  // The local matrix of the current shader, which is replaced rather than changed.
+  private final Matrix appliedShaderMatrix = new Matrix();
+  private final RectF shaderBounds = new RectF();
+  private final RectF cropRect = new RectF();
+  @Nullable private ColorFilterProbe colorFilterProbe;
 
   @Nullable private ColorStateList strokeColor;
   @Nullable private MaterialShapeDrawable shadowDrawable;
@@ -75,6 +102,9 @@ public class ShapeableImageView extends AppCompatImageView implements Shapeable
   private ShapeAppearanceModel shapeAppearanceModel;
   @Dimension private float strokeWidth;
   private Path maskPath;
+  private int clipMode = CLIP_MODE_MASK;
+  private boolean clippingToOutline;
+  @Nullable private Bitmap shaderBitmap;
 
   @Dimension private int leftContentPadding;
   @Dimension private int topContentPadding;
@@ -148,6 +178,7 @@ public class ShapeableImageView extends AppCompatImageView implements Shapeable
     if (VERSION.SDK_INT >= VERSION_CODES.LOLLIPOP) {
       setOutlineProvider(new OutlineProvider());
     }
+    updateClipMode();
   }
 
   @Override
@@ -159,7 +190,7 @@ public class ShapeableImageView extends AppCompatImageView implements Shapeable
   @Override
   protected void onAttachedToWindow() {
     super.onAttachedToWindow();
-    setLayerType(LAYER_TYPE_HARDWARE, null);
+    updateLayerType();
   }
 
   @Override
@@ -195,9 +226,68 @@ public class ShapeableImageView extends AppCompatImageView implements Shapeable
 
   @Override
   protected void onDraw(Canvas canvas) {
+    if (clipMode == CLIP_MODE_OUTLINE) {
+      // The view is already clipped to the shape by its outline.
+      super.onDraw(canvas);
+    } else if (clipMode == CLIP_MODE_BITMAP_SHADER && updateBitmapShader()) {
+      canvas.drawPath(path, bitmapPaint);
+    } else {
+      drawMasked(canvas);
+    }
+    drawStroke(canvas);
+  }
+
+  private void drawMasked(Canvas canvas) {
+    // Clearing outside of the shape without a layer would also clear what's behind the view.
+    boolean needsLayer = getLayerType() == LAYER_TYPE_NONE;
+    int saveCount = needsLayer ? saveLayerCompat(canvas) : 0;
     super.onDraw(canvas);
     canvas.drawPath(maskPath, clearPaint);
-    drawStroke(canvas);
+    if (needsLayer) {
+      canvas.restoreToCount(saveCount);
+    }
+  }
+
+  private int saveLayerCompat(Canvas canvas) {
+    if (VERSION.SDK_INT >= VERSION_CODES.LOLLIPOP) {
+      return canvas.saveLayer(maskRect, null);
+    } else {
+      return canvas.saveLayer(
+          maskRect.left, maskRect.top, maskRect.right, maskRect.bottom, null, Canvas.ALL_SAVE_FLAG);
+    }
+  }
+
+  @Override
+  public void setImageDrawable(@Nullable Drawable drawable) {
+    super.setImageDrawable(drawable);
+    // Called by the super constructor, before the shape is set.
+    if (shapeAppearanceModel != null) {
+      updateClipMode();
+    }
+  }
+
+  @Override
+  public void setImageURI(@Nullable Uri uri) {
+    super.setImageURI(uri);
+    updateClipMode();
+  }
+
+  @Override
+  public void setBackgroundDrawable(@Nullable Drawable background) {
+    super.setBackgroundDrawable(background);
+    // Called by the super constructor, before the shape is set.
+    if (shapeAppearanceModel != null) {
+      updateClipMode();
+    }
+  }
+
+  @RequiresApi(VERSION_CODES.LOLLIPOP)
+  @Override
+  public void setOutlineProvider(@Nullable ViewOutlineProvider provider) {
+    super.setOutlineProvider(provider);
+    if (shapeAppearanceModel != null) {
+      updateClipMode();
+    }
   }
 
   @Override
@@ -476,8 +566,9 @@ public class ShapeableImageView extends AppCompatImageView implements Shapeable
   }
 
   private void updateShapeMask(int width, int height) {
-    destination.set(
+    destinationRect.set(
         getPaddingLeft(), getPaddingTop(), width - getPaddingRight(), height - getPaddingBottom());
+    destination.set(destinationRect);
     pathProvider.calculatePath(shapeAppearanceModel, 1f /*interpolation*/, destination, path);
     // Remove path from rect to draw with clear paint.
     maskPath.rewind();
@@ -485,6 +576,149 @@ public class ShapeableImageView extends AppCompatImageView implements Shapeable
     // Do not include padding to clip the background too.
     maskRect.set(0, 0, width, height);
     maskPath.addRect(maskRect, Direction.CCW);
+    updateClipMode();
+  }
+
+  /**
+   * Picks the cheapest way to clip the image to the shape. Rounded rects, and on API 33+ other
+   * convex shapes, are clipped through the outline. Bitmaps are drawn through a shader on the
+   * shape. Anything else is drawn on a layer, and cleared outside of the shape by the mask.
+   */
+  private void updateClipMode() {
+    if (canClipToOutline()) {
+      clipMode = CLIP_MODE_OUTLINE;
+    } else if (canDrawWithBitmapShader()) {
+      clipMode = CLIP_MODE_BITMAP_SHADER;
+    } else {
+      clipMode = CLIP_MODE_MASK;
+    }
+    boolean clipToOutline = clipMode == CLIP_MODE_OUTLINE;
+    if (VERSION.SDK_INT >= 21 && clippingToOutline != clipToOutline) {
+      clippingToOutline = clipToOutline;
+      setClipToOutline(clipToOutline);
+    }
+    if (ViewCompat.isAttachedToWindow(this)) {
+      updateLayerType();
+    }
+  }
+
+  @VisibleForTesting
+  int getClipMode() {
+    return clipMode;
+  }
+
+  private void updateLayerType() {
+    int layerType = clipMode == CLIP_MODE_MASK ? LAYER_TYPE_HARDWARE : LAYER_TYPE_NONE;
+    if (getLayerType() != layerType) {
+      setLayerType(layerType, null);
+    }
+  }
+
+  private boolean canClipToOutline() {
+    // The outline would also clip the outer half of the stroke.
+    if (VERSION.SDK_INT < 21
+        || !(getOutlineProvider() instanceof OutlineProvider)
+        || (strokeColor != null && strokeWidth > 0)) {
+      return false;
+    }
+    return shapeAppearanceModel.isRoundRect(destination)
+        || (VERSION.SDK_INT >= 33 && path.isConvex());
+  }
+
+  private boolean canDrawWithBitmapShader() {
+    // The mask would also clear the background outside of the shape.
+    if (getBackground() != null || !(getDrawable() instanceof BitmapDrawable)) {
+      return false;
+    }
+    return canDrawWithBitmapShader((BitmapDrawable) getDrawable());
+  }
+
+  private static boolean canDrawWithBitmapShader(@NonNull BitmapDrawable drawable) {
+    return drawable.getBitmap() != null
+        && drawable.getGravity() == Gravity.FILL
+        && drawable.getTileModeX() == null
+        && drawable.getTileModeY() == null;
+  }
+
+  /**
+   * Maps the bitmap shader to where {@link android.widget.ImageView} would draw the bitmap, and
+   * returns false if the image can't be drawn through the shader as it is.
+   */
+  @VisibleForTesting
+  boolean updateBitmapShader() {
+    Drawable drawable = getDrawable();
+    // The gravity and tile modes of the drawable may have changed since the clip mode was picked.
+    // Tints aren't visible on the drawable's paint.
+    if (!(drawable instanceof BitmapDrawable)
+        || !canDrawWithBitmapShader((BitmapDrawable) drawable)
+        || ImageViewCompat.getImageTintList(this) != null
+        || (isRtl() && DrawableCompat.isAutoMirrored(drawable))
+        || hasTint((BitmapDrawable) drawable)) {
+      return false;
+    }
+    BitmapDrawable bitmapDrawable = (BitmapDrawable) drawable;
+    Bitmap bitmap = bitmapDrawable.getBitmap();
+
+    // ImageView clips the image to the padding in the scrolled canvas, which the shape has to stay
+    // inside of. The image itself scrolls with the canvas, like the shape.
+    if (VERSION.SDK_INT < 16 || getCropToPadding()) {
+      int scrollX = getScrollX();
+      int scrollY = getScrollY();
+      cropRect.set(
+          scrollX + super.getPaddingLeft(),
+          scrollY + super.getPaddingTop(),
+          scrollX + getWidth() - super.getPaddingRight(),
+          scrollY + getHeight() - super.getPaddingBottom());
+      if (!cropRect.contains(destination)) {
+        return false;
+      }
+    }
+
+    Rect bounds = drawable.getBounds();
+    shaderMatrix.setScale(
+        bounds.width() / (float) bitmap.getWidth(), bounds.height() / (float) bitmap.getHeight());
+    shaderMatrix.postTranslate(bounds.left, bounds.top);
+    shaderMatrix.postConcat(getImageMatrix());
+    // ImageView draws inside of the padding of the view, including the content padding.
+    shaderMatrix.postTranslate(super.getPaddingLeft(), super.getPaddingTop());
+
+    // The shader repeats the edges of the bitmap, so the bitmap has to cover the whole shape.
+    shaderBounds.set(0, 0, bitmap.getWidth(), bitmap.getHeight());
+    if (!shaderMatrix.mapRect(shaderBounds) || !shaderBounds.contains(destination)) {
+      return false;
+    }
+    // Changing the local matrix of a shader that is already set on a paint doesn't take effect
+    // before API 26, so a new shader is created whenever the matrix changes.
+    if (bitmap != shaderBitmap || !shaderMatrix.equals(appliedShaderMatrix)) {
+      shaderBitmap = bitmap;
+      appliedShaderMatrix.set(shaderMatrix);
+      BitmapShader shader = new BitmapShader(bitmap, TileMode.CLAMP, TileMode.CLAMP);
+      shader.setLocalMatrix(shaderMatrix);
+      bitmapPaint.setShader(shader);
+    }
+
+    Paint drawablePaint = bitmapDrawable.getPaint();
+    bitmapPaint.setAlpha(drawablePaint.getAlpha());
+    bitmapPaint.setColorFilter(drawablePaint.getColorFilter());
+    bitmapPaint.setFilterBitmap(drawablePaint.isFilterBitmap());
+    return true;
+  }
+
+  /**
+   * Returns whether the drawable is tinted, either through {@link Drawable#setTintList} or {@code
+   * android:tint} in XML. There is no getter for the tint, so this draws the drawable to a canvas
+   * that only records the color filter the bitmap is drawn with.
+   */
+  private boolean hasTint(@NonNull BitmapDrawable drawable) {
+    if (VERSION.SDK_INT < VERSION_CODES.LOLLIPOP) {
+      // Framework drawables can't be tinted before API 21.
+      return false;
+    }
+    if (colorFilterProbe == null) {
+      colorFilterProbe = new ColorFilterProbe();
+    }
+    // The tint is drawn only while the paint has no color filter of its own.
+    return !colorFilterProbe.drawsWithColorFilter(drawable, drawable.getPaint().getColorFilter());
   }
 
   private void drawStroke(Canvas canvas) {
@@ -539,6 +773,7 @@ public class ShapeableImageView extends AppCompatImageView implements Shapeable
   public void setStrokeWidth(@Dimension float strokeWidth) {
     if (this.strokeWidth != strokeWidth) {
       this.strokeWidth = strokeWidth;
+      updateClipMode();
       invalidate();
     }
   }
@@ -571,14 +806,13 @@ public class ShapeableImageView extends AppCompatImageView implements Shapeable
 
   public void setStrokeColor(@Nullable ColorStateList strokeColor) {
     this.strokeColor = strokeColor;
+    updateClipMode();
     invalidate();
   }
 
   @TargetApi(VERSION_CODES.LOLLIPOP)
   class OutlineProvider extends ViewOutlineProvider {
 
-    private final Rect rect = new Rect();
-
     @Override
     public void getOutline(View view, Outline outline) {
       if (shapeAppearanceModel == null) {
@@ -589,9 +823,42 @@ public class ShapeableImageView extends AppCompatImageView implements Shapeable
         shadowDrawable = new MaterialShapeDrawable(shapeAppearanceModel);
       }
 
-      destination.round(rect);
-      shadowDrawable.setBounds(rect);
+      shadowDrawable.setBounds(destinationRect);
       shadowDrawable.getOutline(outline);
     }
   }
+
+  /** A canvas that only records the color filter that bitmaps are drawn with. */
+  private static class ColorFilterProbe extends Canvas {
+    private boolean drawn;
+    @Nullable private ColorFilter colorFilter;
+
+    /** Returns whether the drawable draws its bitmap with exactly the given color filter. */
+    boolean drawsWithColorFilter(
+        @NonNull BitmapDrawable drawable, @Nullable ColorFilter expectedColorFilter) {
+      drawn = false;
+      colorFilter = null;
+      drawable.draw(this);
+      boolean result = drawn && colorFilter == expectedColorFilter;
+      colorFilter = null;
+      return result;
+    }
+
+    @Override
+    public void drawBitmap(
+        @NonNull Bitmap bitmap, @Nullable Rect src, @NonNull Rect dst, @Nullable Paint paint) {
+      record(paint);
+    }
+
+    @Override
+    public void drawBitmap(
+        @NonNull Bitmap bitmap, @Nullable Rect src, @NonNull RectF dst, @Nullable Paint paint) {
+      record(paint);
+    }
+
+    private void record(@Nullable Paint paint) {
+      drawn = true;
+      colorFilter = paint != null ? paint.getColorFilter() : null;
+    }
+  }
 }
@@ -43,11 +43,55 @@ public class MaterialAttributes {
    */
   @Nullable
   public static TypedValue resolve(@NonNull Context context, @AttrRes int attributeResId) {
-    TypedValue typedValue = new TypedValue();
-    if (context.getTheme().resolveAttribute(attributeResId, typedValue, true)) {
-      return typedValue;
+    TypedValue cachedValue = resolveCached(context, attributeResId);
+    if (cachedValue == null) {
+      return null;
     }
-    return null;
+    // Copy the cached value, as callers may modify the returned one.
+    TypedValue typedValue = new TypedValue();
+    typedValue.setTo(cachedValue);
+    return typedValue;
+  }
+
+  /**
+   * Returns the {@link TypedValue} for the provided {@code attributeResId} or null if the attribute
+   * is not present in the current theme. The returned value is shared and must not be modified.
+   */
+  @Nullable
+  private static TypedValue resolveCached(@NonNull Context context, @AttrRes int attributeResId) {
+    return ThemeAttributeCache.resolve(context.getTheme(), attributeResId);
+  }
+
+  /**
+   * Returns the data of the {@link TypedValue} for the provided {@code attributeResId} or {@code
+   * defaultValue} if the attribute is not present in the current theme.
+   */
+  public static int resolveData(
+      @NonNull Context context, @AttrRes int attributeResId, int defaultValue) {
+    TypedValue typedValue = resolveCached(context, attributeResId);
+    return typedValue != null ? typedValue.data : defaultValue;
+  }
+
+  /**
+   * Returns the number of attributes that have been resolved from the cache of resolved theme
+   * attributes since the process started or the cache was cleared.
+   */
+  public static long getResolveCacheHitCount() {
+    return ThemeAttributeCache.getHitCount();
+  }
+
+  /**
+   * Returns the number of attributes that have been resolved from a theme, because they weren't
+   * cached yet or their theme had changed, since the process started or the cache was cleared.
+   * Attributes aren't cached before API 24, so resolving them doesn't count as a hit or a miss.
+   */
+  public static long getResolveCacheMissCount() {
+    return ThemeAttributeCache.getMissCount();
+  }
+
+  /** Clears the cache of resolved theme attributes and resets its hit and miss counts. */
+  public static void clearResolveCache() {
+    ThemeAttributeCache.clear();
   }
 
   /**
@@ -59,7 +103,7 @@ public class MaterialAttributes {
       @NonNull Context context,
       @AttrRes int attributeResId,
       @NonNull String errorMessageComponent) {
-    TypedValue typedValue = resolve(context, attributeResId);
+    TypedValue typedValue = resolveCached(context, attributeResId);
     if (typedValue == null) {
       String errorMessage =
           "%1$s requires a value for the %2$s attribute to be set in your app theme. "
@@ -103,7 +147,7 @@ public class MaterialAttributes {
    */
   public static boolean resolveBoolean(
       @NonNull Context context, @AttrRes int attributeResId, boolean defaultValue) {
-    TypedValue typedValue = resolve(context, attributeResId);
+    TypedValue typedValue = resolveCached(context, attributeResId);
     return (typedValue != null && typedValue.type == TypedValue.TYPE_INT_BOOLEAN)
         ? typedValue.data != 0
         : defaultValue;
@@ -115,7 +159,7 @@ public class MaterialAttributes {
    */
   public static int resolveInteger(
       @NonNull Context context, @AttrRes int attributeResId, int defaultValue) {
-    TypedValue typedValue = resolve(context, attributeResId);
+    TypedValue typedValue = resolveCached(context, attributeResId);
     return (typedValue != null && typedValue.type == TypedValue.TYPE_INT_DEC)
         ? typedValue.data
         : defaultValue;
@@ -135,7 +179,7 @@ public class MaterialAttributes {
   @Px
   public static int resolveDimension(
       @NonNull Context context, @AttrRes int attributeResId, @DimenRes int defaultDimenResId) {
-    TypedValue dimensionValue = resolve(context, attributeResId);
+    TypedValue dimensionValue = resolveCached(context, attributeResId);
     if (dimensionValue == null || dimensionValue.type != TypedValue.TYPE_DIMENSION) {
       return (int) context.getResources().getDimension(defaultDimenResId);
     } else {
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.resources;
+
+import android.content.res.Resources.Theme;
+import android.os.Build.VERSION;
+import android.os.Build.VERSION_CODES;
+import android.util.SparseArray;
+import android.util.TypedValue;
+import androidx.annotation.AttrRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.lang.ref.WeakReference;
+
+/**
+ * Caches resolved theme attributes for the few most recently used themes.
+ *
+ * <p>Themes are matched by identity. Each cached theme is stamped with the hash code of the theme,
+ * which from API 24 is the hash code of the styles applied to it, and of the configuration of its
+ * resources, so that its attributes are resolved again after a style is applied or the
+ * configuration changes. Before API 24 a theme's hash code doesn't change when a style is applied,
+ * so attributes aren't cached at all.
+ */
+final class ThemeAttributeCache {
+
+  private static final int MAX_CACHED_THEMES = 4;
+
+  /** Marks attributes that aren't set in a theme. */
+  private static final TypedValue NOT_SET = new TypedValue();
+
+  private static final Entry[] entries = new Entry[MAX_CACHED_THEMES];
+  private static int nextEntryIndex;
+
+  private static long hitCount;
+  private static long missCount;
+
+  private ThemeAttributeCache() {}
+
+  /**
+   * Returns the value of an attribute in a theme, or null if the attribute isn't set. The returned
+   * value is shared and must not be modified.
+   */
+  @Nullable
+  static TypedValue resolve(@NonNull Theme theme, @AttrRes int attributeResId) {
+    if (VERSION.SDK_INT < VERSION_CODES.N) {
+      return resolveUncached(theme, attributeResId);
+    }
+
+    int stamp = 31 * theme.hashCode() + theme.getResources().getConfiguration().hashCode();
+    synchronized (entries) {
+      Entry entry = getEntry(theme, stamp);
+      TypedValue typedValue = entry.values.get(attributeResId);
+      if (typedValue != null) {
+        hitCount++;
+        return typedValue == NOT_SET ? null : typedValue;
+      }
+      missCount++;
+      typedValue = resolveUncached(theme, attributeResId);
+      entry.values.put(attributeResId, typedValue == null ? NOT_SET : typedValue);
+      return typedValue;
+    }
+  }
+
+  @Nullable
+  private static TypedValue resolveUncached(@NonNull Theme theme, @AttrRes int attributeResId) {
+    TypedValue typedValue = new TypedValue();
+    if (theme.resolveAttribute(attributeResId, typedValue, true)) {
+      return typedValue;
+    }
+    return null;
+  }
+
+  @NonNull
+  private static Entry getEntry(@NonNull Theme theme, int stamp) {
+    for (Entry entry : entries) {
+      if (entry != null && entry.theme.get() == theme) {
+        if (entry.stamp != stamp) {
+          entry.stamp = stamp;
+          entry.values.clear();
+        }
+        return entry;
+      }
+    }
+    // Replace the least recently added theme, or one that has been garbage collected.
+    int index = nextEntryIndex;
+    for (int i = 0; i < entries.length; i++) {
+      if (entries[i] == null || entries[i].theme.get() == null) {
+        index = i;
+        break;
+      }
+    }
+    if (index == nextEntryIndex) {
+      nextEntryIndex = (nextEntryIndex + 1) % entries.length;
+    }
+    Entry entry = new Entry(theme, stamp);
+    entries[index] = entry;
+    return entry;
+  }
+
+  static long getHitCount() {
+    synchronized (entries) {
+      return hitCount;
+    }
+  }
+
+  static long getMissCount() {
+    synchronized (entries) {
+      return missCount;
+    }
+  }
+
+  static void clear() {
+    synchronized (entries) {
+      for (int i = 0; i < entries.length; i++) {
+        entries[i] = null;
+      }
+      nextEntryIndex = 0;
+      hitCount = 0;
+      missCount = 0;
+    }
+  }
+
+  private static final class Entry {
+    @NonNull final WeakReference<Theme> theme;
+    @NonNull final SparseArray<TypedValue> values = new SparseArray<>();
+    int stamp;
+
+    Entry(@NonNull Theme theme, int stamp) {
+      this.theme = new WeakReference<>(theme);
+      this.stamp = stamp;
+    }
+  }
+}
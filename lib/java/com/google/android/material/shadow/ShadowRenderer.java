@@ -32,7 +32,9 @@ import android.graphics.Shader.TileMode;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
+import androidx.annotation.VisibleForTesting;
 import androidx.core.graphics.ColorUtils;
+import java.util.Arrays;
 
 /**
  * A helper class to draw linear or radial shadows using gradient shaders.
@@ -65,9 +67,32 @@ public class ShadowRenderer {
   /** Start, beginning of corner, middle of shadow, and end of shadow positions */
   private static final float[] cornerPositions = new float[] {0f, 0f, .5f, 1f};
 
+  /** The maximum number of corner shaders kept, each for a different ratio of shadow to radius. */
+  private static final int MAX_CORNER_SHADERS = 16;
+
+  /**
+   * The number of steps the ratio of shadow to radius of corner shaders is rounded to. The start of
+   * a corner shadow moves by at most 1/256th of its radius, which is under half a pixel for corners
+   * up to 128 pixels.
+   */
+  private static final int CORNER_RATIO_STEPS = 128;
+
   private final Path scratch = new Path();
+  private final RectF scratchRect = new RectF();
   private Paint transparentPaint = new Paint();
 
+  // Shaders are created in unit space, from 0 to 1 for edges and with a radius of 1 around the
+  // origin for corners, and scaled to each shadow by the canvas. This lets a shader serve shadows
+  // of any size, and keeps shaders immutable while canvases record draws with them.
+  @Nullable private Shader edgeShader;
+  // Keyed by the rounded ratio of the shadow to the radius of the corner, and whether the shadow is
+  // drawn inside of the corner. The least recently used shader is replaced once all are in use.
+  private final int[] cornerShaderKeys = new int[MAX_CORNER_SHADERS];
+  private final Shader[] cornerShaders = new Shader[MAX_CORNER_SHADERS];
+  private final long[] cornerShaderLastUses = new long[MAX_CORNER_SHADERS];
+  private long cornerShaderUses;
+  private int shaderCount;
+
   public ShadowRenderer() {
     this(Color.BLACK);
   }
@@ -84,10 +109,16 @@ public class ShadowRenderer {
   }
 
   public void setShadowColor(int color) {
-    shadowStartColor = ColorUtils.setAlphaComponent(color, COLOR_ALPHA_START);
+    int startColor = ColorUtils.setAlphaComponent(color, COLOR_ALPHA_START);
+    if (startColor == shadowStartColor && edgeShader != null) {
+      return;
+    }
+    shadowStartColor = startColor;
     shadowMiddleColor = ColorUtils.setAlphaComponent(color, COLOR_ALPHA_MIDDLE);
     shadowEndColor = ColorUtils.setAlphaComponent(color, COLOR_ALPHA_END);
     shadowPaint.setColor(shadowStartColor);
+    edgeShader = null;
+    Arrays.fill(cornerShaders, null);
   }
 
   /** Draws an edge shadow on the canvas in the current bounds with the matrix transform applied. */
@@ -95,24 +126,24 @@ public class ShadowRenderer {
       @NonNull Canvas canvas, @Nullable Matrix transform, @NonNull RectF bounds, int elevation) {
     bounds.bottom += elevation;
     bounds.offset(0, -elevation);
+    if (bounds.height() <= 0) {
+      return;
+    }
 
-    edgeColors[0] = shadowEndColor;
-    edgeColors[1] = shadowMiddleColor;
-    edgeColors[2] = shadowStartColor;
-
-    edgeShadowPaint.setShader(
-        new LinearGradient(
-            bounds.left,
-            bounds.top,
-            bounds.left,
-            bounds.bottom,
-            edgeColors,
-            edgePositions,
-            Shader.TileMode.CLAMP));
+    if (edgeShader == null) {
+      edgeColors[0] = shadowEndColor;
+      edgeColors[1] = shadowMiddleColor;
+      edgeColors[2] = shadowStartColor;
+      edgeShader = new LinearGradient(0, 0, 0, 1, edgeColors, edgePositions, TileMode.CLAMP);
+      shaderCount++;
+    }
+    edgeShadowPaint.setShader(edgeShader);
 
     canvas.save();
     canvas.concat(transform);
-    canvas.drawRect(bounds, edgeShadowPaint);
+    canvas.translate(bounds.left, bounds.top);
+    canvas.scale(1, bounds.height());
+    canvas.drawRect(0, 0, bounds.width(), 1, edgeShadowPaint);
     canvas.restore();
   }
 
@@ -131,12 +162,7 @@ public class ShadowRenderer {
 
     Path arcBounds = scratch;
 
-    if (drawShadowInsideBounds) {
-      cornerColors[0] = 0;
-      cornerColors[1] = shadowEndColor;
-      cornerColors[2] = shadowMiddleColor;
-      cornerColors[3] = shadowStartColor;
-    } else {
+    if (!drawShadowInsideBounds) {
       // Calculate the arc bounds to prevent drawing shadow in the same part of the arc.
       arcBounds.rewind();
       arcBounds.moveTo(bounds.centerX(), bounds.centerY());
@@ -144,10 +170,6 @@ public class ShadowRenderer {
       arcBounds.close();
 
       bounds.inset(-elevation, -elevation);
-      cornerColors[0] = 0;
-      cornerColors[1] = shadowStartColor;
-      cornerColors[2] = shadowMiddleColor;
-      cornerColors[3] = shadowEndColor;
     }
 
     float radius = bounds.width() / 2f;
@@ -157,17 +179,7 @@ public class ShadowRenderer {
     }
 
     float startRatio = 1f - (elevation / radius);
-    float midRatio = startRatio + ((1f - startRatio) / 2f);
-    cornerPositions[1] = startRatio;
-    cornerPositions[2] = midRatio;
-    RadialGradient shader = new RadialGradient(
-        bounds.centerX(),
-        bounds.centerY(),
-        radius,
-        cornerColors,
-        cornerPositions,
-        TileMode.CLAMP);
-    cornerShadowPaint.setShader(shader);
+    cornerShadowPaint.setShader(getCornerShader(startRatio, drawShadowInsideBounds));
     canvas.save();
     canvas.concat(matrix);
     canvas.scale(1, bounds.height() / bounds.width());
@@ -178,10 +190,67 @@ public class ShadowRenderer {
       canvas.drawPath(arcBounds, transparentPaint);
     }
 
-    canvas.drawArc(bounds, startAngle, sweepAngle, true, cornerShadowPaint);
+    // Scale the unit space of the shader to the corner.
+    float centerX = bounds.centerX();
+    float centerY = bounds.centerY();
+    canvas.translate(centerX, centerY);
+    canvas.scale(radius, radius);
+    scratchRect.set(
+        (bounds.left - centerX) / radius,
+        (bounds.top - centerY) / radius,
+        (bounds.right - centerX) / radius,
+        (bounds.bottom - centerY) / radius);
+    canvas.drawArc(scratchRect, startAngle, sweepAngle, true, cornerShadowPaint);
     canvas.restore();
   }
 
+  @NonNull
+  private Shader getCornerShader(float startRatio, boolean drawShadowInsideBounds) {
+    int ratioStep = Math.round(Math.max(0, Math.min(1, startRatio)) * CORNER_RATIO_STEPS);
+    int key = (ratioStep << 1) | (drawShadowInsideBounds ? 1 : 0);
+    int leastRecentlyUsed = 0;
+    for (int i = 0; i < MAX_CORNER_SHADERS; i++) {
+      if (cornerShaders[i] != null && cornerShaderKeys[i] == key) {
+        cornerShaderLastUses[i] = ++cornerShaderUses;
+        return cornerShaders[i];
+      }
+      if (cornerShaders[i] == null
+          || (cornerShaders[leastRecentlyUsed] != null
+              && cornerShaderLastUses[i] < cornerShaderLastUses[leastRecentlyUsed])) {
+        leastRecentlyUsed = i;
+      }
+    }
+
+    if (drawShadowInsideBounds) {
+      cornerColors[0] = 0;
+      cornerColors[1] = shadowEndColor;
+      cornerColors[2] = shadowMiddleColor;
+      cornerColors[3] = shadowStartColor;
+    } else {
+      cornerColors[0] = 0;
+      cornerColors[1] = shadowStartColor;
+      cornerColors[2] = shadowMiddleColor;
+      cornerColors[3] = shadowEndColor;
+    }
+    float roundedStartRatio = (float) ratioStep / CORNER_RATIO_STEPS;
+    float midRatio = roundedStartRatio + ((1f - roundedStartRatio) / 2f);
+    cornerPositions[1] = roundedStartRatio;
+    cornerPositions[2] = midRatio;
+    Shader shader = new RadialGradient(0, 0, 1, cornerColors, cornerPositions, TileMode.CLAMP);
+    shaderCount++;
+
+    cornerShaderKeys[leastRecentlyUsed] = key;
+    cornerShaders[leastRecentlyUsed] = shader;
+    cornerShaderLastUses[leastRecentlyUsed] = ++cornerShaderUses;
+    return shader;
+  }
+
+  /** Returns the number of gradient shaders this renderer has created. */
+  @VisibleForTesting
+  int getShaderCount() {
+    return shaderCount;
+  }
+
   @NonNull
   public Paint getShadowPaint() {
     return shadowPaint;
@@ -45,6 +45,11 @@ public final class AdjustedCornerSize implements CornerSize {
     this.adjustment = adjustment;
   }
 
+  @NonNull
+  CornerSize getOther() {
+    return other;
+  }
+
   @Override
   public float getCornerSize(@NonNull RectF bounds) {
     return Math.max(0, other.getCornerSize(bounds) + adjustment);
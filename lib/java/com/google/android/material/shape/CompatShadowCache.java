@@ -0,0 +1,413 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.shape;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.LruCache;
+import com.google.android.material.shadow.ShadowRenderer;
+import com.google.android.material.shape.ShapeAppearancePathProvider.PathListener;
+import com.google.android.material.shape.ShapePath.ShadowCompatOperation;
+import java.util.Arrays;
+
+/**
+ * A process-wide cache of rendered compatibility shadows, shared by every {@link
+ * MaterialShapeDrawable} with the same corners and shadow.
+ *
+ * <p>Only shapes with straight edges and rounded, cut or square corners are cached. Their shadows
+ * only vary along the edges between the corners, so each shadow is rendered once for the smallest
+ * such shape, and drawn in nine slices at any larger size: the corners as they are, and the edges
+ * and center stretched.
+ */
+final class CompatShadowCache {
+
+  /** The maximum number of bytes of shadow bitmaps kept in the cache. */
+  private static final int MAX_CACHE_BYTES = 512 * 1024;
+
+  /** The number of columns and rows the edges and center of the shadow are stretched from. */
+  private static final int STRETCHED_SIZE = 3;
+
+  private static final LruCache<Key, Bitmap> cache =
+      new LruCache<Key, Bitmap>(MAX_CACHE_BYTES) {
+        @Override
+        protected int sizeOf(@NonNull Key key, @NonNull Bitmap bitmap) {
+          return bitmap.getRowBytes() * bitmap.getHeight();
+        }
+      };
+
+  private CompatShadowCache() {}
+
+  /**
+   * Returns the key of the shadow of a shape, or null if the shadow of the shape can't be cached.
+   *
+   * @param previousKey The key previously returned for the same drawable, which is returned again
+   *     rather than creating a new key if the shadow hasn't changed.
+   * @param shapeAppearanceModel The shape casting the shadow.
+   * @param interpolation The interpolation of the shape.
+   * @param bounds The bounds of the shape.
+   * @param shadowRadius The radius of the shadow.
+   * @param shadowOffsetX The horizontal offset of the shadow from the shape.
+   * @param shadowOffsetY The vertical offset of the shadow from the shape.
+   * @param fillsCenter Whether the shadow is also drawn under the shape.
+   * @param shadowColor The color of the shadow paint of the {@link ShadowRenderer}.
+   */
+  @Nullable
+  static Key createKey(
+      @Nullable Key previousKey,
+      @NonNull ShapeAppearanceModel shapeAppearanceModel,
+      float interpolation,
+      @NonNull RectF bounds,
+      int shadowRadius,
+      int shadowOffsetX,
+      int shadowOffsetY,
+      boolean fillsCenter,
+      int shadowColor) {
+    if (!shapeAppearanceModel.hasDefaultEdges()) {
+      return null;
+    }
+    boolean matchesPreviousKey =
+        previousKey != null
+            && previousKey.shadowRadius == shadowRadius
+            && previousKey.shadowOffsetX == shadowOffsetX
+            && previousKey.shadowOffsetY == shadowOffsetY
+            && previousKey.fillsCenter == fillsCenter
+            && previousKey.shadowColor == shadowColor;
+    for (int i = 0; i < 4; i++) {
+      Class<?> cornerClass = getCorner(shapeAppearanceModel, i).getClass();
+      if (cornerClass != RoundedCornerTreatment.class
+          && cornerClass != CutCornerTreatment.class
+          && cornerClass != CornerTreatment.class) {
+        return null;
+      }
+      float cornerSize =
+          getCornerSize(shapeAppearanceModel, i).getCornerSize(bounds) * interpolation;
+      if (!(cornerSize >= 0)) {
+        return null;
+      }
+      matchesPreviousKey =
+          matchesPreviousKey
+              && previousKey.cornerClasses[i] == cornerClass
+              && previousKey.cornerSizes[i] == cornerSize;
+    }
+    if (matchesPreviousKey) {
+      return previousKey;
+    }
+
+    Class<?>[] cornerClasses = new Class<?>[4];
+    float[] resolvedCornerSizes = new float[4];
+    for (int i = 0; i < 4; i++) {
+      cornerClasses[i] = getCorner(shapeAppearanceModel, i).getClass();
+      resolvedCornerSizes[i] =
+          getCornerSize(shapeAppearanceModel, i).getCornerSize(bounds) * interpolation;
+    }
+    return new Key(
+        cornerClasses,
+        resolvedCornerSizes,
+        shadowRadius,
+        shadowOffsetX,
+        shadowOffsetY,
+        fillsCenter,
+        shadowColor);
+  }
+
+  /**
+   * Draws the shadow of a shape from the cache, rendering it first if it isn't cached yet. The
+   * canvas is expected to be translated by the offset of the shadow.
+   *
+   * @param key The key of the shadow.
+   * @param canvas The canvas to draw the shadow on.
+   * @param bounds The bounds of the shape.
+   * @param shadowRenderer The renderer to render the shadow with, if it isn't cached.
+   * @param pathProvider The provider to calculate the shadow with, if it isn't cached.
+   * @param scratchSrc A rect to reuse for the slices of the cached shadow.
+   * @param scratchDst A rect to reuse for the slices of the drawn shadow.
+   * @return Whether the shadow was drawn. It isn't if the corners of the shape overlap.
+   */
+  static boolean draw(
+      @NonNull Key key,
+      @NonNull Canvas canvas,
+      @NonNull Rect bounds,
+      @NonNull ShadowRenderer shadowRenderer,
+      @NonNull ShapeAppearancePathProvider pathProvider,
+      @NonNull Rect scratchSrc,
+      @NonNull Rect scratchDst) {
+    int left = key.getInsetLeft();
+    int top = key.getInsetTop();
+    int right = key.getInsetRight();
+    int bottom = key.getInsetBottom();
+    int shadowWidth = bounds.width() + key.shadowRadius * 2;
+    int shadowHeight = bounds.height() + key.shadowRadius * 2;
+    if (shadowWidth < left + right || shadowHeight < top + bottom) {
+      return false;
+    }
+
+    Bitmap bitmap = cache.get(key);
+    if (bitmap == null) {
+      bitmap = render(key, shadowRenderer, pathProvider);
+      cache.put(key, bitmap);
+    }
+
+    int bitmapWidth = bitmap.getWidth();
+    int bitmapHeight = bitmap.getHeight();
+    for (int row = 0; row < 3; row++) {
+      for (int column = 0; column < 3; column++) {
+        scratchDst.set(
+            getSliceEdge(column, left, right, shadowWidth),
+            getSliceEdge(row, top, bottom, shadowHeight),
+            getSliceEdge(column + 1, left, right, shadowWidth),
+            getSliceEdge(row + 1, top, bottom, shadowHeight));
+        if (scratchDst.isEmpty()) {
+          continue;
+        }
+        scratchSrc.set(
+            getSliceEdge(column, left, right, bitmapWidth),
+            getSliceEdge(row, top, bottom, bitmapHeight),
+            getSliceEdge(column + 1, left, right, bitmapWidth),
+            getSliceEdge(row + 1, top, bottom, bitmapHeight));
+        scratchDst.offset(bounds.left - key.shadowRadius, bounds.top - key.shadowRadius);
+        canvas.drawBitmap(bitmap, scratchSrc, scratchDst, null);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the position of an edge between the nine slices of a shadow, from the start of the
+   * shadow to its end.
+   */
+  private static int getSliceEdge(int index, int startInset, int endInset, int size) {
+    switch (index) {
+      case 0:
+        return 0;
+      case 1:
+        return startInset;
+      case 2:
+        return size - endInset;
+      case 3:
+      default:
+        return size;
+    }
+  }
+
+  /** Returns the top left, top right, bottom right or bottom left corner of the shape. */
+  @NonNull
+  private static CornerTreatment getCorner(@NonNull ShapeAppearanceModel model, int index) {
+    switch (index) {
+      case 0:
+        return model.getTopLeftCorner();
+      case 1:
+        return model.getTopRightCorner();
+      case 2:
+        return model.getBottomRightCorner();
+      case 3:
+      default:
+        return model.getBottomLeftCorner();
+    }
+  }
+
+  /** Returns the size of the top left, top right, bottom right or bottom left corner. */
+  @NonNull
+  private static CornerSize getCornerSize(@NonNull ShapeAppearanceModel model, int index) {
+    switch (index) {
+      case 0:
+        return model.getTopLeftCornerSize();
+      case 1:
+        return model.getTopRightCornerSize();
+      case 2:
+        return model.getBottomRightCornerSize();
+      case 3:
+      default:
+        return model.getBottomLeftCornerSize();
+    }
+  }
+
+  static int getHitCount() {
+    return cache.hitCount();
+  }
+
+  static int getMissCount() {
+    return cache.missCount();
+  }
+
+  static void clear() {
+    cache.evictAll();
+  }
+
+  /** Renders the shadow of the smallest shape with the corners of the key. */
+  @NonNull
+  private static Bitmap render(
+      @NonNull Key key,
+      @NonNull ShadowRenderer shadowRenderer,
+      @NonNull ShapeAppearancePathProvider pathProvider) {
+    int bitmapWidth = key.getInsetLeft() + STRETCHED_SIZE + key.getInsetRight();
+    int bitmapHeight = key.getInsetTop() + STRETCHED_SIZE + key.getInsetBottom();
+    RectF bounds =
+        new RectF(0, 0, bitmapWidth - key.shadowRadius * 2, bitmapHeight - key.shadowRadius * 2);
+    ShapeAppearanceModel.Builder builder = ShapeAppearanceModel.builder();
+    for (int i = 0; i < 4; i++) {
+      CornerTreatment corner =
+          key.cornerClasses[i] == RoundedCornerTreatment.class
+              ? new RoundedCornerTreatment()
+              : key.cornerClasses[i] == CutCornerTreatment.class
+                  ? new CutCornerTreatment()
+                  : new CornerTreatment();
+      CornerSize size = new AbsoluteCornerSize(key.cornerSizes[i]);
+      switch (i) {
+        case 0:
+          builder.setTopLeftCorner(corner).setTopLeftCornerSize(size);
+          break;
+        case 1:
+          builder.setTopRightCorner(corner).setTopRightCornerSize(size);
+          break;
+        case 2:
+          builder.setBottomRightCorner(corner).setBottomRightCornerSize(size);
+          break;
+        case 3:
+        default:
+          builder.setBottomLeftCorner(corner).setBottomLeftCornerSize(size);
+          break;
+      }
+    }
+
+    final ShadowCompatOperation[] operations = new ShadowCompatOperation[8];
+    Path path = new Path();
+    pathProvider.calculatePath(
+        builder.build(),
+        1f,
+        bounds,
+        new PathListener() {
+          @Override
+          public void onCornerPathCreated(
+              @NonNull ShapePath cornerPath, Matrix transform, int count) {
+            operations[count] = cornerPath.createShadowCompatOperation(transform);
+          }
+
+          @Override
+          public void onEdgePathCreated(@NonNull ShapePath edgePath, Matrix transform, int count) {
+            operations[count + 4] = edgePath.createShadowCompatOperation(transform);
+          }
+        },
+        path);
+
+    // Mirrors MaterialShapeDrawable#drawCompatShadow, with the shape offset by the shadow radius.
+    Bitmap bitmap = Bitmap.createBitmap(bitmapWidth, bitmapHeight, Bitmap.Config.ARGB_8888);
+    Canvas canvas = new Canvas(bitmap);
+    canvas.translate(key.shadowRadius, key.shadowRadius);
+    if (key.fillsCenter) {
+      canvas.drawPath(path, shadowRenderer.getShadowPaint());
+    }
+    for (ShadowCompatOperation operation : operations) {
+      operation.draw(shadowRenderer, key.shadowRadius, canvas);
+    }
+    canvas.translate(-key.shadowOffsetX, -key.shadowOffsetY);
+    canvas.drawPath(path, MaterialShapeDrawable.clearPaint);
+    return bitmap;
+  }
+
+  /** The key of a cached shadow. */
+  static final class Key {
+
+    @NonNull private final Class<?>[] cornerClasses;
+    // Top left, top right, bottom right and bottom left.
+    @NonNull private final float[] cornerSizes;
+    private final int shadowRadius;
+    private final int shadowOffsetX;
+    private final int shadowOffsetY;
+    private final boolean fillsCenter;
+    private final int shadowColor;
+    private final int hashCode;
+
+    private Key(
+        @NonNull Class<?>[] cornerClasses,
+        @NonNull float[] cornerSizes,
+        int shadowRadius,
+        int shadowOffsetX,
+        int shadowOffsetY,
+        boolean fillsCenter,
+        int shadowColor) {
+      this.cornerClasses = cornerClasses;
+      this.cornerSizes = cornerSizes;
+      this.shadowRadius = shadowRadius;
+      this.shadowOffsetX = shadowOffsetX;
+      this.shadowOffsetY = shadowOffsetY;
+      this.fillsCenter = fillsCenter;
+      this.shadowColor = shadowColor;
+      Object[] hashedFields = {
+        Arrays.hashCode(cornerClasses),
+        Arrays.hashCode(cornerSizes),
+        shadowRadius,
+        shadowOffsetX,
+        shadowOffsetY,
+        fillsCenter,
+        shadowColor
+      };
+      hashCode = Arrays.hashCode(hashedFields);
+    }
+
+    // The shadow of a corner spans the corner and the shadow radius, and the part of the shape
+    // cleared from the shadow is moved against the offset of the shadow.
+
+    private int getInsetLeft() {
+      return getInset(Math.max(cornerSizes[0], cornerSizes[3]), -shadowOffsetX);
+    }
+
+    private int getInsetTop() {
+      return getInset(Math.max(cornerSizes[0], cornerSizes[1]), -shadowOffsetY);
+    }
+
+    private int getInsetRight() {
+      return getInset(Math.max(cornerSizes[1], cornerSizes[2]), shadowOffsetX);
+    }
+
+    private int getInsetBottom() {
+      return getInset(Math.max(cornerSizes[2], cornerSizes[3]), shadowOffsetY);
+    }
+
+    private int getInset(float cornerSize, int offset) {
+      return (int) Math.ceil(shadowRadius + cornerSize + Math.max(0, offset));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return shadowRadius == that.shadowRadius
+          && shadowOffsetX == that.shadowOffsetX
+          && shadowOffsetY == that.shadowOffsetY
+          && fillsCenter == that.fillsCenter
+          && shadowColor == that.shadowColor
+          && Arrays.equals(cornerClasses, that.cornerClasses)
+          && Arrays.equals(cornerSizes, that.cornerSizes);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
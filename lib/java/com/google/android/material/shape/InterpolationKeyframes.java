@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.shape;
+
+import android.graphics.Path;
+import android.graphics.PathMeasure;
+import android.graphics.RectF;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * Approximates the paths of a shape at interpolations between 0 and 1 by blending a few keyframe
+ * paths calculated for one size of the shape.
+ *
+ * <p>Keyframes are sampled as the same number of points evenly spaced along the outline of the
+ * shape, so that the points of two keyframes can be blended one by one. Keyframes are added
+ * between two others until the blend halfway between them is within the tolerance of the exact
+ * path. Shapes that need more keyframes than that, or that have more than one outline, aren't
+ * blended.
+ */
+final class InterpolationKeyframes {
+
+  // Keyframes are at most an eighth of the interpolation apart, so there are at most 9 of them.
+  private static final int MAX_DEPTH = 3;
+  private static final int MAX_KEYFRAMES = (1 << MAX_DEPTH) + 1;
+
+  private static final int MIN_POINT_COUNT = 16;
+  private static final int MAX_POINT_COUNT = 512;
+
+  // The inputs the keyframes were calculated for.
+  @Nullable private ShapeAppearanceModel shapeAppearanceModel;
+  private final RectF bounds = new RectF();
+  private float tolerance;
+
+  private final float[] keyframeInterpolations = new float[MAX_KEYFRAMES];
+  private final float[][] keyframePoints = new float[MAX_KEYFRAMES][];
+  private int keyframeCount;
+  private int pointCount;
+
+  private final Path scratchPath = new Path();
+  private final PathMeasure pathMeasure = new PathMeasure();
+  private final float[] position = new float[2];
+
+  /**
+   * Writes the blended path of a shape to {@code path}, calculating the keyframes first if the
+   * shape, its bounds or the tolerance changed. Returns false if the path can't be blended, and
+   * needs to be calculated.
+   *
+   * @param tolerance The maximum distance between the points of a blended path and of the exact
+   *     path, in pixels.
+   */
+  boolean getPath(
+      @NonNull ShapeAppearancePathProvider pathProvider,
+      @NonNull ShapeAppearanceModel shapeAppearanceModel,
+      float interpolation,
+      @NonNull RectF bounds,
+      float tolerance,
+      @NonNull Path path) {
+    // The path is exact at either end of the interpolation, so keep calculating it there.
+    if (interpolation <= 0 || interpolation >= 1) {
+      return false;
+    }
+    if (this.shapeAppearanceModel != shapeAppearanceModel
+        || !this.bounds.equals(bounds)
+        || this.tolerance != tolerance) {
+      this.shapeAppearanceModel = shapeAppearanceModel;
+      this.bounds.set(bounds);
+      this.tolerance = tolerance;
+      calculateKeyframes(pathProvider);
+    }
+    if (keyframeCount == 0) {
+      return false;
+    }
+
+    int index = 1;
+    while (keyframeInterpolations[index] < interpolation) {
+      index++;
+    }
+    float start = keyframeInterpolations[index - 1];
+    float fraction = (interpolation - start) / (keyframeInterpolations[index] - start);
+    float[] startPoints = keyframePoints[index - 1];
+    float[] endPoints = keyframePoints[index];
+
+    path.rewind();
+    for (int i = 0; i < pointCount * 2; i += 2) {
+      float x = startPoints[i] + fraction * (endPoints[i] - startPoints[i]);
+      float y = startPoints[i + 1] + fraction * (endPoints[i + 1] - startPoints[i + 1]);
+      if (i == 0) {
+        path.moveTo(x, y);
+      } else {
+        path.lineTo(x, y);
+      }
+    }
+    path.close();
+    return true;
+  }
+
+  /** Drops the keyframes, so that they're calculated again for the next path. */
+  void clear() {
+    shapeAppearanceModel = null;
+    keyframeCount = 0;
+    Arrays.fill(keyframePoints, null);
+  }
+
+  int getKeyframeCount() {
+    return keyframeCount;
+  }
+
+  private void calculateKeyframes(@NonNull ShapeAppearancePathProvider pathProvider) {
+    keyframeCount = 0;
+    float startLength = calculatePath(pathProvider, 0);
+    float endLength = calculatePath(pathProvider, 1);
+    if (startLength <= 0 || endLength <= 0) {
+      return;
+    }
+    // Points a few times the tolerance apart keep the outline within the tolerance of the curves
+    // of corners at least twice the tolerance in size.
+    float spacing = Math.max(4 * tolerance, 1);
+    pointCount =
+        Math.min(
+            Math.max((int) Math.ceil(Math.max(startLength, endLength) / spacing), MIN_POINT_COUNT),
+            MAX_POINT_COUNT);
+
+    float[] startPoints = samplePath(pathProvider, 0);
+    float[] endPoints = samplePath(pathProvider, 1);
+    if (startPoints == null || endPoints == null) {
+      return;
+    }
+    addKeyframe(0, startPoints);
+    if (!addKeyframes(pathProvider, 0, startPoints, 1, endPoints, 0)) {
+      keyframeCount = 0;
+    }
+  }
+
+  /**
+   * Adds the keyframes after {@code start}, up to and including {@code end}, or returns false if
+   * the paths in between can't be blended within the tolerance.
+   */
+  private boolean addKeyframes(
+      @NonNull ShapeAppearancePathProvider pathProvider,
+      float start,
+      @NonNull float[] startPoints,
+      float end,
+      @NonNull float[] endPoints,
+      int depth) {
+    float middle = (start + end) / 2;
+    float[] middlePoints = samplePath(pathProvider, middle);
+    if (middlePoints == null) {
+      return false;
+    }
+    if (isHalfwayBlendWithinTolerance(startPoints, endPoints, middlePoints)) {
+      addKeyframe(end, endPoints);
+      return true;
+    }
+    return depth < MAX_DEPTH
+        && addKeyframes(pathProvider, start, startPoints, middle, middlePoints, depth + 1)
+        && addKeyframes(pathProvider, middle, middlePoints, end, endPoints, depth + 1);
+  }
+
+  private boolean isHalfwayBlendWithinTolerance(
+      @NonNull float[] startPoints, @NonNull float[] endPoints, @NonNull float[] middlePoints) {
+    float maxDistanceSquared = tolerance * tolerance;
+    for (int i = 0; i < pointCount * 2; i += 2) {
+      float dx = (startPoints[i] + endPoints[i]) / 2 - middlePoints[i];
+      float dy = (startPoints[i + 1] + endPoints[i + 1]) / 2 - middlePoints[i + 1];
+      if (dx * dx + dy * dy > maxDistanceSquared) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void addKeyframe(float interpolation, @NonNull float[] points) {
+    keyframeInterpolations[keyframeCount] = interpolation;
+    keyframePoints[keyframeCount] = points;
+    keyframeCount++;
+  }
+
+  /** Calculates the exact path at {@code interpolation}, and returns the length of its outline. */
+  private float calculatePath(
+      @NonNull ShapeAppearancePathProvider pathProvider, float interpolation) {
+    pathProvider.calculatePath(shapeAppearanceModel, interpolation, bounds, scratchPath);
+    pathMeasure.setPath(scratchPath, /* forceClosed= */ true);
+    return pathMeasure.getLength();
+  }
+
+  /**
+   * Returns the points evenly spaced along the exact path at {@code interpolation}, or null if the
+   * path has more than one outline.
+   */
+  @Nullable
+  private float[] samplePath(
+      @NonNull ShapeAppearancePathProvider pathProvider, float interpolation) {
+    float length = calculatePath(pathProvider, interpolation);
+    float[] points = new float[pointCount * 2];
+    for (int i = 0; i < pointCount; i++) {
+      pathMeasure.getPosTan(length * i / pointCount, position, null);
+      points[i * 2] = position[0];
+      points[i * 2 + 1] = position[1];
+    }
+    return pathMeasure.nextContour() ? null : points;
+  }
+}
@@ -56,6 +56,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 import androidx.annotation.StyleRes;
+import androidx.collection.LruCache;
 import androidx.core.graphics.drawable.TintAwareDrawable;
 import androidx.core.util.ObjectsCompat;
 import com.google.android.material.color.MaterialColors;
@@ -106,19 +107,32 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
   @Retention(RetentionPolicy.SOURCE)
   public @interface CompatibilityShadowMode {}
 
-  private static final Paint clearPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+  static final Paint clearPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
   static {
     clearPaint.setColor(Color.WHITE);
     clearPaint.setXfermode(new PorterDuffXfermode(Mode.DST_OUT));
   }
 
+  private static volatile boolean compatShadowCacheEnabled = false;
+
+  /** The maximum number of states kept for {@link #createWithSharedState}. */
+  private static final int MAX_SHARED_STATES = 16;
+
+  private static final LruCache<SharedStateKey, ConstantState> sharedStates =
+      new LruCache<>(MAX_SHARED_STATES);
+
   private MaterialShapeDrawableState drawableState;
+  // Whether drawableState may be shared with other drawables, and has to be copied before it's
+  // changed.
+  private boolean drawableStateShared;
 
   // Inter-method state.
   private final ShadowCompatOperation[] cornerShadowOperation = new ShadowCompatOperation[4];
   private final ShadowCompatOperation[] edgeShadowOperation = new ShadowCompatOperation[4];
   private final BitSet containsIncompatibleShadowOp = new BitSet(8);
   private boolean pathDirty;
+  // Whether the shadow operations weren't recorded for the current path.
+  private boolean shadowOperationsDirty = true;
 
   // Pre-allocated objects that are re-used several times during path computation and rendering.
   private final Matrix matrix = new Matrix();
@@ -128,7 +142,16 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
   private final RectF insetRectF = new RectF();
   private final Region transparentRegion = new Region();
   private final Region scratchRegion = new Region();
+  // The transparent region of the current path, which is copied to transparentRegion when it's
+  // returned so that callers can't change it.
+  private final Region cachedTransparentRegion = new Region();
+  private boolean transparentRegionDirty = true;
   private ShapeAppearanceModel strokeShapeAppearance;
+  // The shape and stroke inset strokeShapeAppearance was calculated for.
+  @Nullable private ShapeAppearanceModel strokeShapeAppearanceSource;
+  private float strokeShapeAppearanceInset;
+  @Nullable private InterpolationKeyframes interpolationKeyframes;
+  @Nullable private InterpolationKeyframes strokeInterpolationKeyframes;
 
   private final Paint fillPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
   private final Paint strokePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
@@ -148,6 +171,11 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
   private int resolvedTintColor;
 
   @NonNull private final RectF pathBounds = new RectF();
+  // The key of the last shadow drawn from the compatibility shadow cache, and the rects to draw its
+  // slices with.
+  @Nullable private CompatShadowCache.Key compatShadowCacheKey;
+  private final Rect compatShadowSrcRect = new Rect();
+  private final Rect compatShadowDstRect = new Rect();
 
   private boolean shadowBitmapDrawingEnable = true;
 
@@ -182,6 +210,75 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
     return materialShapeDrawable;
   }
 
+  /**
+   * Returns a {@code MaterialShapeDrawable} of the shape with a tint of {@code tintColor} and a
+   * stroke, which starts out sharing its state with every other drawable created by this method
+   * with the same arguments, until it's changed. Components create drawables that usually stay as
+   * they were created through this, for example ripple masks.
+   *
+   * <p>Only drawables of interned shapes share their state, see {@link
+   * ShapeAppearanceModel#intern()}.
+   *
+   * @hide
+   */
+  @RestrictTo(LIBRARY_GROUP)
+  @NonNull
+  public static MaterialShapeDrawable createWithSharedState(
+      @NonNull ShapeAppearanceModel shapeAppearanceModel,
+      @ColorInt int tintColor,
+      float strokeWidth,
+      @ColorInt int strokeColor) {
+    if (!shapeAppearanceModel.isInterned()) {
+      return create(shapeAppearanceModel, tintColor, strokeWidth, strokeColor);
+    }
+    SharedStateKey key =
+        new SharedStateKey(shapeAppearanceModel, tintColor, strokeWidth, strokeColor);
+    ConstantState sharedState = sharedStates.get(key);
+    if (sharedState == null) {
+      sharedState =
+          create(shapeAppearanceModel, tintColor, strokeWidth, strokeColor).getConstantState();
+      sharedStates.put(key, sharedState);
+    }
+    return (MaterialShapeDrawable) sharedState.newDrawable();
+  }
+
+  @NonNull
+  private static MaterialShapeDrawable create(
+      @NonNull ShapeAppearanceModel shapeAppearanceModel,
+      @ColorInt int tintColor,
+      float strokeWidth,
+      @ColorInt int strokeColor) {
+    MaterialShapeDrawable materialShapeDrawable = new MaterialShapeDrawable(shapeAppearanceModel);
+    materialShapeDrawable.setTint(tintColor);
+    materialShapeDrawable.setStroke(strokeWidth, strokeColor);
+    return materialShapeDrawable;
+  }
+
+  /**
+   * Sets whether compatibility shadows drawn into a bitmap are shared through a process-wide cache,
+   * limited to 512 KB of bitmaps. Disabled by default.
+   *
+   * <p>When enabled, the shadow of a shape with straight edges and rounded, cut or square corners
+   * is rendered once for the smallest such shape, and stretched between its corners to the size of
+   * each drawable with the same corners, elevation and shadow color.
+   */
+  public static void setCompatShadowCacheEnabled(boolean enabled) {
+    compatShadowCacheEnabled = enabled;
+    if (!enabled) {
+      CompatShadowCache.clear();
+    }
+  }
+
+  /** Returns the number of compatibility shadows that have been drawn from the shadow cache. */
+  public static int getCompatShadowCacheHitCount() {
+    return CompatShadowCache.getHitCount();
+  }
+
+  /** Returns the number of compatibility shadows that had to be rendered into the shadow cache. */
+  public static int getCompatShadowCacheMissCount() {
+    return CompatShadowCache.getMissCount();
+  }
+
   public MaterialShapeDrawable() {
     this(new ShapeAppearanceModel());
   }
@@ -191,7 +288,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
       @Nullable AttributeSet attrs,
       @AttrRes int defStyleAttr,
       @StyleRes int defStyleRes) {
-    this(ShapeAppearanceModel.builder(context, attrs, defStyleAttr, defStyleRes).build());
+    this(ShapeAppearanceModel.builder(context, attrs, defStyleAttr, defStyleRes).build().intern());
   }
 
   @Deprecated
@@ -208,7 +305,13 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
   }
 
   private MaterialShapeDrawable(@NonNull MaterialShapeDrawableState drawableState) {
+    this(drawableState, /* drawableStateShared= */ false);
+  }
+
+  private MaterialShapeDrawable(
+      @NonNull MaterialShapeDrawableState drawableState, boolean drawableStateShared) {
     this.drawableState = drawableState;
+    this.drawableStateShared = drawableStateShared;
     strokePaint.setStyle(Style.STROKE);
     fillPaint.setStyle(Style.FILL);
     updateTintFilter();
@@ -234,17 +337,29 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
   @Nullable
   @Override
   public ConstantState getConstantState() {
+    // Drawables created from the state share it until they change it, and so does this one.
+    drawableStateShared = true;
     return drawableState;
   }
 
   @NonNull
   @Override
   public Drawable mutate() {
-    MaterialShapeDrawableState newDrawableState = new MaterialShapeDrawableState(drawableState);
-    drawableState = newDrawableState;
+    // A state that isn't shared already belongs to this drawable alone.
+    getMutableDrawableState();
     return this;
   }
 
+  /** Returns the state of this drawable to change, after copying it if it's shared. */
+  @NonNull
+  private MaterialShapeDrawableState getMutableDrawableState() {
+    if (drawableStateShared) {
+      drawableState = new MaterialShapeDrawableState(drawableState);
+      drawableStateShared = false;
+    }
+    return drawableState;
+  }
+
   private static int modulateAlpha(int paintAlpha, int alpha) {
     int scale = alpha + (alpha >>> 7); // convert to 0..256
     return (paintAlpha * scale) >>> 8;
@@ -258,7 +373,8 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
    */
   @Override
   public void setShapeAppearanceModel(@NonNull ShapeAppearanceModel shapeAppearanceModel) {
-    drawableState.shapeAppearanceModel = shapeAppearanceModel;
+    getMutableDrawableState().shapeAppearanceModel = shapeAppearanceModel;
+    clearShapeCaches();
     invalidateSelf();
   }
 
@@ -305,7 +421,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
    */
   public void setFillColor(@Nullable ColorStateList fillColor) {
     if (drawableState.fillColor != fillColor) {
-      drawableState.fillColor = fillColor;
+      getMutableDrawableState().fillColor = fillColor;
       onStateChange(getState());
     }
   }
@@ -327,7 +443,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
    */
   public void setStrokeColor(@Nullable ColorStateList strokeColor) {
     if (drawableState.strokeColor != strokeColor) {
-      drawableState.strokeColor = strokeColor;
+      getMutableDrawableState().strokeColor = strokeColor;
       onStateChange(getState());
     }
   }
@@ -345,7 +461,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
   @Override
   public void setTintMode(@Nullable PorterDuff.Mode tintMode) {
     if (drawableState.tintMode != tintMode) {
-      drawableState.tintMode = tintMode;
+      getMutableDrawableState().tintMode = tintMode;
       updateTintFilter();
       invalidateSelfIgnoreShape();
     }
@@ -353,7 +469,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
 
   @Override
   public void setTintList(@Nullable ColorStateList tintList) {
-    drawableState.tintList = tintList;
+    getMutableDrawableState().tintList = tintList;
     updateTintFilter();
     invalidateSelfIgnoreShape();
   }
@@ -385,7 +501,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
    * @param tintList the {@link ColorStateList} for the shape's stroke.
    */
   public void setStrokeTint(ColorStateList tintList) {
-    drawableState.strokeTintList = tintList;
+    getMutableDrawableState().strokeTintList = tintList;
     updateTintFilter();
     invalidateSelfIgnoreShape();
   }
@@ -436,7 +552,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
    * @param strokeWidth desired stroke width.
    */
   public void setStrokeWidth(float strokeWidth) {
-    drawableState.strokeWidth = strokeWidth;
+    getMutableDrawableState().strokeWidth = strokeWidth;
     invalidateSelf();
   }
 
@@ -463,24 +579,28 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
   @Override
   public void setAlpha(@IntRange(from = 0, to = 255) int alpha) {
     if (drawableState.alpha != alpha) {
-      drawableState.alpha = alpha;
+      getMutableDrawableState().alpha = alpha;
       invalidateSelfIgnoreShape();
     }
   }
 
   @Override
   public void setColorFilter(@Nullable ColorFilter colorFilter) {
-    drawableState.colorFilter = colorFilter;
+    getMutableDrawableState().colorFilter = colorFilter;
     invalidateSelfIgnoreShape();
   }
 
   @Override
   public Region getTransparentRegion() {
-    Rect bounds = getBounds();
-    transparentRegion.set(bounds);
-    calculatePath(getBoundsAsRectF(), path);
-    scratchRegion.setPath(path, transparentRegion);
-    transparentRegion.op(scratchRegion, Op.DIFFERENCE);
+    if (transparentRegionDirty) {
+      Rect bounds = getBounds();
+      cachedTransparentRegion.set(bounds);
+      calculatePath(getBoundsAsRectF(), path);
+      scratchRegion.setPath(path, cachedTransparentRegion);
+      cachedTransparentRegion.op(scratchRegion, Op.DIFFERENCE);
+      transparentRegionDirty = false;
+    }
+    transparentRegion.set(cachedTransparentRegion);
     return transparentRegion;
   }
 
@@ -510,7 +630,24 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
    * @return true iff the point is contained in the transparent region of the Drawable.
    */
   public boolean isPointInTransparentRegion(int x, int y) {
-    return getTransparentRegion().contains(x, y);
+    if (drawableState.scale == 1f && getBounds().contains(x, y)) {
+      // Shapes with straight edges and rounded or cut corners are tested without rasterizing their
+      // path. Like in the region, pixels are inside the shape if their center is.
+      int containment =
+          pathProvider.containsPoint(
+              drawableState.shapeAppearanceModel,
+              drawableState.interpolation,
+              getBoundsAsRectF(),
+              x + 0.5f,
+              y + 0.5f);
+      if (containment != ShapeAppearancePathProvider.CONTAINS_UNKNOWN) {
+        return containment == ShapeAppearancePathProvider.CONTAINS_OUTSIDE;
+      }
+    }
+    if (transparentRegionDirty) {
+      getTransparentRegion();
+    }
+    return cachedTransparentRegion.contains(x, y);
   }
 
   @CompatibilityShadowMode
@@ -538,10 +675,10 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
    */
   public void setPadding(int left, int top, int right, int bottom) {
     if (drawableState.padding == null) {
-      drawableState.padding = new Rect();
+      getMutableDrawableState().padding = new Rect();
     }
 
-    drawableState.padding.set(left, top, right, bottom);
+    getMutableDrawableState().padding.set(left, top, right, bottom);
     invalidateSelf();
   }
 
@@ -557,7 +694,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
    */
   public void setShadowCompatibilityMode(@CompatibilityShadowMode int mode) {
     if (drawableState.shadowCompatMode != mode) {
-      drawableState.shadowCompatMode = mode;
+      getMutableDrawableState().shadowCompatMode = mode;
       invalidateSelfIgnoreShape();
     }
   }
@@ -612,7 +749,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
    * when the overlay will be active.
    */
   public void initializeElevationOverlay(Context context) {
-    drawableState.elevationOverlayProvider = new ElevationOverlayProvider(context);
+    getMutableDrawableState().elevationOverlayProvider = new ElevationOverlayProvider(context);
     updateZ();
   }
 
@@ -645,12 +782,64 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
    */
   public void setInterpolation(float interpolation) {
     if (drawableState.interpolation != interpolation) {
-      drawableState.interpolation = interpolation;
+      getMutableDrawableState().interpolation = interpolation;
       pathDirty = true;
+      transparentRegionDirty = true;
       invalidateSelf();
     }
   }
 
+  /**
+   * Sets whether paths at interpolations between 0 and 1 are blended from a few keyframe paths
+   * calculated for the current bounds, rather than calculated for every interpolation. Disabled by
+   * default.
+   *
+   * <p>Blending makes animating the interpolation cheaper, at the cost of calculating the keyframes
+   * whenever the bounds or the shape change. Blended paths are within {@link
+   * #getInterpolationKeyframeTolerance()} of the exact paths. Shapes that can't be blended within
+   * the tolerance, and shapes drawn with a compatibility shadow, keep being calculated.
+   *
+   * @param enabled whether to blend the paths between keyframes.
+   */
+  public void setInterpolationKeyframesEnabled(boolean enabled) {
+    if (drawableState.interpolationKeyframesEnabled != enabled) {
+      getMutableDrawableState().interpolationKeyframesEnabled = enabled;
+      if (!enabled) {
+        interpolationKeyframes = null;
+        strokeInterpolationKeyframes = null;
+      }
+      pathDirty = true;
+      transparentRegionDirty = true;
+      invalidateSelf();
+    }
+  }
+
+  /** Returns whether paths are blended between keyframes. */
+  public boolean isInterpolationKeyframesEnabled() {
+    return drawableState.interpolationKeyframesEnabled;
+  }
+
+  /**
+   * Sets the maximum distance between blended paths and the exact paths, in pixels. Defaults to 1
+   * pixel.
+   *
+   * @param tolerance the maximum distance in pixels.
+   * @see #setInterpolationKeyframesEnabled(boolean)
+   */
+  public void setInterpolationKeyframeTolerance(float tolerance) {
+    if (drawableState.interpolationKeyframeTolerance != tolerance) {
+      getMutableDrawableState().interpolationKeyframeTolerance = tolerance;
+      pathDirty = true;
+      transparentRegionDirty = true;
+      invalidateSelf();
+    }
+  }
+
+  /** Returns the maximum distance between blended paths and the exact paths, in pixels. */
+  public float getInterpolationKeyframeTolerance() {
+    return drawableState.interpolationKeyframeTolerance;
+  }
+
   /** Returns the parent absolute elevation. */
   public float getParentAbsoluteElevation() {
     return drawableState.parentAbsoluteElevation;
@@ -659,7 +848,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
   /** Sets the parent absolute elevation, which is used to render elevation overlays. */
   public void setParentAbsoluteElevation(float parentAbsoluteElevation) {
     if (drawableState.parentAbsoluteElevation != parentAbsoluteElevation) {
-      drawableState.parentAbsoluteElevation = parentAbsoluteElevation;
+      getMutableDrawableState().parentAbsoluteElevation = parentAbsoluteElevation;
       updateZ();
     }
   }
@@ -680,7 +869,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
    */
   public void setElevation(float elevation) {
     if (drawableState.elevation != elevation) {
-      drawableState.elevation = elevation;
+      getMutableDrawableState().elevation = elevation;
       updateZ();
     }
   }
@@ -701,7 +890,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
    */
   public void setTranslationZ(float translationZ) {
     if (drawableState.translationZ != translationZ) {
-      drawableState.translationZ = translationZ;
+      getMutableDrawableState().translationZ = translationZ;
       updateZ();
     }
   }
@@ -726,8 +915,8 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
 
   private void updateZ() {
     float z = getZ();
-    drawableState.shadowCompatRadius = (int) Math.ceil(z * SHADOW_RADIUS_MULTIPLIER);
-    drawableState.shadowCompatOffset = (int) Math.ceil(z * SHADOW_OFFSET_MULTIPLIER);
+    getMutableDrawableState().shadowCompatRadius = (int) Math.ceil(z * SHADOW_RADIUS_MULTIPLIER);
+    getMutableDrawableState().shadowCompatOffset = (int) Math.ceil(z * SHADOW_OFFSET_MULTIPLIER);
     // Recalculate fillPaint tint filter based on z, elevationOverlayProvider, etc.
     updateTintFilter();
     invalidateSelfIgnoreShape();
@@ -787,7 +976,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
   @RestrictTo(LIBRARY_GROUP)
   public void setShadowVerticalOffset(int shadowOffset) {
     if (drawableState.shadowCompatOffset != shadowOffset) {
-      drawableState.shadowCompatOffset = shadowOffset;
+      getMutableDrawableState().shadowCompatOffset = shadowOffset;
       invalidateSelfIgnoreShape();
     }
   }
@@ -810,7 +999,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
    */
   public void setShadowCompatRotation(int shadowRotation) {
     if (drawableState.shadowCompatRotation != shadowRotation) {
-      drawableState.shadowCompatRotation = shadowRotation;
+      getMutableDrawableState().shadowCompatRotation = shadowRotation;
       invalidateSelfIgnoreShape();
     }
   }
@@ -832,7 +1021,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
    */
   @Deprecated
   public void setShadowRadius(int shadowRadius) {
-    drawableState.shadowCompatRadius = shadowRadius;
+    getMutableDrawableState().shadowCompatRadius = shadowRadius;
   }
 
   /**
@@ -860,7 +1049,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
    */
   public void setScale(float scale) {
     if (drawableState.scale != scale) {
-      drawableState.scale = scale;
+      getMutableDrawableState().scale = scale;
       invalidateSelf();
     }
   }
@@ -868,9 +1057,26 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
   @Override
   public void invalidateSelf() {
     pathDirty = true;
+    transparentRegionDirty = true;
+    // The deprecated ShapePathModel can be changed in place, so the shapes calculated from it are
+    // only known to be current until the drawable is invalidated.
+    if (drawableState.shapeAppearanceModel instanceof ShapePathModel) {
+      clearShapeCaches();
+    }
     super.invalidateSelf();
   }
 
+  /** Drops the shapes calculated from the shape appearance model. */
+  private void clearShapeCaches() {
+    strokeShapeAppearanceSource = null;
+    if (interpolationKeyframes != null) {
+      interpolationKeyframes.clear();
+    }
+    if (strokeInterpolationKeyframes != null) {
+      strokeInterpolationKeyframes.clear();
+    }
+  }
+
   /**
    * Invalidate without recalculating the path associated with this shape. This is useful if the
    * shape has stayed the same but we still need to be redrawn, such as when the color has changed.
@@ -888,7 +1094,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
    */
   public void setUseTintColorForShadow(boolean useTintColorForShadow) {
     if (drawableState.useTintColorForShadow != useTintColorForShadow) {
-      drawableState.useTintColorForShadow = useTintColorForShadow;
+      getMutableDrawableState().useTintColorForShadow = useTintColorForShadow;
       invalidateSelf();
     }
   }
@@ -904,7 +1110,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
    */
   public void setShadowColor(int shadowColor) {
     shadowRenderer.setShadowColor(shadowColor);
-    drawableState.useTintColorForShadow = false;
+    getMutableDrawableState().useTintColorForShadow = false;
     invalidateSelfIgnoreShape();
   }
 
@@ -923,7 +1129,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
    * @param paintStyle the desired style.
    */
   public void setPaintStyle(Style paintStyle) {
-    drawableState.paintStyle = paintStyle;
+    getMutableDrawableState().paintStyle = paintStyle;
     invalidateSelfIgnoreShape();
   }
 
@@ -934,6 +1140,17 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
         && (drawableState.shadowCompatMode == SHADOW_COMPAT_MODE_ALWAYS || requiresCompatShadow());
   }
 
+  /**
+   * Returns whether the shape may draw the compatibility shadow, without calculating the path to
+   * check whether it is required.
+   */
+  private boolean mayDrawCompatShadow() {
+    return drawableState.shadowCompatMode != SHADOW_COMPAT_MODE_NEVER
+        && drawableState.shadowCompatRadius > 0
+        && (drawableState.shadowCompatMode == SHADOW_COMPAT_MODE_ALWAYS
+            || Build.VERSION.SDK_INT < Build.VERSION_CODES.Q);
+  }
+
   /** Returns whether the shape has a fill. */
   private boolean hasFill() {
     return drawableState.paintStyle == Style.FILL_AND_STROKE
@@ -950,6 +1167,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
   @Override
   protected void onBoundsChange(Rect bounds) {
     pathDirty = true;
+    transparentRegionDirty = true;
     super.onBoundsChange(bounds);
   }
 
@@ -995,6 +1213,10 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
       canvas.restore();
       return;
     }
+    if (compatShadowCacheEnabled && drawCachedCompatShadow(canvas)) {
+      canvas.restore();
+      return;
+    }
 
     // The extra height is the amount that the path draws outside of the bounds of the shape. This
     // happens for some shapes like TriangleEdgeTreament when it draws a triangle outside.
@@ -1109,6 +1331,9 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
    * completely covered by the shape.
    */
   private void drawCompatShadow(@NonNull Canvas canvas) {
+    if (shadowOperationsDirty) {
+      calculatePath(getBoundsAsRectF(), path);
+    }
     if (containsIncompatibleShadowOp.cardinality() > 0) {
       Log.w(
           TAG,
@@ -1135,6 +1360,37 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
     }
   }
 
+  /**
+   * Draws the compatibility shadow from the process-wide shadow cache, or returns false if the
+   * shadow of this shape can't be cached.
+   */
+  private boolean drawCachedCompatShadow(@NonNull Canvas canvas) {
+    if (drawableState.scale != 1f) {
+      return false;
+    }
+    CompatShadowCache.Key key =
+        CompatShadowCache.createKey(
+            compatShadowCacheKey,
+            drawableState.shapeAppearanceModel,
+            drawableState.interpolation,
+            getBoundsAsRectF(),
+            drawableState.shadowCompatRadius,
+            getShadowOffsetX(),
+            getShadowOffsetY(),
+            drawableState.shadowCompatOffset != 0,
+            shadowRenderer.getShadowPaint().getColor());
+    compatShadowCacheKey = key;
+    return key != null
+        && CompatShadowCache.draw(
+            key,
+            canvas,
+            getBounds(),
+            shadowRenderer,
+            pathProvider,
+            compatShadowSrcRect,
+            compatShadowDstRect);
+  }
+
   /** Returns the X offset of the shadow from the bounds of the shape. */
   public int getShadowOffsetX() {
     return (int)
@@ -1162,12 +1418,17 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
    */
   @RestrictTo(LIBRARY_GROUP)
   protected final void calculatePathForSize(@NonNull RectF bounds, @NonNull Path path) {
+    // Paths calculated with a listener aren't cached or calculated directly from their corner
+    // sizes, so only record the shadow operations if the compatibility shadow may be drawn. They're
+    // recorded before drawing it otherwise.
+    boolean recordShadowOperations = mayDrawCompatShadow();
     pathProvider.calculatePath(
         drawableState.shapeAppearanceModel,
         drawableState.interpolation,
         bounds,
-        pathShadowListener,
+        recordShadowOperations ? pathShadowListener : null,
         path);
+    shadowOperationsDirty = !recordShadowOperations;
   }
 
   /** Calculates the path that can be used to draw the stroke entirely inside the shape */
@@ -1175,26 +1436,68 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
     // Adjust corner radius in order to draw the stroke so that the corners of the background are
     // drawn on top of the edges.
     final float strokeInsetLength = -getStrokeInsetLength();
-    strokeShapeAppearance =
-        getShapeAppearanceModel()
-            .withTransformedCornerSizes(
-                new CornerSizeUnaryOperator() {
-                  @NonNull
-                  @Override
-                  public CornerSize apply(@NonNull CornerSize cornerSize) {
-                    // Don't adjust for relative corners they will change by themselves when the
-                    // bounds change.
-                    return cornerSize instanceof RelativeCornerSize
-                        ? cornerSize
-                        : new AdjustedCornerSize(strokeInsetLength, cornerSize);
-                  }
-                });
+    if (strokeShapeAppearanceSource != getShapeAppearanceModel()
+        || strokeShapeAppearanceInset != strokeInsetLength) {
+      strokeShapeAppearanceSource = getShapeAppearanceModel();
+      strokeShapeAppearanceInset = strokeInsetLength;
+      strokeShapeAppearance =
+          getShapeAppearanceModel()
+              .withTransformedCornerSizes(
+                  new CornerSizeUnaryOperator() {
+                    @NonNull
+                    @Override
+                    public CornerSize apply(@NonNull CornerSize cornerSize) {
+                      // Don't adjust for relative corners they will change by themselves when the
+                      // bounds change.
+                      return cornerSize instanceof RelativeCornerSize
+                          ? cornerSize
+                          : new AdjustedCornerSize(strokeInsetLength, cornerSize);
+                    }
+                  });
+    }
 
+    RectF bounds = getBoundsInsetByStroke();
+    if (drawableState.interpolationKeyframesEnabled) {
+      if (strokeInterpolationKeyframes == null) {
+        strokeInterpolationKeyframes = new InterpolationKeyframes();
+      }
+      if (strokeInterpolationKeyframes.getPath(
+          pathProvider,
+          strokeShapeAppearance,
+          drawableState.interpolation,
+          bounds,
+          drawableState.interpolationKeyframeTolerance,
+          pathInsetByStroke)) {
+        return;
+      }
+    }
     pathProvider.calculatePath(
-        strokeShapeAppearance,
+        strokeShapeAppearance, drawableState.interpolation, bounds, pathInsetByStroke);
+  }
+
+  /**
+   * Writes the path blended between keyframes to {@code path}, or returns false if the path needs
+   * to be calculated.
+   */
+  private boolean calculateKeyframedPath(@NonNull RectF bounds, @NonNull Path path) {
+    // The compatibility shadow is drawn from the operations recorded while calculating the path.
+    if (!drawableState.interpolationKeyframesEnabled || mayDrawCompatShadow()) {
+      return false;
+    }
+    if (interpolationKeyframes == null) {
+      interpolationKeyframes = new InterpolationKeyframes();
+    }
+    if (!interpolationKeyframes.getPath(
+        pathProvider,
+        drawableState.shapeAppearanceModel,
         drawableState.interpolation,
-        getBoundsInsetByStroke(),
-        pathInsetByStroke);
+        bounds,
+        drawableState.interpolationKeyframeTolerance,
+        path)) {
+      return false;
+    }
+    shadowOperationsDirty = true;
+    return true;
   }
 
   @TargetApi(VERSION_CODES.LOLLIPOP)
@@ -1223,7 +1526,9 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
   }
 
   private void calculatePath(@NonNull RectF bounds, @NonNull Path path) {
-    calculatePathForSize(bounds, path);
+    if (!calculateKeyframedPath(bounds, path)) {
+      calculatePathForSize(bounds, path);
+    }
 
     if (drawableState.scale != 1f) {
       matrix.reset();
@@ -1400,6 +1705,48 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
     return drawableState.shapeAppearanceModel.isRoundRect(getBoundsAsRectF());
   }
 
+  /** The arguments of {@link #createWithSharedState}. Interned shapes are compared by reference. */
+  private static final class SharedStateKey {
+    @NonNull private final ShapeAppearanceModel shapeAppearanceModel;
+    private final int tintColor;
+    private final float strokeWidth;
+    private final int strokeColor;
+
+    SharedStateKey(
+        @NonNull ShapeAppearanceModel shapeAppearanceModel,
+        int tintColor,
+        float strokeWidth,
+        int strokeColor) {
+      this.shapeAppearanceModel = shapeAppearanceModel;
+      this.tintColor = tintColor;
+      this.strokeWidth = strokeWidth;
+      this.strokeColor = strokeColor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof SharedStateKey)) {
+        return false;
+      }
+      SharedStateKey that = (SharedStateKey) o;
+      return shapeAppearanceModel == that.shapeAppearanceModel
+          && tintColor == that.tintColor
+          && Float.compare(strokeWidth, that.strokeWidth) == 0
+          && strokeColor == that.strokeColor;
+    }
+
+    @Override
+    public int hashCode() {
+      int result = System.identityHashCode(shapeAppearanceModel);
+      result = 31 * result + tintColor;
+      result = 31 * result + Float.floatToIntBits(strokeWidth);
+      return 31 * result + strokeColor;
+    }
+  }
+
   static final class MaterialShapeDrawableState extends ConstantState {
 
     @NonNull public ShapeAppearanceModel shapeAppearanceModel;
@@ -1428,6 +1775,9 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
 
     public boolean useTintColorForShadow = false;
 
+    public boolean interpolationKeyframesEnabled = false;
+    public float interpolationKeyframeTolerance = 1f;
+
     public Style paintStyle = Style.FILL_AND_STROKE;
 
     public MaterialShapeDrawableState(
@@ -1452,6 +1802,8 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
       shadowCompatMode = orig.shadowCompatMode;
       useTintColorForShadow = orig.useTintColorForShadow;
       interpolation = orig.interpolation;
+      interpolationKeyframesEnabled = orig.interpolationKeyframesEnabled;
+      interpolationKeyframeTolerance = orig.interpolationKeyframeTolerance;
       parentAbsoluteElevation = orig.parentAbsoluteElevation;
       elevation = orig.elevation;
       translationZ = orig.translationZ;
@@ -1467,7 +1819,7 @@ public class MaterialShapeDrawable extends Drawable implements TintAwareDrawable
     @NonNull
     @Override
     public Drawable newDrawable() {
-      MaterialShapeDrawable msd = new MaterialShapeDrawable(this);
+      MaterialShapeDrawable msd = new MaterialShapeDrawable(this, /* drawableStateShared= */ true);
       // Force the calculation of the path for the new drawable.
       msd.pathDirty = true;
       return msd;
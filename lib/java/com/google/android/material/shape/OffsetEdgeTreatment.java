@@ -29,6 +29,15 @@ public final class OffsetEdgeTreatment extends EdgeTreatment {
     this.offset = offset;
   }
 
+  @NonNull
+  EdgeTreatment getOther() {
+    return other;
+  }
+
+  float getOffset() {
+    return offset;
+  }
+
   @Override
   public void getEdgePath(
       float length, float center, float interpolation, @NonNull ShapePath shapePath) {
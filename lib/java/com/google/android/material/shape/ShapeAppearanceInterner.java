@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.shape;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps one canonical {@link ShapeAppearanceModel} for each set of edges and corners, so that
+ * shapes can be compared by reference.
+ *
+ * <p>Only shapes made of the library's stateless treatments and of corner sizes that implement
+ * {@code equals()} over all of their state can be compared, so other shapes are never interned.
+ * Canonical shapes are weakly referenced, and dropped once no longer used.
+ */
+final class ShapeAppearanceInterner {
+
+  private static final Map<Key, ShapeReference> shapes = new HashMap<>();
+  private static final ReferenceQueue<ShapeAppearanceModel> clearedShapes =
+      new ReferenceQueue<>();
+
+  private ShapeAppearanceInterner() {}
+
+  /**
+   * Returns the canonical shape with the same edges and corners as {@code shapeAppearanceModel},
+   * or {@code shapeAppearanceModel} itself if it is the first such shape or can't be interned.
+   */
+  @NonNull
+  static ShapeAppearanceModel intern(@NonNull ShapeAppearanceModel shapeAppearanceModel) {
+    if (shapeAppearanceModel.interned) {
+      return shapeAppearanceModel;
+    }
+    Key key = createKey(shapeAppearanceModel);
+    if (key == null) {
+      return shapeAppearanceModel;
+    }
+
+    synchronized (shapes) {
+      removeClearedShapes();
+      ShapeReference reference = shapes.get(key);
+      ShapeAppearanceModel canonical = reference != null ? reference.get() : null;
+      if (canonical == null) {
+        canonical = shapeAppearanceModel;
+        canonical.internedHashCode = key.hashCode;
+        canonical.interned = true;
+        shapes.put(key, new ShapeReference(canonical, key, clearedShapes));
+      }
+      return canonical;
+    }
+  }
+
+  /** Returns the number of canonical shapes that are still referenced. */
+  static int size() {
+    synchronized (shapes) {
+      removeClearedShapes();
+      return shapes.size();
+    }
+  }
+
+  private static void removeClearedShapes() {
+    ShapeReference reference;
+    while ((reference = (ShapeReference) clearedShapes.poll()) != null) {
+      // A shape with the same key may have been interned since this one was cleared.
+      if (shapes.get(reference.key) == reference) {
+        shapes.remove(reference.key);
+      }
+    }
+  }
+
+  @Nullable
+  private static Key createKey(@NonNull ShapeAppearanceModel shapeAppearanceModel) {
+    // ShapePathModel is mutable.
+    if (shapeAppearanceModel.getClass() != ShapeAppearanceModel.class) {
+      return null;
+    }
+    Object[] components = {
+      shapeAppearanceModel.topLeftCornerSize,
+      shapeAppearanceModel.topRightCornerSize,
+      shapeAppearanceModel.bottomRightCornerSize,
+      shapeAppearanceModel.bottomLeftCornerSize,
+      shapeAppearanceModel.topLeftCorner.getClass(),
+      shapeAppearanceModel.topRightCorner.getClass(),
+      shapeAppearanceModel.bottomRightCorner.getClass(),
+      shapeAppearanceModel.bottomLeftCorner.getClass(),
+      shapeAppearanceModel.topEdge.getClass(),
+      shapeAppearanceModel.rightEdge.getClass(),
+      shapeAppearanceModel.bottomEdge.getClass(),
+      shapeAppearanceModel.leftEdge.getClass()
+    };
+    for (int i = 0; i < 4; i++) {
+      if (!isComparable((CornerSize) components[i])) {
+        return null;
+      }
+    }
+    for (int i = 4; i < 8; i++) {
+      if (components[i] != CornerTreatment.class
+          && components[i] != RoundedCornerTreatment.class
+          && components[i] != CutCornerTreatment.class) {
+        return null;
+      }
+    }
+    for (int i = 8; i < 12; i++) {
+      if (components[i] != EdgeTreatment.class) {
+        return null;
+      }
+    }
+    return new Key(components);
+  }
+
+  private static boolean isComparable(@NonNull CornerSize cornerSize) {
+    // These implement equals() over all of their state, and are final.
+    return cornerSize instanceof AbsoluteCornerSize
+        || cornerSize instanceof RelativeCornerSize
+        || (cornerSize instanceof AdjustedCornerSize
+            && isComparable(((AdjustedCornerSize) cornerSize).getOther()));
+  }
+
+  private static final class ShapeReference extends WeakReference<ShapeAppearanceModel> {
+    @NonNull final Key key;
+
+    ShapeReference(
+        @NonNull ShapeAppearanceModel shapeAppearanceModel,
+        @NonNull Key key,
+        @NonNull ReferenceQueue<ShapeAppearanceModel> queue) {
+      super(shapeAppearanceModel, queue);
+      this.key = key;
+    }
+  }
+
+  private static final class Key {
+    @NonNull private final Object[] components;
+    private final int hashCode;
+
+    Key(@NonNull Object[] components) {
+      this.components = components;
+      hashCode = Arrays.hashCode(components);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return this == o || (o instanceof Key && Arrays.equals(components, ((Key) o).components));
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
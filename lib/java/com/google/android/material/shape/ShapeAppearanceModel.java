@@ -577,6 +577,12 @@ public class ShapeAppearanceModel {
   EdgeTreatment bottomEdge;
   EdgeTreatment leftEdge;
 
+  // Set once this is the canonical instance of its shape, see #intern(). Written under the lock of
+  // ShapeAppearanceInterner but read without it, so internedHashCode is written before interned,
+  // and must only be read after interned is.
+  volatile boolean interned;
+  volatile int internedHashCode;
+
   private ShapeAppearanceModel(@NonNull ShapeAppearanceModel.Builder builder) {
     topLeftCorner = builder.topLeftCorner;
     topRightCorner = builder.topRightCorner;
@@ -738,18 +744,42 @@ public class ShapeAppearanceModel {
     return new Builder(this);
   }
 
+  /**
+   * Returns the canonical {@link ShapeAppearanceModel} with the same edges and corners as this one.
+   * Like {@link String#intern()}, interned shapes are the same instance if and only if they are
+   * made of the same edges and corners, so they can be compared by reference.
+   *
+   * <p>Only shapes made of the library's rounded, cut and square corner treatments, absolute and
+   * relative corner sizes and straight edges can be interned. Other shapes are returned as they
+   * are.
+   */
+  @NonNull
+  public ShapeAppearanceModel intern() {
+    return ShapeAppearanceInterner.intern(this);
+  }
+
+  /** Returns whether this is the canonical instance of its shape. See {@link #intern()}. */
+  public boolean isInterned() {
+    return interned;
+  }
+
   /**
    * Returns a copy of this {@link ShapeAppearanceModel} with the same edges and corners, but with
-   * the corner size for all corners updated.
+   * the corner size for all corners updated. The copy is interned if this shape is.
    */
   @NonNull
   public ShapeAppearanceModel withCornerSize(float cornerSize) {
-    return toBuilder().setAllCornerSizes(cornerSize).build();
+    return internIfInterned(toBuilder().setAllCornerSizes(cornerSize).build());
   }
 
   @NonNull
   public ShapeAppearanceModel withCornerSize(@NonNull CornerSize cornerSize) {
-    return toBuilder().setAllCornerSizes(cornerSize).build();
+    return internIfInterned(toBuilder().setAllCornerSizes(cornerSize).build());
+  }
+
+  @NonNull
+  private ShapeAppearanceModel internIfInterned(@NonNull ShapeAppearanceModel copy) {
+    return interned ? copy.intern() : copy;
   }
 
   /**
@@ -772,12 +802,13 @@ public class ShapeAppearanceModel {
   @RestrictTo(LIBRARY_GROUP)
   @NonNull
   public ShapeAppearanceModel withTransformedCornerSizes(@NonNull CornerSizeUnaryOperator op) {
-    return toBuilder()
-        .setTopLeftCornerSize(op.apply(getTopLeftCornerSize()))
-        .setTopRightCornerSize(op.apply(getTopRightCornerSize()))
-        .setBottomLeftCornerSize(op.apply(getBottomLeftCornerSize()))
-        .setBottomRightCornerSize(op.apply(getBottomRightCornerSize()))
-        .build();
+    return internIfInterned(
+        toBuilder()
+            .setTopLeftCornerSize(op.apply(getTopLeftCornerSize()))
+            .setTopRightCornerSize(op.apply(getTopRightCornerSize()))
+            .setBottomLeftCornerSize(op.apply(getBottomLeftCornerSize()))
+            .setBottomRightCornerSize(op.apply(getBottomRightCornerSize()))
+            .build());
   }
 
   /**
@@ -788,12 +819,6 @@ public class ShapeAppearanceModel {
    */
   @RestrictTo(LIBRARY_GROUP)
   public boolean isRoundRect(@NonNull RectF bounds) {
-    boolean hasDefaultEdges =
-        leftEdge.getClass().equals(EdgeTreatment.class)
-            && rightEdge.getClass().equals(EdgeTreatment.class)
-            && topEdge.getClass().equals(EdgeTreatment.class)
-            && bottomEdge.getClass().equals(EdgeTreatment.class);
-
     float cornerSize = topLeftCornerSize.getCornerSize(bounds);
 
     boolean cornersHaveSameSize =
@@ -807,6 +832,14 @@ public class ShapeAppearanceModel {
             && bottomRightCorner instanceof RoundedCornerTreatment
             && bottomLeftCorner instanceof RoundedCornerTreatment;
 
-    return hasDefaultEdges && cornersHaveSameSize && hasRoundedCorners;
+    return hasDefaultEdges() && cornersHaveSameSize && hasRoundedCorners;
+  }
+
+  /** Returns whether all edges are straight lines drawn by the default {@link EdgeTreatment}. */
+  boolean hasDefaultEdges() {
+    return leftEdge.getClass().equals(EdgeTreatment.class)
+        && rightEdge.getClass().equals(EdgeTreatment.class)
+        && topEdge.getClass().equals(EdgeTreatment.class)
+        && bottomEdge.getClass().equals(EdgeTreatment.class);
   }
 }
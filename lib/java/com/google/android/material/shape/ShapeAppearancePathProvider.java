@@ -35,6 +35,18 @@ import androidx.annotation.UiThread;
 /** A class to convert a {@link ShapeAppearanceModel} to a {@link android.graphics.Path}. */
 public class ShapeAppearancePathProvider {
 
+  /** The point is outside of the shape. See {@link #containsPoint}. */
+  static final int CONTAINS_OUTSIDE = 0;
+  /** The point is inside of the shape. See {@link #containsPoint}. */
+  static final int CONTAINS_INSIDE = 1;
+  /** The shape can't be tested without calculating its path. See {@link #containsPoint}. */
+  static final int CONTAINS_UNKNOWN = -1;
+
+  // The corners of shapes with straight edges and rounded, cut or square corners.
+  private static final int RECT_CORNERS_UNSUPPORTED = -1;
+  private static final int RECT_CORNERS_ROUNDED = 0;
+  private static final int RECT_CORNERS_CUT = 1;
+
   private static class Lazy {
     static final ShapeAppearancePathProvider INSTANCE = new ShapeAppearancePathProvider();
   }
@@ -59,15 +71,19 @@ public class ShapeAppearancePathProvider {
   // Pre-allocated objects that are re-used several times during path computation and rendering.
   private final PointF pointF = new PointF();
   private final Path overlappedEdgePath = new Path();
-  private final Path boundsPath = new Path();
   private final ShapePath shapePath = new ShapePath();
   private final float[] scratch = new float[2];
   private final float[] scratch2 = new float[2];
   private final Path edgePath = new Path();
   private final Path cornerPath = new Path();
+  private final RectF overlapBounds = new RectF();
+  private final float[] cornerSizes = new float[4];
+  private final float[] cornerRadii = new float[8];
 
   private boolean edgeIntersectionCheckEnabled = true;
 
+  private static volatile boolean pathCacheEnabled = false;
+
   public ShapeAppearancePathProvider() {
     for (int i = 0; i < 4; i++) {
       cornerPaths[i] = new ShapePath();
@@ -83,6 +99,36 @@ public class ShapeAppearancePathProvider {
     return Lazy.INSTANCE;
   }
 
+  /**
+   * Sets whether paths are shared through a process-wide cache, keyed by the shape, the size of the
+   * bounds and the interpolation. Disabled by default.
+   *
+   * <p>When enabled, drawables with the same shape and size calculate their path only once. Only
+   * shapes that are interned with {@link ShapeAppearanceModel#intern()} are cached, and paths
+   * calculated with a {@link PathListener} never are.
+   */
+  public static void setPathCacheEnabled(boolean enabled) {
+    pathCacheEnabled = enabled;
+    if (!enabled) {
+      ShapePathCache.clear();
+    }
+  }
+
+  /** Returns whether paths are shared through a process-wide cache. */
+  public static boolean isPathCacheEnabled() {
+    return pathCacheEnabled;
+  }
+
+  /** Returns the number of paths that have been copied from the path cache. */
+  public static int getPathCacheHitCount() {
+    return ShapePathCache.getHitCount();
+  }
+
+  /** Returns the number of cacheable paths that had to be calculated. */
+  public static int getPathCacheMissCount() {
+    return ShapePathCache.getMissCount();
+  }
+
   /**
    * Writes the given {@link ShapeAppearanceModel} to {@code path}
    *
@@ -115,10 +161,23 @@ public class ShapeAppearancePathProvider {
       RectF bounds,
       PathListener pathListener,
       @NonNull Path path) {
+    if (pathListener == null
+        && calculateRectPath(shapeAppearanceModel, interpolation, bounds, path)) {
+      return;
+    }
+
+    ShapePathCache.Key cacheKey = null;
+    if (pathCacheEnabled && pathListener == null) {
+      cacheKey =
+          ShapePathCache.createKey(
+              shapeAppearanceModel, interpolation, bounds, edgeIntersectionCheckEnabled);
+      if (cacheKey != null && ShapePathCache.get(cacheKey, bounds, path)) {
+        return;
+      }
+    }
+
     path.rewind();
     overlappedEdgePath.rewind();
-    boundsPath.rewind();
-    boundsPath.addRect(bounds, Direction.CW);
     ShapeAppearancePathSpec spec =
         new ShapeAppearancePathSpec(
             shapeAppearanceModel, interpolation, bounds, pathListener, path);
@@ -142,6 +201,152 @@ public class ShapeAppearancePathProvider {
     if (VERSION.SDK_INT >= VERSION_CODES.KITKAT && !overlappedEdgePath.isEmpty()) {
       path.op(overlappedEdgePath, Op.UNION);
     }
+
+    if (cacheKey != null) {
+      ShapePathCache.put(cacheKey, bounds, path);
+    }
+  }
+
+  /**
+   * Writes the path of a shape with straight edges and rounded, cut or square corners to {@code
+   * path} without going through {@link ShapePath}s, or returns false if the shape can't be written
+   * this way.
+   *
+   * <p>Rounded corners are added as a single round rect, which the renderer draws as a round rect
+   * rather than as an arbitrary path, and cut corners as a convex polygon. Shapes whose corners
+   * overlap are left to the regular path calculation, which handles them differently.
+   */
+  private boolean calculateRectPath(
+      @NonNull ShapeAppearanceModel shapeAppearanceModel,
+      float interpolation,
+      @NonNull RectF bounds,
+      @NonNull Path path) {
+    int rectCorners = resolveRectCorners(shapeAppearanceModel, interpolation, bounds);
+    if (rectCorners == RECT_CORNERS_UNSUPPORTED) {
+      return false;
+    }
+
+    // Indices go clockwise from the top right corner.
+    float topRight = cornerSizes[0];
+    float bottomRight = cornerSizes[1];
+    float bottomLeft = cornerSizes[2];
+    float topLeft = cornerSizes[3];
+    path.rewind();
+    if (rectCorners == RECT_CORNERS_CUT) {
+      path.moveTo(bounds.left + topLeft, bounds.top);
+      path.lineTo(bounds.right - topRight, bounds.top);
+      path.lineTo(bounds.right, bounds.top + topRight);
+      path.lineTo(bounds.right, bounds.bottom - bottomRight);
+      path.lineTo(bounds.right - bottomRight, bounds.bottom);
+      path.lineTo(bounds.left + bottomLeft, bounds.bottom);
+      path.lineTo(bounds.left, bounds.bottom - bottomLeft);
+      path.lineTo(bounds.left, bounds.top + topLeft);
+      path.close();
+    } else {
+      cornerRadii[0] = cornerRadii[1] = topLeft;
+      cornerRadii[2] = cornerRadii[3] = topRight;
+      cornerRadii[4] = cornerRadii[5] = bottomRight;
+      cornerRadii[6] = cornerRadii[7] = bottomLeft;
+      path.addRoundRect(bounds, cornerRadii, Direction.CW);
+    }
+    return true;
+  }
+
+  /**
+   * Tests whether a point is inside the path of a shape with straight edges and rounded, cut or
+   * square corners without calculating the path.
+   *
+   * @return {@link #CONTAINS_INSIDE} or {@link #CONTAINS_OUTSIDE}, or {@link #CONTAINS_UNKNOWN} if
+   *     the path of the shape needs to be calculated to test the point.
+   */
+  int containsPoint(
+      @NonNull ShapeAppearanceModel shapeAppearanceModel,
+      float interpolation,
+      @NonNull RectF bounds,
+      float x,
+      float y) {
+    int rectCorners = resolveRectCorners(shapeAppearanceModel, interpolation, bounds);
+    if (rectCorners == RECT_CORNERS_UNSUPPORTED) {
+      return CONTAINS_UNKNOWN;
+    }
+    if (x < bounds.left || x >= bounds.right || y < bounds.top || y >= bounds.bottom) {
+      return CONTAINS_OUTSIDE;
+    }
+
+    for (int index = 0; index < 4; index++) {
+      float size = cornerSizes[index];
+      // The distances of the point from the vertical and horizontal edges meeting at the corner.
+      float dx = index == 0 || index == 1 ? bounds.right - x : x - bounds.left;
+      float dy = index == 1 || index == 2 ? bounds.bottom - y : y - bounds.top;
+      if (dx >= size || dy >= size) {
+        continue;
+      }
+      // The corners fit in the bounds, so the point can only be in one of them.
+      boolean inside;
+      if (rectCorners == RECT_CORNERS_CUT) {
+        inside = dx + dy >= size;
+      } else {
+        float cx = size - dx;
+        float cy = size - dy;
+        inside = cx * cx + cy * cy <= size * size;
+      }
+      return inside ? CONTAINS_INSIDE : CONTAINS_OUTSIDE;
+    }
+    return CONTAINS_INSIDE;
+  }
+
+  /**
+   * Resolves the corner sizes of a shape with straight edges and rounded, cut or square corners
+   * into {@link #cornerSizes}, and returns whether its corners are rounded or cut. Returns {@link
+   * #RECT_CORNERS_UNSUPPORTED} for other shapes, and for shapes whose corners overlap, which the
+   * regular path calculation handles differently.
+   */
+  private int resolveRectCorners(
+      @NonNull ShapeAppearanceModel shapeAppearanceModel,
+      float interpolation,
+      @NonNull RectF bounds) {
+    if (!shapeAppearanceModel.hasDefaultEdges()) {
+      return RECT_CORNERS_UNSUPPORTED;
+    }
+    boolean hasRoundedCorners = false;
+    boolean hasCutCorners = false;
+    for (int index = 0; index < 4; index++) {
+      Class<?> cornerClass = getCornerTreatmentForIndex(index, shapeAppearanceModel).getClass();
+      float size;
+      if (cornerClass == RoundedCornerTreatment.class) {
+        hasRoundedCorners = true;
+        size = getCornerSizeForIndex(index, shapeAppearanceModel).getCornerSize(bounds);
+      } else if (cornerClass == CutCornerTreatment.class) {
+        hasCutCorners = true;
+        size = getCornerSizeForIndex(index, shapeAppearanceModel).getCornerSize(bounds);
+      } else if (cornerClass == CornerTreatment.class) {
+        size = 0;
+      } else {
+        return RECT_CORNERS_UNSUPPORTED;
+      }
+      if (size < 0) {
+        return RECT_CORNERS_UNSUPPORTED;
+      }
+      cornerSizes[index] = size * interpolation;
+    }
+    if (hasRoundedCorners && hasCutCorners) {
+      return RECT_CORNERS_UNSUPPORTED;
+    }
+
+    // Indices go clockwise from the top right corner.
+    float topRight = cornerSizes[0];
+    float bottomRight = cornerSizes[1];
+    float bottomLeft = cornerSizes[2];
+    float topLeft = cornerSizes[3];
+    float width = bounds.width();
+    float height = bounds.height();
+    if (topLeft + topRight > width
+        || bottomLeft + bottomRight > width
+        || topLeft + bottomLeft > height
+        || topRight + bottomRight > height) {
+      return RECT_CORNERS_UNSUPPORTED;
+    }
+    return hasCutCorners ? RECT_CORNERS_CUT : RECT_CORNERS_ROUNDED;
   }
 
   private void setCornerPathAndTransform(@NonNull ShapeAppearancePathSpec spec, int index) {
@@ -198,19 +403,11 @@ public class ShapeAppearancePathProvider {
     shapePath.reset(0, 0);
     EdgeTreatment edgeTreatment = getEdgeTreatmentForIndex(index, spec.shapeAppearanceModel);
     edgeTreatment.getEdgePath(edgeLength, center, spec.interpolation, shapePath);
-    edgePath.reset();
-    shapePath.applyToPath(edgeTransforms[index], edgePath);
 
     if (edgeIntersectionCheckEnabled
         && VERSION.SDK_INT >= VERSION_CODES.KITKAT
         && (edgeTreatment.forceIntersection()
-            || pathOverlapsCorner(edgePath, index)
-            || pathOverlapsCorner(edgePath, nextIndex))) {
-
-      // Calculate the difference between the edge and the bounds to calculate the part of the edge
-      // outside of the bounds of the shape.
-      edgePath.op(edgePath, boundsPath, Op.DIFFERENCE);
-
+            || edgeOverlapsCorners(spec, edgeTreatment, center, index, nextIndex))) {
       // Add a line to the path between the previous corner and this edge.
       // TODO(b/144784590): handle the shadow as well.
       scratch[0] = shapePath.getStartX();
@@ -229,12 +426,73 @@ public class ShapeAppearancePathProvider {
     }
   }
 
+  @RequiresApi(VERSION_CODES.KITKAT)
+  private boolean edgeOverlapsCorners(
+      @NonNull ShapeAppearancePathSpec spec,
+      @NonNull EdgeTreatment edgeTreatment,
+      float center,
+      int index,
+      int nextIndex) {
+    // The intersection with the first corner is left in edgePath, so the edge can only be found to
+    // overlap the next corner if it overlaps the first one.
+    if (!mayOverlapCorner(spec, edgeTreatment, center, index)) {
+      return false;
+    }
+    edgePath.reset();
+    shapePath.applyToPath(edgeTransforms[index], edgePath);
+    return pathOverlapsCorner(edgePath, index) || pathOverlapsCorner(edgePath, nextIndex);
+  }
+
+  /**
+   * Returns whether the edge starting at the corner at {@code index} may overlap it, or false if
+   * the library's treatments of the edge and corner are known not to overlap.
+   */
+  private boolean mayOverlapCorner(
+      @NonNull ShapeAppearancePathSpec spec,
+      @NonNull EdgeTreatment edgeTreatment,
+      float center,
+      int index) {
+    Class<?> cornerClass = getCornerTreatmentForIndex(index, spec.shapeAppearanceModel).getClass();
+    if (cornerClass == CornerTreatment.class || cornerClass == CutCornerTreatment.class) {
+      // These corners are straight lines, which have no area for the edge to overlap.
+      return false;
+    }
+    if (cornerClass != RoundedCornerTreatment.class
+        || getCornerSizeForIndex(index, spec.shapeAppearanceModel).getCornerSize(spec.bounds) < 0) {
+      return true;
+    }
+    // Rounded corners end where the edge starts, and curve away from the edge, so they can only be
+    // overlapped by an edge that extends before its start. Other edges may always overlap them.
+    float edgeStart = getEdgeStart(edgeTreatment, center, spec.interpolation);
+    return Float.isNaN(edgeStart) || edgeStart < 0;
+  }
+
+  /**
+   * Returns the smallest coordinate along the edge of the path of one of the library's edge
+   * treatments, relative to the start of the edge, or NaN for other treatments.
+   */
+  private static float getEdgeStart(
+      @NonNull EdgeTreatment edgeTreatment, float center, float interpolation) {
+    Class<?> edgeClass = edgeTreatment.getClass();
+    if (edgeClass == EdgeTreatment.class) {
+      return 0;
+    } else if (edgeClass == TriangleEdgeTreatment.class) {
+      float size = ((TriangleEdgeTreatment) edgeTreatment).getSize();
+      return Math.min(0, center - Math.abs(size * interpolation));
+    } else if (edgeClass == OffsetEdgeTreatment.class) {
+      OffsetEdgeTreatment offsetEdgeTreatment = (OffsetEdgeTreatment) edgeTreatment;
+      return getEdgeStart(
+          offsetEdgeTreatment.getOther(), center - offsetEdgeTreatment.getOffset(), interpolation);
+    }
+    return Float.NaN;
+  }
+
   @RequiresApi(VERSION_CODES.KITKAT)
   private boolean pathOverlapsCorner(Path edgePath, int index) {
     cornerPath.reset();
     cornerPaths[index].applyToPath(cornerTransforms[index], cornerPath);
 
-    RectF bounds = new RectF();
+    RectF bounds = overlapBounds;
     edgePath.computeBounds(bounds, /* exact = */ true);
     cornerPath.computeBounds(bounds, /* exact = */ true);
     edgePath.op(cornerPath, Op.INTERSECT);
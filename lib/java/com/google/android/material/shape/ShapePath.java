@@ -24,13 +24,16 @@ import android.os.Build.VERSION_CODES;
 import androidx.annotation.NonNull;
 import androidx.annotation.RequiresApi;
 import com.google.android.material.shadow.ShadowRenderer;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * Represents the descriptive path of a shape. Path segments are stored in sequence so that
  * transformations can be applied to them when the {@link android.graphics.Path} is produced by the
  * {@link MaterialShapeDrawable}.
+ *
+ * <p>Segments are packed as opcodes followed by their arguments in arrays that are kept across
+ * {@link #reset(float, float)}, so that recalculating a shape doesn't allocate an object for each
+ * segment.
  */
 public class ShapePath {
 
@@ -87,10 +90,34 @@ public class ShapePath {
    */
   @Deprecated public float endShadowAngle;
 
-  private final List<PathOperation> operations = new ArrayList<>();
-  private final List<ShadowCompatOperation> shadowCompatOperations = new ArrayList<>();
+  private static final byte OPERATION_LINE = 0;
+  private static final byte OPERATION_QUAD = 1;
+  private static final byte OPERATION_CUBIC = 2;
+  private static final byte OPERATION_ARC = 3;
+
+  private static final byte SHADOW_OPERATION_LINE = 0;
+  private static final byte SHADOW_OPERATION_ARC = 1;
+
+  private static final int INITIAL_OPERATION_CAPACITY = 4;
+  private static final int MAX_OPERATION_ARGS = 6;
+  private static final float[] IDENTITY_VALUES = {1, 0, 0, 0, 1, 0, 0, 0, 1};
+
+  private byte[] operations = new byte[INITIAL_OPERATION_CAPACITY];
+  private float[] operationArgs = new float[INITIAL_OPERATION_CAPACITY * MAX_OPERATION_ARGS];
+  private int operationCount;
+  private int operationArgCount;
+
+  private byte[] shadowOperations = new byte[INITIAL_OPERATION_CAPACITY];
+  private float[] shadowOperationArgs = new float[INITIAL_OPERATION_CAPACITY * MAX_OPERATION_ARGS];
+  private int shadowOperationCount;
+  private int shadowOperationArgCount;
+
   private boolean containsIncompatibleShadowOp;
 
+  private final Matrix inverseTransform = new Matrix();
+  private final float[] transformValues = new float[9];
+  private final RectF arcBounds = new RectF();
+
   public ShapePath() {
     reset(0, 0);
   }
@@ -115,8 +142,10 @@ public class ShapePath {
     setEndY(startY);
     setCurrentShadowAngle(shadowStartAngle);
     setEndShadowAngle((shadowStartAngle + shadowSweepAngle) % 360);
-    this.operations.clear();
-    this.shadowCompatOperations.clear();
+    this.operationCount = 0;
+    this.operationArgCount = 0;
+    this.shadowOperationCount = 0;
+    this.shadowOperationArgCount = 0;
     this.containsIncompatibleShadowOp = false;
   }
 
@@ -127,18 +156,17 @@ public class ShapePath {
    * @param y the y to which the line should be drawn.
    */
   public void lineTo(float x, float y) {
-    PathLineOperation operation = new PathLineOperation();
-    operation.x = x;
-    operation.y = y;
-    operations.add(operation);
-
-    LineShadowOperation shadowOperation = new LineShadowOperation(operation, getEndX(), getEndY());
+    int index = addOperation(OPERATION_LINE, 2);
+    operationArgs[index] = x;
+    operationArgs[index + 1] = y;
 
     // The previous endX and endY is the starting point for this shadow operation.
-    addShadowCompatOperation(
-        shadowOperation,
-        ANGLE_UP + shadowOperation.getAngle(),
-        ANGLE_UP + shadowOperation.getAngle());
+    float shadowAngle = ANGLE_UP + getLineAngle(getEndX(), getEndY(), x, y);
+    index = addShadowCompatOperation(SHADOW_OPERATION_LINE, 4, shadowAngle, shadowAngle);
+    shadowOperationArgs[index] = getEndX();
+    shadowOperationArgs[index + 1] = getEndY();
+    shadowOperationArgs[index + 2] = x;
+    shadowOperationArgs[index + 3] = y;
 
     setEndX(x);
     setEndY(y);
@@ -157,12 +185,11 @@ public class ShapePath {
    */
   @RequiresApi(VERSION_CODES.LOLLIPOP)
   public void quadToPoint(float controlX, float controlY, float toX, float toY) {
-    PathQuadOperation operation = new PathQuadOperation();
-    operation.setControlX(controlX);
-    operation.setControlY(controlY);
-    operation.setEndX(toX);
-    operation.setEndY(toY);
-    operations.add(operation);
+    int index = addOperation(OPERATION_QUAD, 4);
+    operationArgs[index] = controlX;
+    operationArgs[index + 1] = controlY;
+    operationArgs[index + 2] = toX;
+    operationArgs[index + 3] = toY;
 
     containsIncompatibleShadowOp = true;
 
@@ -186,9 +213,13 @@ public class ShapePath {
   @RequiresApi(VERSION_CODES.LOLLIPOP)
   public void cubicToPoint(
       float controlX1, float controlY1, float controlX2, float controlY2, float toX, float toY) {
-    PathCubicOperation operation =
-        new PathCubicOperation(controlX1, controlY1, controlX2, controlY2, toX, toY);
-    operations.add(operation);
+    int index = addOperation(OPERATION_CUBIC, 6);
+    operationArgs[index] = controlX1;
+    operationArgs[index + 1] = controlY1;
+    operationArgs[index + 2] = controlX2;
+    operationArgs[index + 3] = controlY2;
+    operationArgs[index + 4] = toX;
+    operationArgs[index + 5] = toY;
 
     containsIncompatibleShadowOp = true;
 
@@ -208,21 +239,21 @@ public class ShapePath {
    */
   public void addArc(
       float left, float top, float right, float bottom, float startAngle, float sweepAngle) {
-    PathArcOperation operation = new PathArcOperation(left, top, right, bottom);
-    operation.setStartAngle(startAngle);
-    operation.setSweepAngle(sweepAngle);
-    operations.add(operation);
+    int index = addOperation(OPERATION_ARC, 6);
+    setArcArgs(operationArgs, index, left, top, right, bottom, startAngle, sweepAngle);
 
-    ArcShadowOperation arcShadowOperation = new ArcShadowOperation(operation);
     float endAngle = startAngle + sweepAngle;
     // Flip the startAngle and endAngle when drawing the shadow inside the bounds. They represent
     // the angles from the center of the circle to the start or end of the arc, respectively. When
     // the shadow is drawn inside the arc, it is going the opposite direction.
     boolean drawShadowInsideBounds = sweepAngle < 0;
-    addShadowCompatOperation(
-        arcShadowOperation,
-        drawShadowInsideBounds ? (180 + startAngle) % 360 : startAngle,
-        drawShadowInsideBounds ? (180 + endAngle) % 360 : endAngle);
+    index =
+        addShadowCompatOperation(
+            SHADOW_OPERATION_ARC,
+            6,
+            drawShadowInsideBounds ? (180 + startAngle) % 360 : startAngle,
+            drawShadowInsideBounds ? (180 + endAngle) % 360 : endAngle);
+    setArcArgs(shadowOperationArgs, index, left, top, right, bottom, startAngle, sweepAngle);
 
     setEndX(
         (left + right) * 0.5f
@@ -239,10 +270,121 @@ public class ShapePath {
    * @param path the path to which this ShapePath is applied
    */
   public void applyToPath(Matrix transform, Path path) {
-    for (int i = 0, size = operations.size(); i < size; i++) {
-      PathOperation operation = operations.get(i);
-      operation.applyToPath(transform, path);
+    if (transform.isIdentity()) {
+      appendOperations(path, IDENTITY_VALUES, /* transformed= */ false);
+      return;
+    }
+
+    transform.getValues(transformValues);
+    if (transform.rectStaysRect() && getDeterminant(transformValues) != 0) {
+      // Translations, right angle rotations and scales keep arcs on axis-aligned ovals, so the
+      // operations can be transformed one by one.
+      appendOperations(path, transformValues, /* transformed= */ true);
+    } else {
+      transform.invert(inverseTransform);
+      path.transform(inverseTransform);
+      appendOperations(path, IDENTITY_VALUES, /* transformed= */ false);
+      path.transform(transform);
+    }
+  }
+
+  /**
+   * Appends the operations to {@code path}, mapped by the affine matrix {@code values}.
+   *
+   * @param transformed whether {@code values} may not be the identity, and arcs need to be mapped.
+   */
+  private void appendOperations(@NonNull Path path, @NonNull float[] values, boolean transformed) {
+    // An operation other than an arc on an empty path starts from the origin, as it would have
+    // before the path was transformed.
+    boolean empty = path.isEmpty();
+    float[] args = operationArgs;
+    int index = 0;
+    for (int i = 0; i < operationCount; i++) {
+      byte operation = operations[i];
+      if (empty && operation != OPERATION_ARC) {
+        path.moveTo(mapX(values, 0, 0), mapY(values, 0, 0));
+      }
+      empty = false;
+      switch (operation) {
+        case OPERATION_LINE:
+          path.lineTo(
+              mapX(values, args[index], args[index + 1]),
+              mapY(values, args[index], args[index + 1]));
+          index += 2;
+          break;
+        case OPERATION_QUAD:
+          path.quadTo(
+              mapX(values, args[index], args[index + 1]),
+              mapY(values, args[index], args[index + 1]),
+              mapX(values, args[index + 2], args[index + 3]),
+              mapY(values, args[index + 2], args[index + 3]));
+          index += 4;
+          break;
+        case OPERATION_CUBIC:
+          path.cubicTo(
+              mapX(values, args[index], args[index + 1]),
+              mapY(values, args[index], args[index + 1]),
+              mapX(values, args[index + 2], args[index + 3]),
+              mapY(values, args[index + 2], args[index + 3]),
+              mapX(values, args[index + 4], args[index + 5]),
+              mapY(values, args[index + 4], args[index + 5]));
+          index += 6;
+          break;
+        case OPERATION_ARC:
+        default:
+          appendArc(path, values, transformed, index);
+          index += 6;
+          break;
+      }
+    }
+  }
+
+  private void appendArc(
+      @NonNull Path path, @NonNull float[] values, boolean transformed, int index) {
+    float[] args = operationArgs;
+    float startAngle = args[index + 4];
+    float sweepAngle = args[index + 5];
+    if (!transformed) {
+      arcBounds.set(args[index], args[index + 1], args[index + 2], args[index + 3]);
+      path.arcTo(arcBounds, startAngle, sweepAngle, false);
+      return;
     }
+
+    float x1 = mapX(values, args[index], args[index + 1]);
+    float y1 = mapY(values, args[index], args[index + 1]);
+    float x2 = mapX(values, args[index + 2], args[index + 3]);
+    float y2 = mapY(values, args[index + 2], args[index + 3]);
+    arcBounds.set(Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2));
+
+    // The point at an angle of an oval is found on the unit circle, then scaled to the oval. Map
+    // that direction to find the angle of the same point on the mapped oval, which is swapped
+    // with the other axis by right angle rotations.
+    double radians = Math.toRadians(startAngle);
+    double cos = Math.cos(radians);
+    double sin = Math.sin(radians);
+    double x =
+        (values[Matrix.MSCALE_X] * cos + values[Matrix.MSKEW_X] * sin)
+            / (Math.abs(values[Matrix.MSCALE_X]) + Math.abs(values[Matrix.MSKEW_X]));
+    double y =
+        (values[Matrix.MSKEW_Y] * cos + values[Matrix.MSCALE_Y] * sin)
+            / (Math.abs(values[Matrix.MSKEW_Y]) + Math.abs(values[Matrix.MSCALE_Y]));
+    float mappedStartAngle = (float) Math.toDegrees(Math.atan2(y, x));
+    // Mirroring reverses the direction of the arc.
+    float mappedSweepAngle = getDeterminant(values) < 0 ? -sweepAngle : sweepAngle;
+    path.arcTo(arcBounds, mappedStartAngle, mappedSweepAngle, false);
+  }
+
+  private static float mapX(@NonNull float[] values, float x, float y) {
+    return values[Matrix.MSCALE_X] * x + values[Matrix.MSKEW_X] * y + values[Matrix.MTRANS_X];
+  }
+
+  private static float mapY(@NonNull float[] values, float x, float y) {
+    return values[Matrix.MSKEW_Y] * x + values[Matrix.MSCALE_Y] * y + values[Matrix.MTRANS_Y];
+  }
+
+  private static float getDeterminant(@NonNull float[] values) {
+    return values[Matrix.MSCALE_X] * values[Matrix.MSCALE_Y]
+        - values[Matrix.MSKEW_X] * values[Matrix.MSKEW_Y];
   }
 
   /**
@@ -253,28 +395,72 @@ public class ShapePath {
   ShadowCompatOperation createShadowCompatOperation(final Matrix transform) {
     // If the shadowCompatOperations don't end on the desired endShadowAngle, add an arc to do so.
     addConnectingShadowIfNecessary(getEndShadowAngle());
-    final Matrix transformCopy = new Matrix(transform);
-    final List<ShadowCompatOperation> operations = new ArrayList<>(shadowCompatOperations);
-    return new ShadowCompatOperation() {
-      @Override
-      public void draw(
-          Matrix matrix, ShadowRenderer shadowRenderer, int shadowElevation, Canvas canvas) {
-        for (ShadowCompatOperation op : operations) {
-          op.draw(transformCopy, shadowRenderer, shadowElevation, canvas);
-        }
-      }
-    };
+    return new PathShadowOperation(
+        transform,
+        Arrays.copyOf(shadowOperations, shadowOperationCount),
+        Arrays.copyOf(shadowOperationArgs, shadowOperationArgCount));
+  }
+
+  /**
+   * Adds an operation with {@code argCount} arguments, growing the buffers if needed.
+   *
+   * @return the index of the first argument of the operation in {@link #operationArgs}.
+   */
+  private int addOperation(byte operation, int argCount) {
+    if (operationCount == operations.length) {
+      operations = Arrays.copyOf(operations, operationCount * 2);
+      operationArgs = Arrays.copyOf(operationArgs, operationArgs.length * 2);
+    }
+    operations[operationCount++] = operation;
+    int index = operationArgCount;
+    operationArgCount += argCount;
+    return index;
   }
 
   /**
-   * Adds a {@link ShadowCompatOperation}, adding an {@link ArcShadowOperation} if needed in order
-   * to connect the previous shadow end to the new shadow operation's beginning.
+   * Adds a shadow operation, adding an arc shadow if needed in order to connect the previous shadow
+   * end to the new shadow operation's beginning.
+   *
+   * @return the index of the first argument of the operation in {@link #shadowOperationArgs}.
    */
-  private void addShadowCompatOperation(
-      ShadowCompatOperation shadowOperation, float startShadowAngle, float endShadowAngle) {
+  private int addShadowCompatOperation(
+      byte shadowOperation, int argCount, float startShadowAngle, float endShadowAngle) {
     addConnectingShadowIfNecessary(startShadowAngle);
-    shadowCompatOperations.add(shadowOperation);
+    int index = addShadowOperation(shadowOperation, argCount);
     setCurrentShadowAngle(endShadowAngle);
+    return index;
+  }
+
+  private int addShadowOperation(byte shadowOperation, int argCount) {
+    if (shadowOperationCount == shadowOperations.length) {
+      shadowOperations = Arrays.copyOf(shadowOperations, shadowOperationCount * 2);
+      shadowOperationArgs = Arrays.copyOf(shadowOperationArgs, shadowOperationArgs.length * 2);
+    }
+    shadowOperations[shadowOperationCount++] = shadowOperation;
+    int index = shadowOperationArgCount;
+    shadowOperationArgCount += argCount;
+    return index;
+  }
+
+  private static void setArcArgs(
+      @NonNull float[] args,
+      int index,
+      float left,
+      float top,
+      float right,
+      float bottom,
+      float startAngle,
+      float sweepAngle) {
+    args[index] = left;
+    args[index + 1] = top;
+    args[index + 2] = right;
+    args[index + 3] = bottom;
+    args[index + 4] = startAngle;
+    args[index + 5] = sweepAngle;
+  }
+
+  private static float getLineAngle(float startX, float startY, float endX, float endY) {
+    return (float) Math.toDegrees(Math.atan((endY - startY) / (endX - startX)));
   }
 
   /**
@@ -286,8 +472,8 @@ public class ShapePath {
   }
 
   /**
-   * Create an {@link ArcShadowOperation} to fill in a shadow between the currently drawn shadow and
-   * the next shadow angle, if there would be a gap.
+   * Adds an arc shadow operation to fill in a shadow between the currently drawn shadow and the
+   * next shadow angle, if there would be a gap.
    */
   private void addConnectingShadowIfNecessary(float nextShadowAngle) {
     if (getCurrentShadowAngle() == nextShadowAngle) {
@@ -299,11 +485,16 @@ public class ShapePath {
       // Shadows are actually overlapping, so don't draw anything.
       return;
     }
-    PathArcOperation pathArcOperation =
-        new PathArcOperation(getEndX(), getEndY(), getEndX(), getEndY());
-    pathArcOperation.setStartAngle(getCurrentShadowAngle());
-    pathArcOperation.setSweepAngle(shadowSweep);
-    shadowCompatOperations.add(new ArcShadowOperation(pathArcOperation));
+    int index = addShadowOperation(SHADOW_OPERATION_ARC, 6);
+    setArcArgs(
+        shadowOperationArgs,
+        index,
+        getEndX(),
+        getEndY(),
+        getEndX(),
+        getEndY(),
+        getCurrentShadowAngle(),
+        shadowSweep);
     setCurrentShadowAngle(nextShadowAngle);
   }
 
@@ -373,62 +564,49 @@ public class ShapePath {
         Matrix transform, ShadowRenderer shadowRenderer, int shadowElevation, Canvas canvas);
   }
 
-  /** Sets up the correct shadow to be drawn for a line. */
-  static class LineShadowOperation extends ShadowCompatOperation {
+  /** Draws the shadows of the lines and arcs of a path, in sequence. */
+  private static class PathShadowOperation extends ShadowCompatOperation {
 
-    private final PathLineOperation operation;
-    private final float startX;
-    private final float startY;
+    private final Matrix transform;
+    @NonNull private final byte[] operations;
+    @NonNull private final float[] args;
+    private final Matrix edgeTransform = new Matrix();
+    private final RectF rect = new RectF();
 
-    public LineShadowOperation(PathLineOperation operation, float startX, float startY) {
-      this.operation = operation;
-      this.startX = startX;
-      this.startY = startY;
+    PathShadowOperation(
+        @NonNull Matrix transform, @NonNull byte[] operations, @NonNull float[] args) {
+      this.transform = new Matrix(transform);
+      this.operations = operations;
+      this.args = args;
     }
 
     @Override
     public void draw(
-        Matrix transform,
+        Matrix matrix,
         @NonNull ShadowRenderer shadowRenderer,
         int shadowElevation,
         @NonNull Canvas canvas) {
-      final float height = operation.y - startY;
-      final float width = operation.x - startX;
-      final RectF rect = new RectF(0, 0, (float) Math.hypot(height, width), 0);
-      final Matrix edgeTransform = new Matrix(transform);
-      // transform & rotate the canvas so that the rect passed to drawEdgeShadow is horizontal.
-      edgeTransform.preTranslate(startX, startY);
-      edgeTransform.preRotate(getAngle());
-      shadowRenderer.drawEdgeShadow(canvas, edgeTransform, rect, shadowElevation);
-    }
-
-    float getAngle() {
-      return (float) Math.toDegrees(Math.atan((operation.y - startY) / (operation.x - startX)));
-    }
-  }
-
-  /** Sets up the shadow to be drawn for an arc. */
-  static class ArcShadowOperation extends ShadowCompatOperation {
-
-    private final PathArcOperation operation;
-
-    public ArcShadowOperation(PathArcOperation operation) {
-      this.operation = operation;
-    }
-
-    @Override
-    public void draw(
-        Matrix transform,
-        @NonNull ShadowRenderer shadowRenderer,
-        int shadowElevation,
-        @NonNull Canvas canvas) {
-      float startAngle = operation.getStartAngle();
-      float sweepAngle = operation.getSweepAngle();
-      RectF rect =
-          new RectF(
-              operation.getLeft(), operation.getTop(), operation.getRight(), operation.getBottom());
-      shadowRenderer.drawCornerShadow(
-          canvas, transform, rect, shadowElevation, startAngle, sweepAngle);
+      int index = 0;
+      for (byte operation : operations) {
+        if (operation == SHADOW_OPERATION_LINE) {
+          float startX = args[index];
+          float startY = args[index + 1];
+          float endX = args[index + 2];
+          float endY = args[index + 3];
+          rect.set(0, 0, (float) Math.hypot(endY - startY, endX - startX), 0);
+          // transform & rotate the canvas so that the rect passed to drawEdgeShadow is horizontal.
+          edgeTransform.set(transform);
+          edgeTransform.preTranslate(startX, startY);
+          edgeTransform.preRotate(getLineAngle(startX, startY, endX, endY));
+          shadowRenderer.drawEdgeShadow(canvas, edgeTransform, rect, shadowElevation);
+          index += 4;
+        } else {
+          rect.set(args[index], args[index + 1], args[index + 2], args[index + 3]);
+          shadowRenderer.drawCornerShadow(
+              canvas, transform, rect, shadowElevation, args[index + 4], args[index + 5]);
+          index += 6;
+        }
+      }
     }
   }
 
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.shape;
+
+import android.graphics.Path;
+import android.graphics.RectF;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.collection.LruCache;
+
+/**
+ * A process-wide cache of the paths calculated by {@link ShapeAppearancePathProvider}, so that
+ * drawables with the same shape and size share the geometry rather than each calculating it.
+ *
+ * <p>Paths are keyed by the interned {@link ShapeAppearanceModel}, the size of the bounds and the
+ * interpolation, and are stored relative to the top left of their bounds. Only shapes that are
+ * already interned are cached, see {@link ShapeAppearanceModel#intern()}; looking up a path never
+ * interns a shape.
+ */
+final class ShapePathCache {
+
+  /** The maximum number of paths kept in the cache. */
+  private static final int MAX_CACHED_PATHS = 64;
+
+  private static final LruCache<Key, Path> cache = new LruCache<>(MAX_CACHED_PATHS);
+
+  private ShapePathCache() {}
+
+  /**
+   * Returns the key of the path of a shape, or null if the path of the shape can't be cached.
+   *
+   * @param shapeAppearanceModel The shape of the path.
+   * @param interpolation The interpolation of the path.
+   * @param bounds The bounds of the path.
+   * @param edgeIntersectionCheckEnabled Whether overlaps between edges and corners are handled.
+   */
+  @Nullable
+  static Key createKey(
+      @NonNull ShapeAppearanceModel shapeAppearanceModel,
+      float interpolation,
+      @NonNull RectF bounds,
+      boolean edgeIntersectionCheckEnabled) {
+    if (!shapeAppearanceModel.isInterned()) {
+      return null;
+    }
+    return new Key(
+        shapeAppearanceModel,
+        interpolation,
+        bounds.width(),
+        bounds.height(),
+        edgeIntersectionCheckEnabled);
+  }
+
+  /**
+   * Writes the cached path for a key to {@code path}, offset to the top left of {@code bounds}.
+   *
+   * @return Whether the path was cached.
+   */
+  static boolean get(@NonNull Key key, @NonNull RectF bounds, @NonNull Path path) {
+    Path cachedPath = cache.get(key);
+    if (cachedPath == null) {
+      return false;
+    }
+    path.set(cachedPath);
+    path.offset(bounds.left, bounds.top);
+    return true;
+  }
+
+  /** Caches a path calculated for a key in {@code bounds}. */
+  static void put(@NonNull Key key, @NonNull RectF bounds, @NonNull Path path) {
+    Path cachedPath = new Path(path);
+    cachedPath.offset(-bounds.left, -bounds.top);
+    cache.put(key, cachedPath);
+  }
+
+  static int getHitCount() {
+    return cache.hitCount();
+  }
+
+  static int getMissCount() {
+    return cache.missCount();
+  }
+
+  static void clear() {
+    cache.evictAll();
+  }
+
+  /** The key of a cached path. */
+  static final class Key {
+
+    @NonNull private final ShapeAppearanceModel shapeAppearanceModel;
+    private final float interpolation;
+    private final float width;
+    private final float height;
+    private final boolean edgeIntersectionCheckEnabled;
+    private final int hashCode;
+
+    private Key(
+        @NonNull ShapeAppearanceModel shapeAppearanceModel,
+        float interpolation,
+        float width,
+        float height,
+        boolean edgeIntersectionCheckEnabled) {
+      this.shapeAppearanceModel = shapeAppearanceModel;
+      this.interpolation = interpolation;
+      this.width = width;
+      this.height = height;
+      this.edgeIntersectionCheckEnabled = edgeIntersectionCheckEnabled;
+      int hash = shapeAppearanceModel.internedHashCode;
+      hash = 31 * hash + Float.floatToIntBits(interpolation);
+      hash = 31 * hash + Float.floatToIntBits(width);
+      hash = 31 * hash + Float.floatToIntBits(height);
+      hashCode = 31 * hash + (edgeIntersectionCheckEnabled ? 1 : 0);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return Float.compare(interpolation, that.interpolation) == 0
+          && Float.compare(width, that.width) == 0
+          && Float.compare(height, that.height) == 0
+          && edgeIntersectionCheckEnabled == that.edgeIntersectionCheckEnabled
+          // Interned shapes are equal only if they're the same instance.
+          && shapeAppearanceModel == that.shapeAppearanceModel;
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
@@ -44,6 +44,10 @@ public class TriangleEdgeTreatment extends EdgeTreatment {
     this.inside = inside;
   }
 
+  float getSize() {
+    return size;
+  }
+
   @Override
   public void getEdgePath(
       float length, float center, float interpolation, @NonNull ShapePath shapePath) {
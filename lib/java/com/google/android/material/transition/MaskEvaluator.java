@@ -16,8 +16,6 @@
 
 package com.google.android.material.transition;
 
-import static com.google.android.material.transition.TransitionUtils.lerp;
-
 import android.graphics.Canvas;
 import android.graphics.Path;
 import android.graphics.Path.Op;
@@ -25,6 +23,8 @@ import android.graphics.RectF;
 import android.graphics.Region;
 import android.os.Build.VERSION;
 import android.os.Build.VERSION_CODES;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import com.google.android.material.shape.ShapeAppearanceModel;
 import com.google.android.material.shape.ShapeAppearancePathProvider;
 import com.google.android.material.transition.MaterialContainerTransform.ProgressThresholds;
@@ -41,9 +41,14 @@ class MaskEvaluator {
   private final Path endPath = new Path();
   private final ShapeAppearancePathProvider pathProvider =
       ShapeAppearancePathProvider.getInstance();
+  private final InterpolatedShapeAppearance interpolatedShapeAppearance =
+      new InterpolatedShapeAppearance();
 
   private ShapeAppearanceModel currentShapeAppearanceModel;
 
+  // Whether one of the start and end shapes contains the other, so that the path is the outer one.
+  private boolean pathContainsBothShapes;
+
   /** Update the mask used by this evaluator based on a given progress. */
   void evaluate(
       float progress,
@@ -59,7 +64,7 @@ class MaskEvaluator {
     float shapeStartFraction = shapeMaskThresholds.getStart();
     float shapeEndFraction = shapeMaskThresholds.getEnd();
     currentShapeAppearanceModel =
-        lerp(
+        interpolatedShapeAppearance.interpolate(
             startShapeAppearanceModel,
             endShapeAppearanceModel,
             currentStartBounds,
@@ -68,6 +73,17 @@ class MaskEvaluator {
             shapeEndFraction,
             progress);
 
+    // The union of two round rects is the outer one if one contains the other, which is usual
+    // for rects of the same width or height. That avoids calculating both paths and their union.
+    RectF outerBounds =
+        getOuterRoundRectBounds(
+            currentShapeAppearanceModel, currentStartBoundsMasked, currentEndBoundsMasked);
+    pathContainsBothShapes = outerBounds != null;
+    if (pathContainsBothShapes) {
+      pathProvider.calculatePath(currentShapeAppearanceModel, 1, outerBounds, path);
+      return;
+    }
+
     pathProvider.calculatePath(currentShapeAppearanceModel, 1, currentStartBoundsMasked, startPath);
     pathProvider.calculatePath(currentShapeAppearanceModel, 1, currentEndBoundsMasked, endPath);
 
@@ -80,7 +96,7 @@ class MaskEvaluator {
 
   /** Clip the given Canvas to the mask held by this evaluator. */
   void clip(Canvas canvas) {
-    if (VERSION.SDK_INT >= VERSION_CODES.M) {
+    if (pathContainsBothShapes || VERSION.SDK_INT >= VERSION_CODES.M) {
       canvas.clipPath(path);
     } else {
       canvas.clipPath(startPath);
@@ -88,6 +104,66 @@ class MaskEvaluator {
     }
   }
 
+  /**
+   * Returns the bounds of whichever of the round rects in {@code startBounds} and {@code
+   * endBounds} contains the other one, or null if neither does or the shape isn't a round rect.
+   */
+  @Nullable
+  @VisibleForTesting
+  static RectF getOuterRoundRectBounds(
+      ShapeAppearanceModel shapeAppearanceModel, RectF startBounds, RectF endBounds) {
+    if (!shapeAppearanceModel.isRoundRect(startBounds)
+        || !shapeAppearanceModel.isRoundRect(endBounds)) {
+      return null;
+    }
+    float startRadius = shapeAppearanceModel.getTopLeftCornerSize().getCornerSize(startBounds);
+    float endRadius = shapeAppearanceModel.getTopLeftCornerSize().getCornerSize(endBounds);
+    // Larger corners overlap each other, and don't make a round rect.
+    if (startRadius * 2 > Math.min(startBounds.width(), startBounds.height())
+        || endRadius * 2 > Math.min(endBounds.width(), endBounds.height())) {
+      return null;
+    }
+    if (containsRoundRect(startBounds, startRadius, endBounds, endRadius)) {
+      return startBounds;
+    }
+    if (containsRoundRect(endBounds, endRadius, startBounds, startRadius)) {
+      return endBounds;
+    }
+    return null;
+  }
+
+  /**
+   * Returns whether the round rect in {@code outer} contains the round rect in {@code inner}.
+   *
+   * <p>A round rect is the rect inset by its radius, grown by a circle of its radius. If the inner
+   * radius is the larger one, the inner round rect is within the outer one if its rect is. If not,
+   * the corners of the inset inner rect have to be within the difference of the radii of the inset
+   * outer rect.
+   */
+  @VisibleForTesting
+  static boolean containsRoundRect(
+      RectF outer, float outerRadius, RectF inner, float innerRadius) {
+    if (!outer.contains(inner)) {
+      return false;
+    }
+    if (innerRadius >= outerRadius) {
+      return true;
+    }
+    float maxDistance = outerRadius - innerRadius;
+    float dx =
+        Math.max(
+            outer.left + outerRadius - (inner.left + innerRadius),
+            inner.right - innerRadius - (outer.right - outerRadius));
+    float dy =
+        Math.max(
+            outer.top + outerRadius - (inner.top + innerRadius),
+            inner.bottom - innerRadius - (outer.bottom - outerRadius));
+    // The farthest corner is the one farthest outside of the inset outer rect on each axis.
+    dx = Math.max(dx, 0);
+    dy = Math.max(dy, 0);
+    return dx * dx + dy * dy <= maxDistance * maxDistance;
+  }
+
   Path getPath() {
     return path;
   }
@@ -38,12 +38,14 @@ import android.animation.ValueAnimator.AnimatorUpdateListener;
 import android.content.Context;
 import android.content.res.ColorStateList;
 import android.content.res.TypedArray;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.ColorFilter;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.PathMeasure;
+import android.graphics.Picture;
 import android.graphics.PixelFormat;
 import android.graphics.PointF;
 import android.graphics.RectF;
@@ -53,6 +55,8 @@ import android.os.Build.VERSION;
 import android.os.Build.VERSION_CODES;
 import android.util.DisplayMetrics;
 import android.util.Log;
+import android.view.SurfaceView;
+import android.view.TextureView;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.WindowManager;
@@ -62,8 +66,10 @@ import androidx.annotation.IdRes;
 import androidx.annotation.IntDef;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
 import androidx.annotation.RestrictTo;
 import androidx.annotation.StyleRes;
+import androidx.annotation.VisibleForTesting;
 import androidx.core.view.ViewCompat;
 import androidx.transition.ArcMotion;
 import androidx.transition.PathMotion;
@@ -112,6 +118,7 @@ import java.lang.annotation.RetentionPolicy;
  * @see #setScrimColor(int)
  * @see #setFadeMode(int)
  * @see #setFitMode(int)
+ * @see #setRenderMode(int)
  * @see #setPathMotion(PathMotion)
  * @see #setFadeProgressThresholds(ProgressThresholds)
  * @see #setScaleProgressThresholds(ProgressThresholds)
@@ -190,6 +197,32 @@ public final class MaterialContainerTransform extends Transition {
   @Retention(RetentionPolicy.SOURCE)
   public @interface FitMode {}
 
+  /** Indicates that this transition should draw the start and end Views on every frame. */
+  public static final int RENDER_MODE_LIVE = 0;
+
+  /**
+   * Indicates that this transition should draw the start and end Views once into snapshots when
+   * it starts, and transform the snapshots on every frame. Changes to the Views during the
+   * transition aren't shown.
+   *
+   * <p>Snapshots are only drawn on API 28 and above, of Views without surfaces or elevated
+   * descendants. Other Views are drawn on every frame.
+   */
+  public static final int RENDER_MODE_SNAPSHOT = 1;
+
+  /**
+   * Indicates that this transition should automatically choose whether to use {@link
+   * #RENDER_MODE_LIVE} or {@link #RENDER_MODE_SNAPSHOT} for each of the start and end Views.
+   * Views with many descendants that are no larger than the display are drawn into snapshots.
+   */
+  public static final int RENDER_MODE_AUTO = 2;
+
+  /** @hide */
+  @RestrictTo(LIBRARY_GROUP)
+  @IntDef({RENDER_MODE_LIVE, RENDER_MODE_SNAPSHOT, RENDER_MODE_AUTO})
+  @Retention(RetentionPolicy.SOURCE)
+  public @interface RenderMode {}
+
   private static final String TAG = MaterialContainerTransform.class.getSimpleName();
   private static final String PROP_BOUNDS = "materialContainerTransition:bounds";
   private static final String PROP_SHAPE_APPEARANCE = "materialContainerTransition:shapeAppearance";
@@ -229,6 +262,9 @@ public final class MaterialContainerTransform extends Transition {
 
   private static final float ELEVATION_NOT_SET = -1f;
 
+  // The number of Views in a hierarchy from which it's drawn into a snapshot in the auto mode
+  private static final int AUTO_SNAPSHOT_MIN_VIEW_COUNT = 16;
+
   private boolean drawDebugEnabled = false;
   private boolean holdAtEndEnabled = false;
   private boolean pathMotionCustom = false;
@@ -243,6 +279,7 @@ public final class MaterialContainerTransform extends Transition {
   @TransitionDirection private int transitionDirection = TRANSITION_DIRECTION_AUTO;
   @FadeMode private int fadeMode = FADE_MODE_IN;
   @FitMode private int fitMode = FIT_MODE_AUTO;
+  @RenderMode private int renderMode = RENDER_MODE_LIVE;
   @Nullable private View startView;
   @Nullable private View endView;
   @Nullable private ShapeAppearanceModel startShapeAppearanceModel;
@@ -661,6 +698,26 @@ public final class MaterialContainerTransform extends Transition {
     this.fitMode = fitMode;
   }
 
+  /** The render mode used to draw the start and end Views. */
+  @RenderMode
+  public int getRenderMode() {
+    return renderMode;
+  }
+
+  /**
+   * Set the render mode used to draw the start and end Views.
+   *
+   * <p>Drawing complex Views on every frame can drop frames, which drawing snapshots of them
+   * avoids. By default, the render mode is set to {@link #RENDER_MODE_LIVE}.
+   *
+   * @see #RENDER_MODE_LIVE
+   * @see #RENDER_MODE_SNAPSHOT
+   * @see #RENDER_MODE_AUTO
+   */
+  public void setRenderMode(@RenderMode int renderMode) {
+    this.renderMode = renderMode;
+  }
+
   /**
    * Get the {@link ProgressThresholds} which define the sub-range (any range inside the full
    * progress range of 0.0 - 1.0) between which the fade animation, determined by {@link
@@ -954,6 +1011,7 @@ public final class MaterialContainerTransform extends Transition {
             FadeModeEvaluators.get(fadeMode, entering),
             FitModeEvaluators.get(fitMode, entering, startBounds, endBounds),
             buildThresholdsGroup(entering),
+            renderMode,
             drawDebugEnabled);
 
     // Set the bounds of the transition drawable to not exceed the bounds of the drawingView.
@@ -976,6 +1034,8 @@ public final class MaterialContainerTransform extends Transition {
         new TransitionListenerAdapter() {
           @Override
           public void onTransitionStart(@NonNull Transition transition) {
+            transitionDrawable.createSnapshots();
+
             // Add the transition drawable to the root ViewOverlay
             ViewUtils.getOverlay(drawingView).add(transitionDrawable);
 
@@ -988,7 +1048,9 @@ public final class MaterialContainerTransform extends Transition {
           public void onTransitionEnd(@NonNull Transition transition) {
             removeListener(this);
             if (holdAtEndEnabled) {
-              // Keep drawable showing and views hidden (useful for Activity return transitions)
+              // Keep drawable showing and views hidden (useful for Activity return transitions),
+              // drawing the views rather than holding on to their snapshots
+              transitionDrawable.releaseSnapshots();
               return;
             }
             // Show the actual views at the end of the transition
@@ -997,6 +1059,7 @@ public final class MaterialContainerTransform extends Transition {
 
             // Remove the transition drawable from the root ViewOverlay
             ViewUtils.getOverlay(drawingView).remove(transitionDrawable);
+            transitionDrawable.releaseSnapshots();
           }
         });
 
@@ -1064,6 +1127,56 @@ public final class MaterialContainerTransform extends Transition {
         defaultIfNull(shapeMaskProgressThresholds, defaultThresholds.shapeMask));
   }
 
+  /**
+   * Returns whether {@code view} should be drawn into a snapshot with {@code renderMode}. In the
+   * auto mode, Views larger than {@code maxSnapshotArea} are drawn live.
+   */
+  @VisibleForTesting
+  static boolean shouldDrawSnapshot(
+      @RenderMode int renderMode, @NonNull View view, float maxSnapshotArea) {
+    // Snapshots are recorded into pictures, which can only hold hardware bitmaps from API 28.
+    if (VERSION.SDK_INT < VERSION_CODES.P || view.getWidth() <= 0 || view.getHeight() <= 0) {
+      return false;
+    }
+    switch (renderMode) {
+      case RENDER_MODE_SNAPSHOT:
+        return countViews(view) > 0;
+      case RENDER_MODE_AUTO:
+        return (float) view.getWidth() * view.getHeight() <= maxSnapshotArea
+            && countViews(view) >= AUTO_SNAPSHOT_MIN_VIEW_COUNT;
+      case RENDER_MODE_LIVE:
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Returns the number of Views in the hierarchy of {@code view}, or 0 if any of them can't be
+   * captured by a snapshot. Snapshots miss the content of surfaces, and the shadows of elevated
+   * descendants.
+   */
+  @VisibleForTesting
+  static int countViews(@NonNull View view) {
+    int count = 1;
+    if (view instanceof ViewGroup) {
+      ViewGroup viewGroup = (ViewGroup) view;
+      for (int i = 0; i < viewGroup.getChildCount(); i++) {
+        View child = viewGroup.getChildAt(i);
+        if (ViewCompat.getZ(child) > 0) {
+          return 0;
+        }
+        int childCount = countViews(child);
+        if (childCount == 0) {
+          return 0;
+        }
+        count += childCount;
+      }
+    } else if (view instanceof SurfaceView || view instanceof TextureView) {
+      return 0;
+    }
+    return count;
+  }
+
   /**
    * A {@link Drawable} that is able to draw a point in a container transformation given a progress
    * between 0.0 and 1.0.
@@ -1117,6 +1230,12 @@ public final class MaterialContainerTransform extends Transition {
     private final FadeModeEvaluator fadeModeEvaluator;
     private final FitModeEvaluator fitModeEvaluator;
 
+    // Snapshots, drawn instead of the start and end Views if not null
+    @RenderMode private final int renderMode;
+    private final Paint snapshotPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    @Nullable private Bitmap startSnapshot;
+    @Nullable private Bitmap endSnapshot;
+
     // Debug drawing
     private final boolean drawDebugEnabled;
     private final Paint debugPaint = new Paint();
@@ -1149,6 +1268,7 @@ public final class MaterialContainerTransform extends Transition {
         FadeModeEvaluator fadeModeEvaluator,
         FitModeEvaluator fitModeEvaluator,
         ProgressThresholdsGroup progressThresholds,
+        @RenderMode int renderMode,
         boolean drawDebugEnabled) {
       this.startView = startView;
       this.startBounds = startBounds;
@@ -1163,6 +1283,7 @@ public final class MaterialContainerTransform extends Transition {
       this.fadeModeEvaluator = fadeModeEvaluator;
       this.fitModeEvaluator = fitModeEvaluator;
       this.progressThresholds = progressThresholds;
+      this.renderMode = renderMode;
       this.drawDebugEnabled = drawDebugEnabled;
 
       WindowManager windowManager =
@@ -1299,7 +1420,7 @@ public final class MaterialContainerTransform extends Transition {
           new CanvasOperation() {
             @Override
             public void run(Canvas canvas) {
-              startView.draw(canvas);
+              drawViewOrSnapshot(canvas, startView, startSnapshot);
             }
           });
     }
@@ -1317,11 +1438,59 @@ public final class MaterialContainerTransform extends Transition {
           new CanvasOperation() {
             @Override
             public void run(Canvas canvas) {
-              endView.draw(canvas);
+              drawViewOrSnapshot(canvas, endView, endSnapshot);
             }
           });
     }
 
+    private void drawViewOrSnapshot(Canvas canvas, View view, @Nullable Bitmap snapshot) {
+      // Hardware bitmaps can't be drawn to software canvases.
+      if (snapshot != null && (canvas.isHardwareAccelerated() || !isHardwareBitmap(snapshot))) {
+        canvas.drawBitmap(snapshot, 0, 0, snapshotPaint);
+      } else {
+        view.draw(canvas);
+      }
+    }
+
+    /** Draws the start and end Views into snapshots, if the render mode calls for it. */
+    void createSnapshots() {
+      if (VERSION.SDK_INT >= VERSION_CODES.P) {
+        // Larger snapshots would take up more memory than they save drawing time.
+        float maxSnapshotArea = displayWidth * displayHeight;
+        startSnapshot =
+            shouldDrawSnapshot(renderMode, startView, maxSnapshotArea)
+                ? createSnapshot(startView)
+                : null;
+        endSnapshot =
+            shouldDrawSnapshot(renderMode, endView, maxSnapshotArea)
+                ? createSnapshot(endView)
+                : null;
+      }
+    }
+
+    /** Drops the snapshots, so that the start and end Views are drawn live again. */
+    void releaseSnapshots() {
+      if (startSnapshot != null || endSnapshot != null) {
+        // Frames already recorded may still draw the bitmaps, so they're left to be collected.
+        startSnapshot = null;
+        endSnapshot = null;
+        invalidateSelf();
+      }
+    }
+
+    @RequiresApi(VERSION_CODES.P)
+    private static Bitmap createSnapshot(View view) {
+      // Pictures can record hardware bitmaps, and are drawn into a hardware bitmap on the GPU.
+      Picture picture = new Picture();
+      view.draw(picture.beginRecording(view.getWidth(), view.getHeight()));
+      picture.endRecording();
+      return Bitmap.createBitmap(picture);
+    }
+
+    private static boolean isHardwareBitmap(Bitmap bitmap) {
+      return VERSION.SDK_INT >= VERSION_CODES.O && bitmap.getConfig() == Bitmap.Config.HARDWARE;
+    }
+
     private void maybeDrawContainerColor(Canvas canvas, Paint containerPaint) {
       // Fill the container at the current layer with a color. Useful when the start or end view
       // does not have a background or when the container size exceeds the image size which it can
@@ -169,7 +169,7 @@ class TransitionUtils {
         .build();
   }
 
-  private static boolean isShapeAppearanceSignificant(
+  static boolean isShapeAppearanceSignificant(
       ShapeAppearanceModel shapeAppearanceModel, RectF bounds) {
     return shapeAppearanceModel.getTopLeftCornerSize().getCornerSize(bounds) != 0
         || shapeAppearanceModel.getTopRightCornerSize().getCornerSize(bounds) != 0
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/*
+ * NOTE: THIS CLASS IS AUTO-GENERATED FROM THE EQUIVALENT CLASS IN THE PARENT TRANSITION PACKAGE.
+ * IT SHOULD NOT BE EDITED DIRECTLY.
+ */
+package com.google.android.material.transition.platform;
+
+import static com.google.android.material.transition.platform.TransitionUtils.isShapeAppearanceSignificant;
+import static com.google.android.material.transition.platform.TransitionUtils.lerp;
+
+import android.graphics.RectF;
+import androidx.annotation.FloatRange;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import com.google.android.material.shape.CornerSize;
+import com.google.android.material.shape.ShapeAppearanceModel;
+
+/**
+ * A shape interpolated between a start and an end {@link ShapeAppearanceModel}, which is updated in
+ * place for each frame of a transition rather than built again.
+ *
+ * <p>The corner sizes of the interpolated model change on every update, so the model must not be
+ * kept, or used as a key, past the next update.
+ */
+@androidx.annotation.RequiresApi(android.os.Build.VERSION_CODES.LOLLIPOP)
+class InterpolatedShapeAppearance {
+
+  private final MutableCornerSize topLeftCornerSize = new MutableCornerSize();
+  private final MutableCornerSize topRightCornerSize = new MutableCornerSize();
+  private final MutableCornerSize bottomRightCornerSize = new MutableCornerSize();
+  private final MutableCornerSize bottomLeftCornerSize = new MutableCornerSize();
+
+  // The model whose corner and edge treatments the interpolated model has.
+  @Nullable private ShapeAppearanceModel treatmentsModel;
+  @Nullable private ShapeAppearanceModel interpolatedModel;
+
+  /**
+   * Interpolates the corner sizes of {@code startValue} in {@code startBounds} and of {@code
+   * endValue} in {@code endBounds}, the same way as {@code TransitionUtils.lerp()} does for shapes,
+   * and returns the interpolated model.
+   */
+  @NonNull
+  ShapeAppearanceModel interpolate(
+      @NonNull ShapeAppearanceModel startValue,
+      @NonNull ShapeAppearanceModel endValue,
+      @NonNull RectF startBounds,
+      @NonNull RectF endBounds,
+      @FloatRange(from = 0.0, to = 1.0) float startFraction,
+      @FloatRange(from = 0.0, to = 1.0) float endFraction,
+      @FloatRange(from = 0.0, to = 1.0) float fraction) {
+    if (fraction < startFraction) {
+      return startValue;
+    }
+    if (fraction > endFraction) {
+      return endValue;
+    }
+
+    ShapeAppearanceModel treatmentsModel =
+        isShapeAppearanceSignificant(startValue, startBounds) ? startValue : endValue;
+    if (interpolatedModel == null || this.treatmentsModel != treatmentsModel) {
+      this.treatmentsModel = treatmentsModel;
+      interpolatedModel =
+          treatmentsModel.toBuilder()
+              .setTopLeftCornerSize(topLeftCornerSize)
+              .setTopRightCornerSize(topRightCornerSize)
+              .setBottomRightCornerSize(bottomRightCornerSize)
+              .setBottomLeftCornerSize(bottomLeftCornerSize)
+              .build();
+    }
+
+    topLeftCornerSize.size =
+        lerp(
+            startValue.getTopLeftCornerSize().getCornerSize(startBounds),
+            endValue.getTopLeftCornerSize().getCornerSize(endBounds),
+            startFraction,
+            endFraction,
+            fraction);
+    topRightCornerSize.size =
+        lerp(
+            startValue.getTopRightCornerSize().getCornerSize(startBounds),
+            endValue.getTopRightCornerSize().getCornerSize(endBounds),
+            startFraction,
+            endFraction,
+            fraction);
+    bottomRightCornerSize.size =
+        lerp(
+            startValue.getBottomRightCornerSize().getCornerSize(startBounds),
+            endValue.getBottomRightCornerSize().getCornerSize(endBounds),
+            startFraction,
+            endFraction,
+            fraction);
+    bottomLeftCornerSize.size =
+        lerp(
+            startValue.getBottomLeftCornerSize().getCornerSize(startBounds),
+            endValue.getBottomLeftCornerSize().getCornerSize(endBounds),
+            startFraction,
+            endFraction,
+            fraction);
+    return interpolatedModel;
+  }
+
+  /**
+   * A corner size that ignores the bounds, like {@link
+   * com.google.android.material.shape.AbsoluteCornerSize}, but can be changed. Being of its own
+   * class also keeps the interpolated model out of the caches of shapes that are compared by value.
+   */
+  private static final class MutableCornerSize implements CornerSize {
+    float size;
+
+    @Override
+    public float getCornerSize(@NonNull RectF bounds) {
+      return size;
+    }
+  }
+}
@@ -18,6 +18,8 @@ package com.google.android.material.color;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -32,72 +34,99 @@ public final class BlendTest {
   @Test
   public void harmonize_redToBlue() {
     int blended = Blend.harmonize(RED, BLUE);
-    assertThat(blended).isEqualTo(0xffFB0054);
+    assertThat(blended).isEqualTo(0xffFB0057);
   }
 
   @Test
   public void harmonize_redToGreen() {
     int answer = Blend.harmonize(RED, GREEN);
-    assertThat(answer).isEqualTo(0xffDA5400);
+    assertThat(answer).isEqualTo(0xffD85600);
   }
 
   @Test
   public void harmonize_redToYellow() {
     int answer = Blend.harmonize(RED, YELLOW);
-    assertThat(answer).isEqualTo(0xffDA5400);
+    assertThat(answer).isEqualTo(0xffD85600);
   }
 
   @Test
   public void harmonize_blueToGreen() {
     int answer = Blend.harmonize(BLUE, GREEN);
-    assertThat(answer).isEqualTo(0xff0047A7);
+    assertThat(answer).isEqualTo(0xff0047A3);
   }
 
   @Test
   public void harmonize_blueToRed() {
     int answer = Blend.harmonize(BLUE, RED);
-    assertThat(answer).isEqualTo(0xff5600DF);
+    assertThat(answer).isEqualTo(0xff5700DC);
   }
 
   @Test
   public void harmonize_blueToYellow() {
     int answer = Blend.harmonize(BLUE, YELLOW);
-    assertThat(answer).isEqualTo(0xff0047A7);
+    assertThat(answer).isEqualTo(0xff0047A3);
   }
 
   @Test
   public void harmonize_greenToBlue() {
     int answer = Blend.harmonize(GREEN, BLUE);
-    assertThat(answer).isEqualTo(0xff00FC91);
+    assertThat(answer).isEqualTo(0xff00FC94);
   }
 
   @Test
   public void harmonize_greenToRed() {
     int answer = Blend.harmonize(GREEN, RED);
-    assertThat(answer).isEqualTo(0xffADF000);
+    assertThat(answer).isEqualTo(0xffB1F000);
   }
 
   @Test
   public void harmonize_greenToYellow() {
     int answer = Blend.harmonize(GREEN, YELLOW);
-    assertThat(answer).isEqualTo(0xffADF000);
+    assertThat(answer).isEqualTo(0xffB1F000);
   }
 
   @Test
   public void harmonize_yellowToBlue() {
     int answer = Blend.harmonize(YELLOW, BLUE);
-    assertThat(answer).isEqualTo(0xffEBFFB2);
+    assertThat(answer).isEqualTo(0xffEBFFBA);
   }
 
   @Test
   public void harmonize_yellowToGreen() {
     int answer = Blend.harmonize(YELLOW, GREEN);
-    assertThat(answer).isEqualTo(0xffEBFFB2);
+    assertThat(answer).isEqualTo(0xffEBFFBA);
   }
 
   @Test
   public void harmonize_yellowToRed() {
     int answer = Blend.harmonize(YELLOW, RED);
-    assertThat(answer).isEqualTo(0xffFFF6DC);
+    assertThat(answer).isEqualTo(0xffFFF6E3);
+  }
+
+  @Test
+  public void harmonize_array_matchesHarmonizingEachColor() {
+    int[] designColors = new int[] {RED, GREEN, YELLOW, 0xff123456};
+
+    int[] answers = Blend.harmonize(designColors, BLUE, /* executor= */ null);
+
+    assertThat(answers.length).isEqualTo(designColors.length);
+    for (int i = 0; i < designColors.length; i++) {
+      assertThat(answers[i]).isEqualTo(Blend.harmonize(designColors[i], BLUE));
+    }
+  }
+
+  @Test
+  public void harmonize_largeArrayOnExecutor_matchesCallingThread() {
+    int[] designColors = new int[10000];
+    for (int i = 0; i < designColors.length; i++) {
+      designColors[i] = 0xff000000 | (i * 1663);
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      assertThat(Blend.harmonize(designColors, BLUE, executor))
+          .isEqualTo(Blend.harmonize(designColors, BLUE, /* executor= */ null));
+    } finally {
+      executor.shutdown();
+    }
   }
 }
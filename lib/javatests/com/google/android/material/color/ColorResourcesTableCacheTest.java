@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.color;
+
+import com.google.android.material.R;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.content.res.loader.ResourcesLoader;
+import android.os.Build.VERSION_CODES;
+import androidx.test.core.app.ApplicationProvider;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/** Tests for {@link ColorResourcesTableCache}. */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = VERSION_CODES.R)
+public final class ColorResourcesTableCacheTest {
+
+  private static final ByteBuffer TABLE = ByteBuffer.wrap(new byte[] {1, 2, 3, 4});
+
+  private final Context context = ApplicationProvider.getApplicationContext();
+
+  @Before
+  public void clearLastTableFile() {
+    ColorResourcesTableCache.clearLastTableFile();
+  }
+
+  @Test
+  public void getTableFile_sameMapping_returnsSameFile() {
+    Map<Integer, Integer> mapping = new LinkedHashMap<>();
+    mapping.put(R.color.design_default_color_primary, 0xff112233);
+    mapping.put(R.color.design_default_color_secondary, 0xff445566);
+    Map<Integer, Integer> reorderedMapping = new LinkedHashMap<>();
+    reorderedMapping.put(R.color.design_default_color_secondary, 0xff445566);
+    reorderedMapping.put(R.color.design_default_color_primary, 0xff112233);
+
+    File file = ColorResourcesTableCache.getTableFile(context, mapping);
+    ColorResourcesTableCache.clearLastTableFile();
+
+    assertThat(ColorResourcesTableCache.getTableFile(context, reorderedMapping)).isEqualTo(file);
+  }
+
+  @Test
+  public void getTableFile_differentMapping_returnsDifferentFile() {
+    File file = ColorResourcesTableCache.getTableFile(context, createMapping(0xff112233));
+
+    assertThat(ColorResourcesTableCache.getTableFile(context, createMapping(0xff112234)))
+        .isNotEqualTo(file);
+  }
+
+  @Test
+  public void putTable_evictsTablesOfOtherVersions() throws IOException {
+    File tableFile = ColorResourcesTableCache.getTableFile(context, createMapping(0xff112233));
+    File directory = tableFile.getParentFile();
+    directory.mkdirs();
+    File oldTableFile = createFile(directory, "v0-0-0123.arsc");
+
+    assertThat(ColorResourcesTableCache.putTable(tableFile, TABLE.duplicate())).isTrue();
+
+    assertThat(tableFile.length()).isEqualTo(TABLE.remaining());
+    assertThat(oldTableFile.exists()).isFalse();
+  }
+
+  @Test
+  public void putTable_evictsLeastRecentlyUsedTables() throws IOException {
+    File tableFile = ColorResourcesTableCache.getTableFile(context, createMapping(0xff112233));
+    File directory = tableFile.getParentFile();
+    directory.mkdirs();
+    String versionPrefix = getVersionPrefix(tableFile);
+    long now = System.currentTimeMillis();
+    File[] cachedTableFiles = new File[8];
+    for (int i = 0; i < cachedTableFiles.length; i++) {
+      cachedTableFiles[i] = createFile(directory, versionPrefix + i + ".arsc");
+      cachedTableFiles[i].setLastModified(now - TimeUnit.HOURS.toMillis(i + 1));
+    }
+
+    assertThat(ColorResourcesTableCache.putTable(tableFile, TABLE.duplicate())).isTrue();
+
+    // Only the least recently used table makes room for the new one.
+    assertThat(tableFile.exists()).isTrue();
+    for (int i = 0; i < cachedTableFiles.length - 1; i++) {
+      assertThat(cachedTableFiles[i].exists()).isTrue();
+    }
+    assertThat(cachedTableFiles[cachedTableFiles.length - 1].exists()).isFalse();
+  }
+
+  @Test
+  public void putTable_evictsOnlyStaleTempFiles() throws IOException {
+    File tableFile = ColorResourcesTableCache.getTableFile(context, createMapping(0xff112233));
+    File directory = tableFile.getParentFile();
+    directory.mkdirs();
+    String versionPrefix = getVersionPrefix(tableFile);
+    File staleTempFile = createFile(directory, versionPrefix + "stale.tmp");
+    staleTempFile.setLastModified(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1));
+    File pendingTempFile = createFile(directory, versionPrefix + "pending.tmp");
+
+    assertThat(ColorResourcesTableCache.putTable(tableFile, TABLE.duplicate())).isTrue();
+
+    assertThat(staleTempFile.exists()).isFalse();
+    // May still be written by another process of the app.
+    assertThat(pendingTempFile.exists()).isTrue();
+  }
+
+  @Test
+  public void putTable_failedRename_deletesTempFile() throws IOException {
+    File tableFile = ColorResourcesTableCache.getTableFile(context, createMapping(0xff112233));
+    // A table file can't replace a directory that isn't empty.
+    tableFile.mkdirs();
+    createFile(tableFile, "child");
+    File directory = tableFile.getParentFile();
+
+    assertThat(ColorResourcesTableCache.putTable(tableFile, TABLE.duplicate())).isFalse();
+
+    assertThat(directory.list()).asList().containsExactly(tableFile.getName());
+  }
+
+  @Test
+  public void create_emptyCachedTable_recreatesTable() throws IOException {
+    testCreateWithBrokenCachedTable(new byte[0]);
+  }
+
+  @Test
+  public void create_truncatedCachedTable_recreatesTable() throws IOException {
+    Map<Integer, Integer> mapping = createMapping(0xff112233);
+    ByteBuffer table = ColorResourcesTableCreator.create(context, mapping);
+    byte[] truncatedTable = new byte[table.remaining() / 2];
+    table.get(truncatedTable);
+
+    testCreateWithBrokenCachedTable(truncatedTable);
+  }
+
+  private void testCreateWithBrokenCachedTable(byte[] cachedTable) throws IOException {
+    Map<Integer, Integer> mapping = createMapping(0xff112233);
+    File tableFile = ColorResourcesTableCache.getTableFile(context, mapping);
+    tableFile.getParentFile().mkdirs();
+    try (FileOutputStream outputStream = new FileOutputStream(tableFile)) {
+      outputStream.write(cachedTable);
+    }
+
+    ResourcesLoader loader =
+        ColorResourcesLoaderCreator.create(context, mapping, /* cacheEnabled= */ true);
+
+    assertThat(loader).isNotNull();
+    assertThat(tableFile.length())
+        .isEqualTo(ColorResourcesTableCreator.create(context, mapping).remaining());
+  }
+
+  private static Map<Integer, Integer> createMapping(int primaryColor) {
+    Map<Integer, Integer> mapping = new HashMap<>();
+    mapping.put(R.color.design_default_color_primary, primaryColor);
+    return mapping;
+  }
+
+  private static File createFile(File directory, String name) throws IOException {
+    File file = new File(directory, name);
+    assertThat(file.createNewFile()).isTrue();
+    return file;
+  }
+
+  private static String getVersionPrefix(File tableFile) {
+    String fileName = tableFile.getName();
+    return fileName.substring(0, fileName.lastIndexOf('-') + 1);
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.color;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.android.material.color.ColorResourcesTableCreator.ColorResource;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.internal.DoNotInstrument;
+
+/** Tests for {@link ColorResourcesTableCreator}. */
+@RunWith(RobolectricTestRunner.class)
+@DoNotInstrument
+public final class ColorResourcesTableCreatorTest {
+
+  private static final String PACKAGE_NAME = "com.example.app";
+
+  /** The table for {@link #createColorResources()}, as written by the stream based creator. */
+  private static final String EXPECTED_TABLE =
+      "02000c00c00200000100000001001c001c0000000000000000000000000000001c00000000000000"
+          + "00022001980200007f00000063006f006d002e006500780061006d0070006c0065002e0061007000"
+          + "70000000000000000000000000000000000000000000000000000000000000000000000000000000"
+          + "00000000000000000000000000000000000000000000000000000000000000000000000000000000"
+          + "00000000000000000000000000000000000000000000000000000000000000000000000000000000"
+          + "00000000000000000000000000000000000000000000000000000000000000000000000000000000"
+          + "00000000000000000000000000000000000000000000000000000000000000000000000000000000"
+          + "0000000000000000000000000000000000000000000000000000000020010000000000008c010000"
+          + "000000000000000001001c006c000000060000000000000000000000340000000000000000000000"
+          + "080000001000000018000000200000002800000002003f003100000002003f003200000002003f00"
+          + "3300000002003f003400000002003f0035000000050063006f006c006f0072000000000001001c00"
+          + "68000000020000000000000000010000240000000000000000000000200000001d1d636f6d2e6578"
+          + "616d706c652e6170703a636f6c6f722f7072696d617279001f1f636f6d2e6578616d706c652e6170"
+          + "703a636f6c6f722f7365636f6e646172790000000202100020000000060000000400000000000000"
+          + "00000040000000000000004001025400840000000600000004000000640000004000000000000000"
+          + "00000000000000000000000000000000000000000000000000000000000000000000000000000000"
+          + "00000000000000000000000000000000ffffffff00000000ffffffff100000000800020000000000"
+          + "0800001cee0062ff08000200010000000800001cc6da03ff";
+
+  @Test
+  public void create_matchesStreamBasedOutput() {
+    ByteBuffer table = ColorResourcesTableCreator.create(PACKAGE_NAME, createColorResources());
+
+    assertThat(toHex(table)).isEqualTo(EXPECTED_TABLE);
+  }
+
+  @Test
+  public void create_bufferHoldsExactlyTheTable() {
+    List<ColorResource> colorResources = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      colorResources.add(
+          new ColorResource(0x7f060000 + i, PACKAGE_NAME + ":color/color" + i, 0xff000000 | i));
+      colorResources.add(new ColorResource(0x01060000 + i, "android:color/color" + i, i));
+    }
+
+    ByteBuffer table = ColorResourcesTableCreator.create(PACKAGE_NAME, colorResources);
+
+    assertThat(table.order()).isEqualTo(ByteOrder.LITTLE_ENDIAN);
+    assertThat(table.position()).isEqualTo(0);
+    assertThat(table.remaining()).isEqualTo(table.capacity());
+    // The size of the table chunk, from its header.
+    assertThat(table.getInt(4)).isEqualTo(table.capacity());
+    // Two packages.
+    assertThat(table.getInt(8)).isEqualTo(2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void create_nonColorResource_throws() {
+    ColorResourcesTableCreator.create(
+        PACKAGE_NAME,
+        Arrays.asList(new ColorResource(0x7f010001, PACKAGE_NAME + ":attr/colorPrimary", 0)));
+  }
+
+  private static List<ColorResource> createColorResources() {
+    return Arrays.asList(
+        new ColorResource(0x7f060001, PACKAGE_NAME + ":color/primary", 0xff6200ee),
+        new ColorResource(0x7f060003, PACKAGE_NAME + ":color/secondary", 0xff03dac6));
+  }
+
+  private static String toHex(ByteBuffer buffer) {
+    StringBuilder hex = new StringBuilder();
+    while (buffer.hasRemaining()) {
+      hex.append(String.format("%02x", buffer.get()));
+    }
+    return hex.toString();
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.color;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class ColorUtilsTest {
+
+  @Test
+  public void linearizedComponent_matchesLinearized() {
+    for (int channel = 0; channel <= 255; channel++) {
+      assertThat(ColorUtils.linearizedComponent(channel))
+          .isEqualTo(ColorUtils.linearized(channel / 255f) * 100f);
+    }
+  }
+
+  @Test
+  public void delinearizedComponent_roundTripsChannels() {
+    for (int channel = 0; channel <= 255; channel++) {
+      assertThat(ColorUtils.delinearizedComponent(ColorUtils.linearizedComponent(channel)))
+          .isEqualTo(channel);
+    }
+  }
+
+  @Test
+  public void delinearizedComponent_matchesDelinearized() {
+    for (int i = 0; i <= 100000; i++) {
+      double linearComponent = i / 1000.0;
+      double exact = ColorUtils.delinearized((float) (linearComponent / 100.0)) * 255.0;
+      int channel = ColorUtils.delinearizedComponent(linearComponent);
+
+      // Ties may round either way, as delinearized() is only accurate to a float.
+      assertEquals(exact, channel, 0.5 + 1e-4);
+    }
+  }
+
+  @Test
+  public void delinearizedComponent_clampsOutOfGamutComponents() {
+    assertThat(ColorUtils.delinearizedComponent(-5.0)).isEqualTo(0);
+    assertThat(ColorUtils.delinearizedComponent(105.0)).isEqualTo(255);
+    assertThat(ColorUtils.delinearizedComponent(Double.NaN)).isEqualTo(0);
+  }
+
+  @Test
+  public void yFromLstar_matchesLstarFromY() {
+    for (int i = 0; i <= 1000; i++) {
+      float lstar = i / 10f;
+
+      assertEquals(lstar, ColorUtils.lstarFromY(ColorUtils.yFromLstar(lstar)), 1e-3);
+    }
+  }
+
+  @Test
+  public void intFromLstar_matchesLstarFromInt() {
+    for (int lstar = 0; lstar <= 100; lstar++) {
+      assertEquals(lstar, ColorUtils.lstarFromInt(ColorUtils.intFromLstar(lstar)), 0.5);
+    }
+  }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.color;
+
+import com.google.android.material.R;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Build.VERSION_CODES;
+import androidx.annotation.NonNull;
+import androidx.test.core.app.ApplicationProvider;
+import com.google.android.material.color.DynamicColors.OnAppliedCallback;
+import com.google.android.material.color.DynamicColors.Precondition;
+import com.google.android.material.color.DynamicColors.TimingCallback;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.android.controller.ActivityController;
+import org.robolectric.annotation.Config;
+
+/** Tests for {@link DynamicColors} applied to all activities. */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = VERSION_CODES.Q)
+public final class DynamicColorsTest {
+
+  private final Application application = ApplicationProvider.getApplicationContext();
+  private final RecordingTimingCallback timingCallback = new RecordingTimingCallback();
+
+  @Test
+  public void withPrecomputeExecutor_precomputesOnRegistration() {
+    DynamicColors.applyToActivitiesIfAvailable(
+        application,
+        new DynamicColorsOptions.Builder()
+            .setPrecomputeExecutor(new DirectExecutor())
+            .setTimingCallback(timingCallback)
+            .build());
+
+    assertThat(timingCallback.precomputedCount).isEqualTo(1);
+    assertThat(timingCallback.precomputedDurationNanos).isAtLeast(0L);
+    assertThat(timingCallback.preCreatedActivities).isEmpty();
+  }
+
+  @Test
+  public void withPrecomputeExecutor_reportsPrecomputedActivity() {
+    DynamicColors.applyToActivitiesIfAvailable(
+        application,
+        new DynamicColorsOptions.Builder()
+            .setPrecomputeExecutor(new DirectExecutor())
+            .setTimingCallback(timingCallback)
+            .build());
+
+    Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+
+    assertThat(timingCallback.preCreatedActivities).containsExactly(activity);
+    assertThat(timingCallback.precomputed).containsExactly(true);
+    assertThat(timingCallback.preCreatedDurationNanos).isAtLeast(0L);
+  }
+
+  @Test
+  public void withoutPrecomputeExecutor_reportsActivityNotPrecomputed() {
+    DynamicColors.applyToActivitiesIfAvailable(
+        application, new DynamicColorsOptions.Builder().setTimingCallback(timingCallback).build());
+
+    Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+
+    assertThat(timingCallback.precomputedCount).isEqualTo(0);
+    assertThat(timingCallback.preCreatedActivities).containsExactly(activity);
+    assertThat(timingCallback.precomputed).containsExactly(false);
+  }
+
+  @Test
+  public void pendingPrecomputation_fallsBackToMainThread() {
+    PendingExecutor executor = new PendingExecutor();
+    DynamicColors.applyToActivitiesIfAvailable(
+        application,
+        new DynamicColorsOptions.Builder()
+            .setPrecomputeExecutor(executor)
+            .setTimingCallback(timingCallback)
+            .build());
+
+    Robolectric.buildActivity(Activity.class).create();
+    executor.runPending();
+    Robolectric.buildActivity(Activity.class).create();
+
+    assertThat(timingCallback.precomputedCount).isEqualTo(1);
+    assertThat(timingCallback.precomputed).containsExactly(false, true).inOrder();
+  }
+
+  @Test
+  public void rejectingPrecomputeExecutor_fallsBackToMainThread() {
+    DynamicColors.applyToActivitiesIfAvailable(
+        application,
+        new DynamicColorsOptions.Builder()
+            .setPrecomputeExecutor(
+                new Executor() {
+                  @Override
+                  public void execute(@NonNull Runnable command) {
+                    throw new RejectedExecutionException();
+                  }
+                })
+            .setTimingCallback(timingCallback)
+            .build());
+
+    Robolectric.buildActivity(Activity.class).create();
+
+    assertThat(timingCallback.precomputedCount).isEqualTo(0);
+    assertThat(timingCallback.precomputed).containsExactly(false);
+  }
+
+  @Test
+  public void precomputedUnavailable_doesNotApply() {
+    final List<Activity> appliedActivities = new ArrayList<>();
+    DynamicColors.applyToActivitiesIfAvailable(
+        application,
+        new DynamicColorsOptions.Builder()
+            .setPrecomputeExecutor(new DirectExecutor())
+            .setOnAppliedCallback(
+                new OnAppliedCallback() {
+                  @Override
+                  public void onApplied(@NonNull Activity activity) {
+                    appliedActivities.add(activity);
+                  }
+                })
+            .build());
+
+    Robolectric.buildActivity(Activity.class).create();
+
+    // Dynamic colors are not available below S.
+    assertThat(appliedActivities).isEmpty();
+  }
+
+  @Test
+  @Config(sdk = VERSION_CODES.S)
+  public void precomputedDefaultOverlay_isResolvedFromActivityTheme() {
+    application.getApplicationInfo().theme = R.style.Theme_Material3_Light;
+    final List<Integer> themeOverlays = new ArrayList<>();
+    DynamicColors.applyToActivitiesIfAvailable(
+        application,
+        new DynamicColorsOptions.Builder()
+            .setPrecomputeExecutor(new DirectExecutor())
+            .setPrecondition(
+                new Precondition() {
+                  @Override
+                  public boolean shouldApplyDynamicColors(@NonNull Activity activity, int theme) {
+                    themeOverlays.add(theme);
+                    return false;
+                  }
+                })
+            .setTimingCallback(timingCallback)
+            .build());
+
+    ActivityController<Activity> controller = Robolectric.buildActivity(Activity.class);
+    controller.get().setTheme(R.style.Theme_Material3_Dark);
+    controller.create();
+
+    assertThat(timingCallback.precomputed).containsExactly(true);
+    assertThat(themeOverlays).containsExactly(R.style.ThemeOverlay_Material3_DynamicColors_Dark);
+  }
+
+  private static class DirectExecutor implements Executor {
+    @Override
+    public void execute(@NonNull Runnable command) {
+      command.run();
+    }
+  }
+
+  private static class PendingExecutor implements Executor {
+    private final List<Runnable> pending = new ArrayList<>();
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+      pending.add(command);
+    }
+
+    void runPending() {
+      for (Runnable command : pending) {
+        command.run();
+      }
+      pending.clear();
+    }
+  }
+
+  private static class RecordingTimingCallback implements TimingCallback {
+    private int precomputedCount;
+    private long precomputedDurationNanos = -1;
+    private long preCreatedDurationNanos = -1;
+    private final List<Activity> preCreatedActivities = new ArrayList<>();
+    private final List<Boolean> precomputed = new ArrayList<>();
+
+    @Override
+    public void onPrecomputed(long durationNanos) {
+      precomputedCount++;
+      precomputedDurationNanos = durationNanos;
+    }
+
+    @Override
+    public void onActivityPreCreated(
+        @NonNull Activity activity, long durationNanos, boolean precomputed) {
+      preCreatedActivities.add(activity);
+      preCreatedDurationNanos = durationNanos;
+      this.precomputed.add(precomputed);
+    }
+  }
+}
@@ -90,6 +90,28 @@ public final class HctTest {
     assertEquals(0.0, cam.getQ(), 0.001);
   }
 
+  @Test
+  public void camFromArgb_dimensionsMatchInstance() {
+    float[] dimensions = new float[Cam16.DIMENSION_COUNT];
+    for (int argb : new int[] {RED, GREEN, BLUE, WHITE, BLACK}) {
+      Cam16 cam = Cam16.fromInt(argb);
+      Cam16.fromInt(argb, dimensions);
+
+      assertEquals(cam.getHue(), dimensions[Cam16.HUE], 0.0);
+      assertEquals(cam.getChroma(), dimensions[Cam16.CHROMA], 0.0);
+      assertEquals(cam.getJ(), dimensions[Cam16.J], 0.0);
+      assertEquals(cam.getQ(), dimensions[Cam16.Q], 0.0);
+      assertEquals(cam.getM(), dimensions[Cam16.M], 0.0);
+      assertEquals(cam.getS(), dimensions[Cam16.S], 0.0);
+      assertEquals(cam.getJStar(), dimensions[Cam16.JSTAR], 0.0);
+      assertEquals(cam.getAStar(), dimensions[Cam16.ASTAR], 0.0);
+      assertEquals(cam.getBStar(), dimensions[Cam16.BSTAR], 0.0);
+      assertEquals(
+          argb,
+          Cam16.intFromJch(dimensions[Cam16.J], dimensions[Cam16.CHROMA], dimensions[Cam16.HUE]));
+    }
+  }
+
   @Test
   public void camToArgbToCam_red() {
     Cam16 cam = Cam16.fromInt(RED);
@@ -111,6 +133,110 @@ public final class HctTest {
     assertEquals(BLUE, argb);
   }
 
+  @Test
+  public void hctSolver_roundTripsSrgbColors() {
+    for (int r = 0; r < 256; r += 17) {
+      for (int g = 0; g < 256; g += 17) {
+        for (int b = 0; b < 256; b += 17) {
+          int argb = ColorUtils.intFromRgb(r, g, b);
+          Cam16 cam = Cam16.fromInt(argb);
+          int solved =
+              HctSolver.solveToInt(cam.getHue(), cam.getChroma(), ColorUtils.lstarFromInt(argb));
+          assertEquals(argb, solved);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void hctSolver_matchesGamutMapWithinOneStep() {
+    for (int r = 0; r < 256; r += 51) {
+      for (int g = 0; g < 256; g += 51) {
+        for (int b = 0; b < 256; b += 51) {
+          int argb = ColorUtils.intFromRgb(r, g, b);
+          Cam16 cam = Cam16.fromInt(argb);
+          float tone = ColorUtils.lstarFromInt(argb);
+          int solved = HctSolver.solveToInt(cam.getHue(), cam.getChroma(), tone);
+          int searched =
+              Hct.gamutMapInViewingConditions(
+                  cam.getHue(), cam.getChroma(), tone, ViewingConditions.DEFAULT);
+          assertEquals(ColorUtils.redFromInt(searched), ColorUtils.redFromInt(solved), 1);
+          assertEquals(ColorUtils.greenFromInt(searched), ColorUtils.greenFromInt(solved), 1);
+          assertEquals(ColorUtils.blueFromInt(searched), ColorUtils.blueFromInt(solved), 1);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void hctSolver_outOfGamutKeepsHueAndTone() {
+    for (int hue = 0; hue < 360; hue += 30) {
+      for (int tone = 10; tone <= 90; tone += 10) {
+        int solved = HctSolver.solveToInt(hue, 200f, tone);
+        Cam16 cam = Cam16.fromInt(solved);
+        assertEquals(tone, ColorUtils.lstarFromInt(solved), 0.5);
+        assertEquals(0, MathUtils.differenceDegrees(hue, cam.getHue()), 2.0);
+      }
+    }
+  }
+
+  @Test
+  public void hctSolver_outOfGamutFindsMaxChromaAtHueAndTone() {
+    for (int hue = 0; hue < 360; hue += 30) {
+      for (int tone = 10; tone <= 90; tone += 20) {
+        int solved = HctSolver.solveToInt(hue, 200f, tone);
+        assertEquals(maxChromaByBruteForce(hue, tone), Cam16.fromInt(solved).getChroma(), 1.0);
+      }
+    }
+    // Hct#gamutMapInViewingConditions finds a chroma of 65 here, but only 0.85 degrees off of the
+    // requested hue.
+    int solved = HctSolver.solveToInt(102f, 65f, 91f);
+    assertEquals(maxChromaByBruteForce(102f, 91f), Cam16.fromInt(solved).getChroma(), 1.0);
+  }
+
+  /**
+   * Returns the chroma of the color on the boundary of the sRGB gamut with the given hue and tone,
+   * by scanning the edges of the polygon where the plane of the tone's luminance cuts the sRGB
+   * cube.
+   */
+  private static float maxChromaByBruteForce(float hue, float tone) {
+    final int steps = 10000;
+    float[] yFromLinrgb = {0.2126f, 0.7152f, 0.0722f};
+    float y = ColorUtils.yFromLstar(tone);
+    float[] linrgb = new float[3];
+    float[] cam = new float[Cam16.DIMENSION_COUNT];
+    float closestHueDifference = 360f;
+    float chroma = 0f;
+    for (int axis = 0; axis < 3; axis++) {
+      int second = (axis + 1) % 3;
+      int third = (axis + 2) % 3;
+      for (float face = 0f; face <= 100f; face += 100f) {
+        for (int i = 0; i <= steps; i++) {
+          linrgb[axis] = face;
+          linrgb[second] = 100f * i / steps;
+          linrgb[third] =
+              (y - yFromLinrgb[axis] * face - yFromLinrgb[second] * linrgb[second])
+                  / yFromLinrgb[third];
+          if (linrgb[third] < 0f || linrgb[third] > 100f) {
+            continue;
+          }
+          Cam16.fromXyzInViewingConditions(
+              0.41233895f * linrgb[0] + 0.35762064f * linrgb[1] + 0.18051042f * linrgb[2],
+              0.2126f * linrgb[0] + 0.7152f * linrgb[1] + 0.0722f * linrgb[2],
+              0.01932141f * linrgb[0] + 0.11916382f * linrgb[1] + 0.95034478f * linrgb[2],
+              ViewingConditions.DEFAULT,
+              cam);
+          float hueDifference = MathUtils.differenceDegrees(hue, cam[Cam16.HUE]);
+          if (hueDifference < closestHueDifference) {
+            closestHueDifference = hueDifference;
+            chroma = cam[Cam16.CHROMA];
+          }
+        }
+      }
+    }
+    return chroma;
+  }
+
   @Test
   public void viewingConditions_default() {
     ViewingConditions vc = ViewingConditions.DEFAULT;
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.color;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.Arrays;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class QuantizerTest {
+  private static final int RED = 0xffff0000;
+  private static final int GREEN = 0xff00ff00;
+  private static final int BLUE = 0xff0000ff;
+
+  @Test
+  public void fromSortedRuns_mergesAndCountsColors() {
+    int[] pixels = new int[] {RED, RED, BLUE, 0, RED, BLUE, GREEN};
+    ColorHistogram histogram =
+        ColorHistogram.fromSortedRuns(
+            sortRuns(pixels, new int[] {0, 4}, new int[] {3, 3}),
+            new int[] {0, 4},
+            new int[] {3, 3});
+
+    assertThat(histogram.getSize()).isEqualTo(3);
+    assertThat(histogram.getColor(0)).isEqualTo(BLUE);
+    assertThat(histogram.getCount(0)).isEqualTo(2);
+    assertThat(histogram.getColor(1)).isEqualTo(GREEN);
+    assertThat(histogram.getCount(1)).isEqualTo(1);
+    assertThat(histogram.getColor(2)).isEqualTo(RED);
+    assertThat(histogram.getCount(2)).isEqualTo(3);
+  }
+
+  @Test
+  public void quantizeWu_separatesDistinctColors() {
+    ColorHistogram histogram =
+        new ColorHistogram(new int[] {RED, GREEN, BLUE}, new int[] {10, 20, 30}, 3);
+    QuantizerWu quantizer = new QuantizerWu();
+
+    int[] clusters = quantizer.quantize(histogram, 128);
+
+    assertThat(clusters.length).isEqualTo(3);
+    assertThat(clusters[quantizer.getClusterIndex(RED)]).isEqualTo(RED);
+    assertThat(clusters[quantizer.getClusterIndex(GREEN)]).isEqualTo(GREEN);
+    assertThat(clusters[quantizer.getClusterIndex(BLUE)]).isEqualTo(BLUE);
+  }
+
+  @Test
+  public void quantizeWsmeans_mergesNearbyColors() {
+    ColorHistogram histogram =
+        new ColorHistogram(
+            new int[] {0xffff0000, 0xfffe0000, 0xff0000ff}, new int[] {1, 1, 2}, 3);
+
+    ColorHistogram clusters =
+        QuantizerWsmeans.quantize(histogram, new int[] {RED, BLUE}, new int[] {0, 0, 1}, 2);
+
+    assertThat(clusters.getSize()).isEqualTo(2);
+    assertThat(clusters.getCount(0)).isEqualTo(2);
+    assertThat(clusters.getColor(1)).isEqualTo(BLUE);
+    assertThat(clusters.getCount(1)).isEqualTo(2);
+  }
+
+  @Test
+  public void score_ranksByProportionAndDropsDuplicateHues() {
+    ColorHistogram histogram =
+        new ColorHistogram(
+            new int[] {RED, 0xfffe0000, BLUE, 0xff000000}, new int[] {10, 10, 50, 30}, 4);
+
+    int[] ranked = Score.score(histogram);
+
+    assertThat(ranked.length).isEqualTo(2);
+    assertThat(ranked[0]).isEqualTo(BLUE);
+    assertThat(ranked[1]).isEqualTo(RED);
+  }
+
+  @Test
+  public void score_noSuitableColors_returnsFallback() {
+    ColorHistogram histogram =
+        new ColorHistogram(new int[] {0xff000000, 0xff808080}, new int[] {1, 1}, 2);
+
+    int[] ranked = Score.score(histogram);
+
+    assertThat(ranked.length).isEqualTo(1);
+    assertThat(ranked[0]).isEqualTo(Score.FALLBACK_COLOR);
+  }
+
+  private static int[] sortRuns(int[] pixels, int[] runOffsets, int[] runSizes) {
+    for (int i = 0; i < runOffsets.length; i++) {
+      Arrays.sort(pixels, runOffsets[i], runOffsets[i] + runSizes[i]);
+    }
+    return pixels;
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.color;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class TonalPaletteTest {
+  private static final int RED = 0xffff0000;
+  private static final int BLUE = 0xff0000ff;
+
+  @Test
+  public void tone_matchesHct() {
+    TonalPalette palette = TonalPalette.fromInt(BLUE);
+    for (int tone = 0; tone <= 100; tone += 10) {
+      Hct hct = Hct.fromInt(BLUE);
+      hct.setTone(tone);
+
+      assertThat(palette.tone(tone)).isEqualTo(hct.toInt());
+    }
+  }
+
+  @Test
+  public void tone_allTonesOfManyColors_matchHct() {
+    for (int rgb = 0; rgb <= 0xffffff; rgb += 0x0a1f3b) {
+      int argb = 0xff000000 | rgb;
+      TonalPalette palette = TonalPalette.fromInt(argb);
+      for (int tone = 0; tone <= 100; tone++) {
+        Hct hct = Hct.fromInt(argb);
+        hct.setTone(tone);
+
+        assertThat(palette.tone(tone)).isEqualTo(hct.toInt());
+      }
+    }
+  }
+
+  @Test
+  public void fromHueAndChroma_nearbyChroma_returnsDifferentPalettes() {
+    assertThat(TonalPalette.fromHueAndChroma(120f, 40f))
+        .isNotSameInstanceAs(TonalPalette.fromHueAndChroma(120f, 40.0001f));
+  }
+
+  @Test
+  public void tone_extremesAreBlackAndWhite() {
+    TonalPalette palette = TonalPalette.fromInt(RED);
+
+    assertThat(palette.tone(0)).isEqualTo(0xff000000);
+    assertThat(palette.tone(100)).isEqualTo(0xffffffff);
+  }
+
+  @Test
+  public void fromInt_sameColor_returnsCachedPalette() {
+    TonalPalette.clearCache();
+
+    assertThat(TonalPalette.fromInt(RED)).isSameInstanceAs(TonalPalette.fromInt(RED));
+  }
+
+  @Test
+  public void fromHueAndChroma_differentColors_returnsDifferentPalettes() {
+    assertThat(TonalPalette.fromInt(RED)).isNotSameInstanceAs(TonalPalette.fromInt(BLUE));
+  }
+
+  @Test
+  public void fromHueAndChroma_sanitizesHue() {
+    assertThat(TonalPalette.fromHueAndChroma(-90f, 40f))
+        .isSameInstanceAs(TonalPalette.fromHueAndChroma(270f, 40f));
+  }
+}
@@ -170,6 +170,33 @@ public class ElevationOverlayProviderTest {
         .isEqualTo(EXPECTED_ELEVATION_NON_ZERO_COLOR_WITH_OVERLAY_AND_VIEW);
   }
 
+  @Test
+  public void givenThemeSurfaceColor_whenCompositeOverlay_matchesUncachedColor() {
+    provider = new ElevationOverlayProvider(context);
+    int backgroundColor = provider.getThemeSurfaceColor();
+    // A provider with another surface color never composites with the cached colors.
+    ElevationOverlayProvider uncachedProvider =
+        new ElevationOverlayProvider(
+            provider.isThemeElevationOverlayEnabled(),
+            provider.getThemeElevationOverlayColor(),
+            MaterialColors.getColor(context, R.attr.elevationOverlayAccentColor, Color.TRANSPARENT),
+            /* colorSurface= */ Color.RED,
+            context.getResources().getDisplayMetrics().density);
+
+    for (float elevation = 0; elevation < 64; elevation += 0.37f) {
+      assertThat(provider.compositeOverlay(backgroundColor, elevation))
+          .isEqualTo(uncachedProvider.compositeOverlay(backgroundColor, elevation));
+    }
+  }
+
+  @Test
+  public void givenElevation_whenGetCachedColorForElevation_returnsColorForElevation() {
+    for (float elevation = 0; elevation < 64; elevation += 0.37f) {
+      assertThat(SurfaceColors.getCachedColorForElevation(context, elevation))
+          .isEqualTo(SurfaceColors.getColorForElevation(context, elevation));
+    }
+  }
+
   @Test
   public void givenNoElevation_whenCalculateOverlayAlphaFraction_returnsZero() {
     provider = new ElevationOverlayProvider(context);
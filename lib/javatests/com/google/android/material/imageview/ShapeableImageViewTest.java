@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.imageview;
+
+import com.google.android.material.R;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.ColorDrawable;
+import android.os.Build.VERSION_CODES;
+import android.view.Gravity;
+import android.view.ViewOutlineProvider;
+import androidx.test.core.app.ApplicationProvider;
+import com.google.android.material.shape.CornerFamily;
+import com.google.android.material.shape.ShapeAppearanceModel;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/** Tests for how {@link ShapeableImageView} clips its image to the shape. */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = VERSION_CODES.P)
+public class ShapeableImageViewTest {
+
+  private final Context context = ApplicationProvider.getApplicationContext();
+  private ShapeableImageView imageView;
+
+  @Before
+  public void createImageView() {
+    context.setTheme(R.style.Theme_MaterialComponents_Light_NoActionBar_Bridge);
+    imageView = new ShapeableImageView(context);
+  }
+
+  @Test
+  public void givenRoundedCorners_clipsToOutline() {
+    imageView.setShapeAppearanceModel(createShape(CornerFamily.ROUNDED));
+    imageView.setImageDrawable(new ColorDrawable(Color.RED));
+    layout();
+
+    assertThat(imageView.getClipMode()).isEqualTo(ShapeableImageView.CLIP_MODE_OUTLINE);
+    assertThat(imageView.getClipToOutline()).isTrue();
+  }
+
+  @Test
+  public void givenCutCornersAndBitmap_drawsWithBitmapShader() {
+    imageView.setShapeAppearanceModel(createShape(CornerFamily.CUT));
+    imageView.setImageDrawable(createBitmapDrawable());
+    layout();
+
+    assertThat(imageView.getClipMode()).isEqualTo(ShapeableImageView.CLIP_MODE_BITMAP_SHADER);
+    assertThat(imageView.getClipToOutline()).isFalse();
+  }
+
+  @Test
+  public void givenRoundedCornersAndStroke_drawsWithBitmapShader() {
+    imageView.setShapeAppearanceModel(createShape(CornerFamily.ROUNDED));
+    imageView.setImageDrawable(createBitmapDrawable());
+    imageView.setStrokeColor(ColorStateList.valueOf(Color.BLACK));
+    imageView.setStrokeWidth(2);
+    layout();
+
+    // The outline would clip the outer half of the stroke.
+    assertThat(imageView.getClipMode()).isEqualTo(ShapeableImageView.CLIP_MODE_BITMAP_SHADER);
+  }
+
+  @Test
+  public void givenTintedBitmap_fallsBackToMask() {
+    BitmapDrawable drawable = createBitmapDrawable();
+    imageView.setShapeAppearanceModel(createShape(CornerFamily.CUT));
+    imageView.setImageDrawable(drawable);
+    layout();
+    assertThat(imageView.updateBitmapShader()).isTrue();
+
+    drawable.setTint(Color.RED);
+
+    // The shader would draw the bitmap without the drawable's tint.
+    assertThat(imageView.updateBitmapShader()).isFalse();
+  }
+
+  @Test
+  public void givenChangedBitmapGravity_fallsBackToMask() {
+    BitmapDrawable drawable = createBitmapDrawable();
+    imageView.setShapeAppearanceModel(createShape(CornerFamily.CUT));
+    imageView.setImageDrawable(drawable);
+    layout();
+    assertThat(imageView.updateBitmapShader()).isTrue();
+
+    drawable.setGravity(Gravity.CENTER);
+
+    assertThat(imageView.updateBitmapShader()).isFalse();
+  }
+
+  @Test
+  public void givenCutCornersAndBitmapWithBackground_drawsWithMask() {
+    imageView.setShapeAppearanceModel(createShape(CornerFamily.CUT));
+    imageView.setImageDrawable(createBitmapDrawable());
+    imageView.setBackgroundColor(Color.BLUE);
+    layout();
+
+    assertThat(imageView.getClipMode()).isEqualTo(ShapeableImageView.CLIP_MODE_MASK);
+  }
+
+  @Test
+  public void givenCutCornersAndColor_drawsWithMask() {
+    imageView.setShapeAppearanceModel(createShape(CornerFamily.CUT));
+    imageView.setImageDrawable(new ColorDrawable(Color.RED));
+    layout();
+
+    assertThat(imageView.getClipMode()).isEqualTo(ShapeableImageView.CLIP_MODE_MASK);
+  }
+
+  @Test
+  public void givenCustomOutlineProvider_doesNotClipToOutline() {
+    imageView.setShapeAppearanceModel(createShape(CornerFamily.ROUNDED));
+    imageView.setImageDrawable(new ColorDrawable(Color.RED));
+    imageView.setOutlineProvider(ViewOutlineProvider.BOUNDS);
+    layout();
+
+    assertThat(imageView.getClipMode()).isEqualTo(ShapeableImageView.CLIP_MODE_MASK);
+    assertThat(imageView.getClipToOutline()).isFalse();
+  }
+
+  @Test
+  public void givenChangedShape_updatesClipMode() {
+    imageView.setShapeAppearanceModel(createShape(CornerFamily.ROUNDED));
+    imageView.setImageDrawable(createBitmapDrawable());
+    layout();
+    assertThat(imageView.getClipMode()).isEqualTo(ShapeableImageView.CLIP_MODE_OUTLINE);
+
+    imageView.setShapeAppearanceModel(createShape(CornerFamily.CUT));
+
+    assertThat(imageView.getClipMode()).isEqualTo(ShapeableImageView.CLIP_MODE_BITMAP_SHADER);
+    assertThat(imageView.getClipToOutline()).isFalse();
+  }
+
+  @Test
+  @Config(sdk = VERSION_CODES.KITKAT)
+  public void givenRoundedCornersBeforeLollipop_drawsWithMask() {
+    imageView.setShapeAppearanceModel(createShape(CornerFamily.ROUNDED));
+    imageView.setImageDrawable(new ColorDrawable(Color.RED));
+    layout();
+
+    assertThat(imageView.getClipMode()).isEqualTo(ShapeableImageView.CLIP_MODE_MASK);
+  }
+
+  private void layout() {
+    imageView.layout(0, 0, 100, 100);
+  }
+
+  private BitmapDrawable createBitmapDrawable() {
+    return new BitmapDrawable(
+        context.getResources(), Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888));
+  }
+
+  private static ShapeAppearanceModel createShape(int cornerFamily) {
+    return ShapeAppearanceModel.builder().setAllCorners(cornerFamily, 10).build();
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.resources;
+
+import com.google.android.material.R;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.os.Build.VERSION_CODES;
+import android.util.TypedValue;
+import androidx.appcompat.view.ContextThemeWrapper;
+import androidx.test.core.app.ApplicationProvider;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.internal.DoNotInstrument;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = VERSION_CODES.R)
+@DoNotInstrument
+public class MaterialAttributesTest {
+
+  private Context context;
+
+  @Before
+  public void setUp() {
+    context =
+        new ContextThemeWrapper(
+            ApplicationProvider.getApplicationContext(), R.style.Theme_Material3_Light);
+    MaterialAttributes.clearResolveCache();
+  }
+
+  @Test
+  public void testResolve_cachesResolvedAttributes() {
+    int color = MaterialAttributes.resolveOrThrow(context, R.attr.colorPrimary, "test");
+
+    assertThat(MaterialAttributes.resolveOrThrow(context, R.attr.colorPrimary, "test"))
+        .isEqualTo(color);
+    assertThat(MaterialAttributes.getResolveCacheMissCount()).isEqualTo(1);
+    assertThat(MaterialAttributes.getResolveCacheHitCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testResolve_resolvesAgainAfterApplyingStyle() {
+    int color = MaterialAttributes.resolveOrThrow(context, R.attr.colorPrimary, "test");
+
+    context.getTheme().applyStyle(R.style.Theme_Material3_Dark, /* force= */ true);
+
+    assertThat(MaterialAttributes.resolveOrThrow(context, R.attr.colorPrimary, "test"))
+        .isNotEqualTo(color);
+    assertThat(MaterialAttributes.getResolveCacheMissCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void testResolve_cachesMissingAttributes() {
+    assertThat(MaterialAttributes.resolve(context, R.attr.cornerSize)).isNull();
+    assertThat(MaterialAttributes.resolve(context, R.attr.cornerSize)).isNull();
+
+    assertThat(MaterialAttributes.getResolveCacheHitCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testResolve_returnsCopyOfCachedValue() {
+    TypedValue typedValue = MaterialAttributes.resolve(context, R.attr.colorPrimary);
+    int color = typedValue.data;
+    typedValue.data = ~color;
+
+    assertThat(MaterialAttributes.resolve(context, R.attr.colorPrimary).data).isEqualTo(color);
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.shadow;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.RectF;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.internal.DoNotInstrument;
+
+/** Tests for {@link ShadowRenderer}. */
+@RunWith(RobolectricTestRunner.class)
+@DoNotInstrument
+public class ShadowRendererTest {
+
+  private static final int ELEVATION = 2;
+
+  private final ShadowRenderer shadowRenderer = new ShadowRenderer();
+  private final Canvas canvas = new Canvas(Bitmap.createBitmap(100, 100, Bitmap.Config.ARGB_8888));
+  private final Matrix matrix = new Matrix();
+  private final RectF bounds = new RectF();
+
+  @Test
+  public void givenShadowsOfDifferentSizes_whenDraw_reusesShaders() {
+    drawShadows(/* size= */ 10);
+    int shaderCount = shadowRenderer.getShaderCount();
+
+    for (int size = 20; size < 120; size++) {
+      drawShadows(size);
+    }
+
+    // Corners with close ratios of shadow to radius share shaders, so the 200 corners are drawn
+    // with far fewer shaders.
+    assertThat(shadowRenderer.getShaderCount() - shaderCount).isLessThan(50);
+  }
+
+  @Test
+  public void givenShadowsOfManySizes_whenDrawFrequentShadow_keepsItsShaders() {
+    drawShadows(/* size= */ 10);
+    int shaderCount = shadowRenderer.getShaderCount();
+
+    for (int size = 20; size < 120; size++) {
+      drawShadows(size);
+      int sweepShaderCount = shadowRenderer.getShaderCount();
+      drawShadows(/* size= */ 10);
+
+      assertThat(shadowRenderer.getShaderCount()).isEqualTo(sweepShaderCount);
+    }
+    assertThat(shadowRenderer.getShaderCount()).isGreaterThan(shaderCount);
+  }
+
+  @Test
+  public void givenShadowsOfSameRatio_whenDrawRepeatedly_createsNoShaders() {
+    drawShadows(/* size= */ 10);
+    int shaderCount = shadowRenderer.getShaderCount();
+
+    for (int i = 0; i < 100; i++) {
+      drawShadows(/* size= */ 10);
+    }
+
+    assertThat(shadowRenderer.getShaderCount()).isEqualTo(shaderCount);
+  }
+
+  @Test
+  public void givenShadowColorChanged_whenDraw_createsShaders() {
+    drawShadows(/* size= */ 10);
+    int shaderCount = shadowRenderer.getShaderCount();
+
+    shadowRenderer.setShadowColor(Color.BLACK);
+    drawShadows(/* size= */ 10);
+    assertThat(shadowRenderer.getShaderCount()).isEqualTo(shaderCount);
+
+    shadowRenderer.setShadowColor(Color.RED);
+    drawShadows(/* size= */ 10);
+    assertThat(shadowRenderer.getShaderCount()).isEqualTo(shaderCount * 2);
+  }
+
+  private void drawShadows(int size) {
+    bounds.set(0, 0, size, ELEVATION);
+    shadowRenderer.drawEdgeShadow(canvas, matrix, bounds, ELEVATION);
+    bounds.set(0, 0, size, size);
+    shadowRenderer.drawCornerShadow(canvas, matrix, bounds, ELEVATION, 180, 90);
+    bounds.set(0, 0, size, size);
+    shadowRenderer.drawCornerShadow(canvas, matrix, bounds, ELEVATION, 180, -90);
+  }
+}
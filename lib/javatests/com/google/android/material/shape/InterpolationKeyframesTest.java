@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.shape;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.graphics.Path;
+import android.graphics.RectF;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Tests for {@link InterpolationKeyframes}. */
+@RunWith(RobolectricTestRunner.class)
+public class InterpolationKeyframesTest {
+
+  private static final float TOLERANCE = 1f;
+
+  private final ShapeAppearancePathProvider pathProvider = new ShapeAppearancePathProvider();
+  private final InterpolationKeyframes keyframes = new InterpolationKeyframes();
+  private final RectF bounds = new RectF(0, 0, 200, 100);
+
+  private final ShapeAppearanceModel shape =
+      ShapeAppearanceModel.builder()
+          .setAllCorners(CornerFamily.CUT, 20)
+          .setTopEdge(new TriangleEdgeTreatment(20, false))
+          .build();
+
+  @Test
+  public void givenInterpolationBetweenKeyframes_whenGetPath_isWithinTolerance() {
+    Path path = new Path();
+    Path exactPath = new Path();
+
+    for (float interpolation = 0.05f; interpolation < 1; interpolation += 0.1f) {
+      assertThat(keyframes.getPath(pathProvider, shape, interpolation, bounds, TOLERANCE, path))
+          .isTrue();
+      pathProvider.calculatePath(shape, interpolation, bounds, exactPath);
+
+      RectF pathBounds = computeBounds(path);
+      RectF exactPathBounds = computeBounds(exactPath);
+      assertThat(pathBounds.left).isWithin(TOLERANCE).of(exactPathBounds.left);
+      assertThat(pathBounds.top).isWithin(TOLERANCE).of(exactPathBounds.top);
+      assertThat(pathBounds.right).isWithin(TOLERANCE).of(exactPathBounds.right);
+      assertThat(pathBounds.bottom).isWithin(TOLERANCE).of(exactPathBounds.bottom);
+    }
+    assertThat(keyframes.getKeyframeCount()).isAtLeast(2);
+    assertThat(keyframes.getKeyframeCount()).isAtMost(9);
+  }
+
+  @Test
+  public void givenFullInterpolation_whenGetPath_needsExactPath() {
+    assertThat(keyframes.getPath(pathProvider, shape, 1f, bounds, TOLERANCE, new Path()))
+        .isFalse();
+    assertThat(keyframes.getPath(pathProvider, shape, 0f, bounds, TOLERANCE, new Path()))
+        .isFalse();
+  }
+
+  @Test
+  public void givenSameBounds_whenGetPath_reusesKeyframes() {
+    // Interned shapes with both rounded and cut corners are calculated through the path cache.
+    ShapeAppearanceModel mixedShape =
+        ShapeAppearanceModel.builder()
+            .setAllCorners(CornerFamily.ROUNDED, 20)
+            .setTopLeftCorner(CornerFamily.CUT, 20)
+            .build()
+            .intern();
+    Path path = new Path();
+    keyframes.getPath(pathProvider, mixedShape, 0.5f, bounds, TOLERANCE, path);
+    int missCount = ShapeAppearancePathProvider.getPathCacheMissCount();
+    ShapeAppearancePathProvider.setPathCacheEnabled(true);
+
+    try {
+      keyframes.getPath(pathProvider, mixedShape, 0.25f, bounds, TOLERANCE, path);
+      keyframes.getPath(pathProvider, mixedShape, 0.75f, bounds, TOLERANCE, path);
+
+      // No path was calculated, so none missed the path cache.
+      assertThat(ShapeAppearancePathProvider.getPathCacheMissCount()).isEqualTo(missCount);
+    } finally {
+      ShapeAppearancePathProvider.setPathCacheEnabled(false);
+    }
+  }
+
+  private static RectF computeBounds(Path path) {
+    RectF bounds = new RectF();
+    path.computeBounds(bounds, /* exact= */ true);
+    return bounds;
+  }
+}
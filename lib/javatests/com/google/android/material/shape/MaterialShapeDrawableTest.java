@@ -20,6 +20,15 @@ import com.google.android.material.R;
 import static com.google.common.truth.Truth.assertThat;
 
 import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Paint.Style;
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable.ConstantState;
+import androidx.annotation.NonNull;
 import androidx.test.core.app.ApplicationProvider;
 import com.google.android.material.color.MaterialColors;
 import org.junit.Before;
@@ -140,4 +149,167 @@ public class MaterialShapeDrawableTest {
 
     assertThat(materialShapeDrawable.getAlpha()).isEqualTo(ALPHA);
   }
+
+  @Test
+  public void givenDrawablesFromSameConstantState_shareStateUntilChanged() {
+    ConstantState constantState = materialShapeDrawable.getConstantState();
+    MaterialShapeDrawable drawable = (MaterialShapeDrawable) constantState.newDrawable();
+    MaterialShapeDrawable otherDrawable = (MaterialShapeDrawable) constantState.newDrawable();
+
+    assertThat(drawable.getConstantState()).isSameInstanceAs(otherDrawable.getConstantState());
+
+    drawable.setAlpha(ALPHA);
+
+    assertThat(drawable.getConstantState()).isNotSameInstanceAs(otherDrawable.getConstantState());
+    assertThat(drawable.getAlpha()).isEqualTo(ALPHA);
+    assertThat(otherDrawable.getAlpha()).isNotEqualTo(ALPHA);
+    assertThat(materialShapeDrawable.getAlpha()).isNotEqualTo(ALPHA);
+  }
+
+  @Test
+  public void givenSharedState_whenOriginalChanged_doesNotChangeNewDrawable() {
+    MaterialShapeDrawable newDrawable =
+        (MaterialShapeDrawable) materialShapeDrawable.getConstantState().newDrawable();
+
+    materialShapeDrawable.setInterpolation(0.5f);
+
+    assertThat(materialShapeDrawable.getInterpolation()).isEqualTo(0.5f);
+    assertThat(newDrawable.getInterpolation()).isEqualTo(1f);
+  }
+
+  @Test
+  public void givenSharedState_whenMutate_copiesState() {
+    ConstantState constantState = materialShapeDrawable.getConstantState();
+
+    materialShapeDrawable.mutate();
+
+    assertThat(materialShapeDrawable.getConstantState()).isNotSameInstanceAs(constantState);
+  }
+
+  @Test
+  public void givenInternedShape_whenCreateWithSharedState_sharesStateUntilChanged() {
+    ShapeAppearanceModel shape =
+        ShapeAppearanceModel.builder().setAllCorners(CornerFamily.ROUNDED, 8).build().intern();
+    MaterialShapeDrawable drawable =
+        MaterialShapeDrawable.createWithSharedState(shape, Color.WHITE, 2, Color.BLACK);
+    MaterialShapeDrawable otherDrawable =
+        MaterialShapeDrawable.createWithSharedState(shape, Color.WHITE, 2, Color.BLACK);
+
+    assertThat(drawable.getConstantState()).isSameInstanceAs(otherDrawable.getConstantState());
+    assertThat(drawable.getStrokeWidth()).isEqualTo(2);
+
+    drawable.setStrokeWidth(4);
+
+    assertThat(drawable.getConstantState()).isNotSameInstanceAs(otherDrawable.getConstantState());
+    assertThat(otherDrawable.getStrokeWidth()).isEqualTo(2);
+  }
+
+  @Test
+  public void givenCompatShadowCache_whenDrawSameShapeAtDifferentSizes_sharesShadow() {
+    MaterialShapeDrawable.setCompatShadowCacheEnabled(true);
+    int hitCount = MaterialShapeDrawable.getCompatShadowCacheHitCount();
+    int missCount = MaterialShapeDrawable.getCompatShadowCacheMissCount();
+    Canvas canvas = new Canvas(Bitmap.createBitmap(200, 200, Bitmap.Config.ARGB_8888));
+
+    try {
+      createCompatShadowDrawable(100, 50).draw(canvas);
+      createCompatShadowDrawable(150, 80).draw(canvas);
+    } finally {
+      MaterialShapeDrawable.setCompatShadowCacheEnabled(false);
+    }
+
+    assertThat(MaterialShapeDrawable.getCompatShadowCacheMissCount()).isEqualTo(missCount + 1);
+    assertThat(MaterialShapeDrawable.getCompatShadowCacheHitCount()).isEqualTo(hitCount + 1);
+  }
+
+  @Test
+  public void givenUnchangedShadow_whenCreateCompatShadowKey_reusesPreviousKey() {
+    ShapeAppearanceModel model =
+        ShapeAppearanceModel.builder().setAllCorners(CornerFamily.ROUNDED, 8).build();
+    RectF bounds = new RectF(0, 0, 100, 50);
+    CompatShadowCache.Key key =
+        CompatShadowCache.createKey(
+            /* previousKey= */ null, model, 1f, bounds, 4, 0, 2, true, 0x44000000);
+
+    assertThat(CompatShadowCache.createKey(key, model, 1f, bounds, 4, 0, 2, true, 0x44000000))
+        .isSameInstanceAs(key);
+    assertThat(CompatShadowCache.createKey(key, model, 0.5f, bounds, 4, 0, 2, true, 0x44000000))
+        .isNotSameInstanceAs(key);
+    assertThat(CompatShadowCache.createKey(key, model, 1f, bounds, 6, 0, 3, true, 0x44000000))
+        .isNotEqualTo(key);
+  }
+
+  @Test
+  public void givenCutCorners_whenIsPointInTransparentRegion_testsCorners() {
+    MaterialShapeDrawable drawable =
+        new MaterialShapeDrawable(
+            ShapeAppearanceModel.builder().setAllCorners(CornerFamily.CUT, 10).build());
+    drawable.setBounds(20, 20, 120, 70);
+
+    assertThat(drawable.isPointInTransparentRegion(21, 21)).isTrue();
+    assertThat(drawable.isPointInTransparentRegion(118, 68)).isTrue();
+    assertThat(drawable.isPointInTransparentRegion(27, 27)).isFalse();
+    assertThat(drawable.isPointInTransparentRegion(70, 20)).isFalse();
+    // Points outside of the bounds aren't in the transparent region of the drawable.
+    assertThat(drawable.isPointInTransparentRegion(10, 10)).isFalse();
+  }
+
+  @Test
+  public void givenRoundedCorners_whenIsPointInTransparentRegion_testsCorners() {
+    MaterialShapeDrawable drawable =
+        new MaterialShapeDrawable(
+            ShapeAppearanceModel.builder().setAllCorners(CornerFamily.ROUNDED, 10).build());
+    drawable.setBounds(20, 20, 120, 70);
+
+    assertThat(drawable.isPointInTransparentRegion(22, 22)).isTrue();
+    assertThat(drawable.isPointInTransparentRegion(24, 24)).isFalse();
+
+    drawable.setInterpolation(0);
+
+    assertThat(drawable.isPointInTransparentRegion(20, 20)).isFalse();
+  }
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void givenShapePathModelChangedInPlace_whenInvalidated_drawsChangedShape() {
+    ShapePathModel shapePathModel = new ShapePathModel();
+    MaterialShapeDrawable drawable = new MaterialShapeDrawable(shapePathModel);
+    drawable.setInterpolationKeyframesEnabled(true);
+    drawable.setInterpolation(0.5f);
+    drawable.setStroke(2, 0xff000000);
+    drawable.setBounds(20, 20, 120, 70);
+    PathRecordingCanvas canvas = new PathRecordingCanvas();
+    drawable.draw(canvas);
+    RectF fillBounds = new RectF(canvas.fillBounds);
+    RectF strokeBounds = new RectF(canvas.strokeBounds);
+
+    // Edges that point out of the shape grow its bounds.
+    shapePathModel.setAllEdges(new TriangleEdgeTreatment(10, /* inside= */ false));
+    drawable.invalidateSelf();
+    drawable.draw(canvas);
+
+    assertThat(canvas.fillBounds.height()).isGreaterThan(fillBounds.height());
+    assertThat(canvas.strokeBounds.height()).isGreaterThan(strokeBounds.height());
+  }
+
+  private static MaterialShapeDrawable createCompatShadowDrawable(int width, int height) {
+    MaterialShapeDrawable drawable =
+        new MaterialShapeDrawable(
+            ShapeAppearanceModel.builder().setAllCorners(CornerFamily.ROUNDED, 8).build());
+    drawable.setShadowCompatibilityMode(MaterialShapeDrawable.SHADOW_COMPAT_MODE_ALWAYS);
+    drawable.setElevation(ELEVATION);
+    drawable.setBounds(20, 20, 20 + width, 20 + height);
+    return drawable;
+  }
+
+  /** Records the bounds of the last filled and the last stroked path. */
+  private static class PathRecordingCanvas extends Canvas {
+    private final RectF fillBounds = new RectF();
+    private final RectF strokeBounds = new RectF();
+
+    @Override
+    public void drawPath(@NonNull Path path, @NonNull Paint paint) {
+      path.computeBounds(paint.getStyle() == Style.STROKE ? strokeBounds : fillBounds, true);
+    }
+  }
 }
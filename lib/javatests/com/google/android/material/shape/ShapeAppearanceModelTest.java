@@ -202,6 +202,41 @@ public class ShapeAppearanceModelTest {
         DEFAULT_CORNER_SIZE);
   }
 
+  @Test
+  public void givenEqualShapes_whenIntern_returnsSameInstance() {
+    ShapeAppearanceModel shape =
+        ShapeAppearanceModel.builder().setAllCorners(CornerFamily.CUT, 10).build();
+    ShapeAppearanceModel equalShape =
+        ShapeAppearanceModel.builder().setAllCorners(CornerFamily.CUT, 10).build();
+
+    ShapeAppearanceModel internedShape = shape.intern();
+
+    assertThat(internedShape.isInterned()).isTrue();
+    assertThat(equalShape.intern()).isSameInstanceAs(internedShape);
+    assertThat(shape.withCornerSize(20).intern()).isNotSameInstanceAs(internedShape);
+  }
+
+  @Test
+  public void givenInternedShape_whenWithCornerSize_returnsInternedShape() {
+    ShapeAppearanceModel shape = ShapeAppearanceModel.builder().build().intern();
+
+    ShapeAppearanceModel resizedShape = shape.withCornerSize(DEFAULT_CORNER_SIZE);
+
+    assertThat(resizedShape.isInterned()).isTrue();
+    assertThat(ShapeAppearanceModel.builder().setAllCornerSizes(10).build().intern())
+        .isSameInstanceAs(resizedShape);
+  }
+
+  @Test
+  public void givenCustomTreatment_whenIntern_returnsSameShape() {
+    ShapeAppearanceModel shape =
+        ShapeAppearanceModel.builder().setTopEdge(new TriangleEdgeTreatment(10, false)).build();
+
+    assertThat(shape.intern()).isSameInstanceAs(shape);
+    assertThat(shape.isInterned()).isFalse();
+    assertThat(new ShapePathModel().intern().isInterned()).isFalse();
+  }
+
   private AttributeSetBuilder buildStyleAttributeSet() {
     return Robolectric.buildAttributeSet()
         .addAttribute(R.attr.shapeAppearance, "@style/ShapeAppearance.MaterialComponents.Test");
@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.shape;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.graphics.Matrix;
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.graphics.Region;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Tests for {@link ShapeAppearancePathProvider}. */
+@RunWith(RobolectricTestRunner.class)
+public class ShapeAppearancePathProviderTest {
+
+  private final ShapeAppearancePathProvider pathProvider = new ShapeAppearancePathProvider();
+
+  @Before
+  public void enablePathCache() {
+    ShapeAppearancePathProvider.setPathCacheEnabled(true);
+  }
+
+  @After
+  public void disablePathCache() {
+    ShapeAppearancePathProvider.setPathCacheEnabled(false);
+  }
+
+  @Test
+  public void givenEqualShapes_whenCalculatePath_sharesCachedPath() {
+    int hitCount = ShapeAppearancePathProvider.getPathCacheHitCount();
+    Path path = new Path();
+    Path cachedPath = new Path();
+
+    pathProvider.calculatePath(createMixedShape().intern(), 1f, new RectF(0, 0, 100, 50), path);
+    pathProvider.calculatePath(
+        createMixedShape().intern(), 1f, new RectF(20, 40, 120, 90), cachedPath);
+
+    assertThat(ShapeAppearancePathProvider.getPathCacheHitCount()).isEqualTo(hitCount + 1);
+    assertThat(computeBounds(cachedPath)).isEqualTo(new RectF(20, 40, 120, 90));
+    cachedPath.offset(-20, -40);
+    assertThat(computeBounds(cachedPath)).isEqualTo(computeBounds(path));
+  }
+
+  @Test
+  public void givenDifferentSizes_whenCalculatePath_missesCache() {
+    int missCount = ShapeAppearancePathProvider.getPathCacheMissCount();
+    Path path = new Path();
+
+    pathProvider.calculatePath(createMixedShape().intern(), 1f, new RectF(0, 0, 100, 50), path);
+    pathProvider.calculatePath(createMixedShape().intern(), 1f, new RectF(0, 0, 100, 60), path);
+
+    assertThat(ShapeAppearancePathProvider.getPathCacheMissCount()).isEqualTo(missCount + 2);
+  }
+
+  @Test
+  public void givenShapeNotInterned_whenCalculatePath_bypassesCacheWithoutInterning() {
+    int hitCount = ShapeAppearancePathProvider.getPathCacheHitCount();
+    int missCount = ShapeAppearancePathProvider.getPathCacheMissCount();
+    ShapeAppearanceModel shape = createMixedShape();
+    Path path = new Path();
+
+    pathProvider.calculatePath(shape, 1f, new RectF(0, 0, 100, 50), path);
+    pathProvider.calculatePath(shape, 1f, new RectF(0, 0, 100, 50), path);
+
+    assertThat(ShapeAppearancePathProvider.getPathCacheHitCount()).isEqualTo(hitCount);
+    assertThat(ShapeAppearancePathProvider.getPathCacheMissCount()).isEqualTo(missCount);
+    assertThat(shape.isInterned()).isFalse();
+  }
+
+  @Test
+  public void givenCustomEdgeTreatment_whenCalculatePath_bypassesCache() {
+    int hitCount = ShapeAppearancePathProvider.getPathCacheHitCount();
+    int missCount = ShapeAppearancePathProvider.getPathCacheMissCount();
+    ShapeAppearanceModel shape =
+        createMixedShape().toBuilder().setTopEdge(new TriangleEdgeTreatment(10, false)).build();
+    Path path = new Path();
+
+    pathProvider.calculatePath(shape, 1f, new RectF(0, 0, 100, 50), path);
+    pathProvider.calculatePath(shape, 1f, new RectF(0, 0, 100, 50), path);
+
+    assertThat(ShapeAppearancePathProvider.getPathCacheHitCount()).isEqualTo(hitCount);
+    assertThat(ShapeAppearancePathProvider.getPathCacheMissCount()).isEqualTo(missCount);
+  }
+
+  @Test
+  public void givenRoundedCornersOfDifferentSizes_whenCalculatePath_matchesShapePath() {
+    ShapeAppearanceModel shape =
+        ShapeAppearanceModel.builder()
+            .setTopLeftCorner(CornerFamily.ROUNDED, 8)
+            .setTopRightCorner(CornerFamily.ROUNDED, 16)
+            .setBottomRightCorner(CornerFamily.ROUNDED, 24)
+            .build();
+
+    assertPathMatchesShapePath(shape, new float[] {8, 16, 24, 0});
+  }
+
+  @Test
+  public void givenCutCornersOfDifferentSizes_whenCalculatePath_matchesShapePath() {
+    ShapeAppearanceModel shape =
+        ShapeAppearanceModel.builder()
+            .setTopLeftCorner(CornerFamily.CUT, 8)
+            .setBottomRightCorner(CornerFamily.CUT, 16)
+            .setBottomLeftCorner(CornerFamily.CUT, 24)
+            .build();
+
+    assertPathMatchesShapePath(shape, new float[] {8, 0, 16, 24});
+  }
+
+  @Test
+  public void givenTriangleEdgesAndRoundedCorners_whenCalculatePath_matchesPathWithoutCheck() {
+    ShapeAppearanceModel shape =
+        createMixedShape().toBuilder()
+            .setAllEdges(new TriangleEdgeTreatment(8, true))
+            .setTopEdge(new OffsetEdgeTreatment(new TriangleEdgeTreatment(8, false), 20))
+            .build();
+    ShapeAppearancePathProvider uncheckedPathProvider = new ShapeAppearancePathProvider();
+    uncheckedPathProvider.setEdgeIntersectionCheckEnable(false);
+    Path path = new Path();
+    Path uncheckedPath = new Path();
+
+    pathProvider.calculatePath(shape, 1f, new RectF(0, 0, 100, 50), path);
+    uncheckedPathProvider.calculatePath(shape, 1f, new RectF(0, 0, 100, 50), uncheckedPath);
+
+    assertThat(computeBounds(path)).isEqualTo(computeBounds(uncheckedPath));
+  }
+
+  /**
+   * Checks the path of a shape against the path built from {@link ShapePath}s, just outside and
+   * inside of each corner.
+   *
+   * @param cornerSizes The sizes of the top left, top right, bottom right and bottom left corners.
+   */
+  private void assertPathMatchesShapePath(ShapeAppearanceModel shape, float[] cornerSizes) {
+    RectF bounds = new RectF(10, 20, 110, 70);
+    Path path = new Path();
+    Path shapePath = new Path();
+
+    pathProvider.calculatePath(shape, 1f, bounds, path);
+    // Paths calculated with a listener are always built from ShapePaths.
+    pathProvider.calculatePath(shape, 1f, bounds, new NoOpPathListener(), shapePath);
+
+    assertThat(computeBounds(path)).isEqualTo(computeBounds(shapePath));
+    Region clip = new Region(0, 0, 200, 200);
+    Region region = new Region();
+    region.setPath(path, clip);
+    Region shapeRegion = new Region();
+    shapeRegion.setPath(shapePath, clip);
+    float[][] cornerDirections = {{1, 1}, {-1, 1}, {-1, -1}, {1, -1}};
+    float[][] corners = {
+      {bounds.left, bounds.top},
+      {bounds.right, bounds.top},
+      {bounds.right, bounds.bottom},
+      {bounds.left, bounds.bottom}
+    };
+    for (int i = 0; i < 4; i++) {
+      for (float distance : new float[] {0.2f, 0.7f}) {
+        float offset = Math.max(cornerSizes[i] * distance, 2);
+        int x = (int) (corners[i][0] + cornerDirections[i][0] * offset);
+        int y = (int) (corners[i][1] + cornerDirections[i][1] * offset);
+
+        assertThat(region.contains(x, y)).isEqualTo(shapeRegion.contains(x, y));
+      }
+    }
+  }
+
+  private static ShapeAppearanceModel createMixedShape() {
+    // Shapes with both rounded and cut corners don't have a faster path than the cache.
+    return ShapeAppearanceModel.builder()
+        .setAllCorners(CornerFamily.ROUNDED, 10)
+        .setTopLeftCorner(CornerFamily.CUT, 10)
+        .build();
+  }
+
+  private static RectF computeBounds(Path path) {
+    RectF bounds = new RectF();
+    path.computeBounds(bounds, /* exact= */ true);
+    return bounds;
+  }
+
+  private static class NoOpPathListener implements ShapeAppearancePathProvider.PathListener {
+    @Override
+    public void onCornerPathCreated(ShapePath cornerPath, Matrix transform, int count) {}
+
+    @Override
+    public void onEdgePathCreated(ShapePath edgePath, Matrix transform, int count) {}
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.shape;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.graphics.Matrix;
+import android.graphics.Path;
+import android.graphics.PathMeasure;
+import android.graphics.RectF;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Tests for {@link ShapePath}. */
+@RunWith(RobolectricTestRunner.class)
+public class ShapePathTest {
+
+  private static final int SAMPLES_PER_CONTOUR = 64;
+
+  private final ShapePath shapePath = new ShapePath();
+
+  @Test
+  public void givenRotatedTransform_whenApplyToPath_matchesTransformedPath() {
+    Matrix transform = new Matrix();
+    transform.setTranslate(40, 30);
+    transform.preRotate(90);
+    transform.preScale(-1, 2);
+
+    assertAppliedPathMatchesTransformedPath(transform);
+  }
+
+  @Test
+  public void givenSkewedTransform_whenApplyToPath_matchesTransformedPath() {
+    Matrix transform = new Matrix();
+    transform.setTranslate(40, 30);
+    transform.preRotate(30);
+
+    assertAppliedPathMatchesTransformedPath(transform);
+  }
+
+  @Test
+  public void givenReset_whenApplyToPath_onlyAppliesNewOperations() {
+    addOperations(shapePath);
+    shapePath.reset(0, 0);
+    shapePath.lineTo(10, 0);
+    Path path = new Path();
+
+    shapePath.applyToPath(new Matrix(), path);
+
+    assertThat(computeBounds(path)).isEqualTo(new RectF(0, 0, 10, 0));
+  }
+
+  private void assertAppliedPathMatchesTransformedPath(Matrix transform) {
+    // More operations than fit in the initial buffers.
+    for (int i = 0; i < 4; i++) {
+      addOperations(shapePath);
+    }
+    Path path = new Path();
+    Path transformedPath = new Path();
+
+    shapePath.applyToPath(transform, path);
+    shapePath.applyToPath(new Matrix(), transformedPath);
+    transformedPath.transform(transform);
+
+    RectF bounds = computeBounds(path);
+    RectF transformedBounds = computeBounds(transformedPath);
+    assertThat(bounds.left).isWithin(0.01f).of(transformedBounds.left);
+    assertThat(bounds.top).isWithin(0.01f).of(transformedBounds.top);
+    assertThat(bounds.right).isWithin(0.01f).of(transformedBounds.right);
+    assertThat(bounds.bottom).isWithin(0.01f).of(transformedBounds.bottom);
+
+    // Paths with the same bounds may still differ inside of them, so compare points along them.
+    float[] points = samplePoints(path);
+    float[] transformedPoints = samplePoints(transformedPath);
+    assertThat(points.length).isEqualTo(transformedPoints.length);
+    for (int i = 0; i < points.length; i++) {
+      assertThat(points[i]).isWithin(0.1f).of(transformedPoints[i]);
+    }
+  }
+
+  /** Returns points evenly spaced along each contour of the path, as x and y pairs. */
+  private static float[] samplePoints(Path path) {
+    PathMeasure pathMeasure = new PathMeasure(path, /* forceClosed= */ false);
+    List<Float> points = new ArrayList<>();
+    float[] position = new float[2];
+    do {
+      float length = pathMeasure.getLength();
+      for (int i = 0; i <= SAMPLES_PER_CONTOUR; i++) {
+        pathMeasure.getPosTan(length * i / SAMPLES_PER_CONTOUR, position, /* tan= */ null);
+        points.add(position[0]);
+        points.add(position[1]);
+      }
+    } while (pathMeasure.nextContour());
+    float[] pointArray = new float[points.size()];
+    for (int i = 0; i < pointArray.length; i++) {
+      pointArray[i] = points.get(i);
+    }
+    return pointArray;
+  }
+
+  private static void addOperations(ShapePath shapePath) {
+    shapePath.lineTo(10, 0);
+    shapePath.addArc(0, 0, 20, 10, 270, 90);
+    shapePath.quadToPoint(25, 5, 20, 20);
+    shapePath.cubicToPoint(15, 25, 5, 25, 0, 20);
+  }
+
+  private static RectF computeBounds(Path path) {
+    RectF bounds = new RectF();
+    path.computeBounds(bounds, /* exact= */ true);
+    return bounds;
+  }
+}
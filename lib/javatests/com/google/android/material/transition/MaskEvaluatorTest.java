@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.transition;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.graphics.RectF;
+import com.google.android.material.shape.CornerFamily;
+import com.google.android.material.shape.ShapeAppearanceModel;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/** Tests for how {@link MaskEvaluator} tests whether one round rect contains the other. */
+@RunWith(RobolectricTestRunner.class)
+public class MaskEvaluatorTest {
+
+  private static final RectF OUTER = new RectF(0, 0, 100, 100);
+
+  @Test
+  public void givenNestedRoundRects_containsInner() {
+    RectF inner = new RectF(10, 10, 90, 90);
+
+    assertThat(MaskEvaluator.containsRoundRect(OUTER, 10, inner, 5)).isTrue();
+    assertThat(MaskEvaluator.containsRoundRect(inner, 5, OUTER, 10)).isFalse();
+  }
+
+  @Test
+  public void givenInnerCornerInOuterCorner_containsInnerOnlyIfAsRound() {
+    RectF inner = new RectF(0, 0, 50, 50);
+
+    // A sharper inner corner pokes out of the rounded outer corner.
+    assertThat(MaskEvaluator.containsRoundRect(OUTER, 20, inner, 5)).isFalse();
+    assertThat(MaskEvaluator.containsRoundRect(OUTER, 20, inner, 20)).isTrue();
+  }
+
+  @Test
+  public void givenInnerCornerNearOuterCorner_containsInnerWithinDifferenceOfRadii() {
+    // The inset inner corner is 2 and 2 away from the inset outer corner, within 20 - 16 = 4.
+    assertThat(MaskEvaluator.containsRoundRect(OUTER, 20, new RectF(2, 2, 50, 50), 16)).isTrue();
+    // The inset inner corner is 3 and 3 away, farther than 4.
+    assertThat(MaskEvaluator.containsRoundRect(OUTER, 20, new RectF(1, 1, 50, 50), 16)).isFalse();
+  }
+
+  @Test
+  public void givenCrossingRoundRects_containsNeither() {
+    RectF wide = new RectF(0, 25, 100, 75);
+    RectF tall = new RectF(25, 0, 75, 100);
+
+    assertThat(MaskEvaluator.containsRoundRect(wide, 10, tall, 10)).isFalse();
+    assertThat(MaskEvaluator.containsRoundRect(tall, 10, wide, 10)).isFalse();
+  }
+
+  @Test
+  public void givenEqualRoundRects_containsEither() {
+    RectF other = new RectF(OUTER);
+
+    assertThat(MaskEvaluator.containsRoundRect(OUTER, 10, other, 10)).isTrue();
+    assertThat(MaskEvaluator.containsRoundRect(other, 10, OUTER, 10)).isTrue();
+  }
+
+  @Test
+  public void givenEqualRectsWithLargerInnerRadius_containsOnlyRounderRoundRect() {
+    RectF other = new RectF(OUTER);
+
+    assertThat(MaskEvaluator.containsRoundRect(OUTER, 10, other, 30)).isTrue();
+    assertThat(MaskEvaluator.containsRoundRect(other, 30, OUTER, 10)).isFalse();
+  }
+
+  @Test
+  public void givenNestedRoundRects_returnsOuterBounds() {
+    ShapeAppearanceModel shape = ShapeAppearanceModel.builder().setAllCornerSizes(10).build();
+    RectF inner = new RectF(10, 10, 90, 90);
+
+    assertThat(MaskEvaluator.getOuterRoundRectBounds(shape, OUTER, inner)).isSameInstanceAs(OUTER);
+    assertThat(MaskEvaluator.getOuterRoundRectBounds(shape, inner, OUTER)).isSameInstanceAs(OUTER);
+  }
+
+  @Test
+  public void givenCrossingRoundRects_returnsNull() {
+    ShapeAppearanceModel shape = ShapeAppearanceModel.builder().setAllCornerSizes(10).build();
+
+    assertThat(
+            MaskEvaluator.getOuterRoundRectBounds(
+                shape, new RectF(0, 25, 100, 75), new RectF(25, 0, 75, 100)))
+        .isNull();
+  }
+
+  @Test
+  public void givenEqualRoundRects_returnsStartBounds() {
+    ShapeAppearanceModel shape = ShapeAppearanceModel.builder().setAllCornerSizes(10).build();
+    RectF end = new RectF(OUTER);
+
+    assertThat(MaskEvaluator.getOuterRoundRectBounds(shape, OUTER, end)).isSameInstanceAs(OUTER);
+  }
+
+  @Test
+  public void givenOverlappingCorners_returnsNull() {
+    // Corners larger than half of the smaller side don't make a round rect.
+    ShapeAppearanceModel shape = ShapeAppearanceModel.builder().setAllCornerSizes(30).build();
+
+    assertThat(
+            MaskEvaluator.getOuterRoundRectBounds(
+                shape, new RectF(0, 0, 100, 50), new RectF(10, 10, 90, 40)))
+        .isNull();
+  }
+
+  @Test
+  public void givenCutCorners_returnsNull() {
+    ShapeAppearanceModel shape =
+        ShapeAppearanceModel.builder().setAllCorners(CornerFamily.CUT, 10).build();
+
+    assertThat(MaskEvaluator.getOuterRoundRectBounds(shape, OUTER, new RectF(10, 10, 90, 90)))
+        .isNull();
+  }
+}
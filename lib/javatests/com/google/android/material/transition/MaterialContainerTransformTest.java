@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2022 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.android.material.transition;
+
+import static com.google.android.material.transition.MaterialContainerTransform.RENDER_MODE_AUTO;
+import static com.google.android.material.transition.MaterialContainerTransform.RENDER_MODE_LIVE;
+import static com.google.android.material.transition.MaterialContainerTransform.RENDER_MODE_SNAPSHOT;
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.os.Build.VERSION_CODES;
+import android.view.SurfaceView;
+import android.view.View;
+import android.widget.FrameLayout;
+import androidx.core.view.ViewCompat;
+import androidx.test.core.app.ApplicationProvider;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+/** Tests for the render modes of {@link MaterialContainerTransform}. */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = VERSION_CODES.P)
+public class MaterialContainerTransformTest {
+
+  private static final float MAX_SNAPSHOT_AREA = 1000 * 1000;
+
+  private final Context context = ApplicationProvider.getApplicationContext();
+
+  @Test
+  public void givenLiveMode_whenShouldDrawSnapshot_returnsFalse() {
+    View view = createHierarchy(32);
+
+    assertThat(
+            MaterialContainerTransform.shouldDrawSnapshot(RENDER_MODE_LIVE, view, MAX_SNAPSHOT_AREA))
+        .isFalse();
+  }
+
+  @Test
+  public void givenSnapshotMode_whenShouldDrawSnapshot_returnsTrueForSimpleView() {
+    View view = createHierarchy(1);
+
+    assertThat(
+            MaterialContainerTransform.shouldDrawSnapshot(
+                RENDER_MODE_SNAPSHOT, view, MAX_SNAPSHOT_AREA))
+        .isTrue();
+  }
+
+  @Test
+  public void givenAutoMode_whenShouldDrawSnapshot_usesViewCountThreshold() {
+    assertThat(
+            MaterialContainerTransform.shouldDrawSnapshot(
+                RENDER_MODE_AUTO, createHierarchy(15), MAX_SNAPSHOT_AREA))
+        .isFalse();
+    assertThat(
+            MaterialContainerTransform.shouldDrawSnapshot(
+                RENDER_MODE_AUTO, createHierarchy(16), MAX_SNAPSHOT_AREA))
+        .isTrue();
+  }
+
+  @Test
+  public void givenAutoMode_whenShouldDrawSnapshotOfLargeView_returnsFalse() {
+    View view = createHierarchy(32);
+
+    assertThat(MaterialContainerTransform.shouldDrawSnapshot(RENDER_MODE_AUTO, view, 100 * 99))
+        .isFalse();
+  }
+
+  @Test
+  @Config(sdk = VERSION_CODES.O)
+  public void givenApiBelowP_whenShouldDrawSnapshot_returnsFalse() {
+    View view = createHierarchy(32);
+
+    assertThat(
+            MaterialContainerTransform.shouldDrawSnapshot(
+                RENDER_MODE_SNAPSHOT, view, MAX_SNAPSHOT_AREA))
+        .isFalse();
+  }
+
+  @Test
+  public void givenSurfaceView_whenCountViews_returnsZero() {
+    FrameLayout view = createHierarchy(16);
+    view.addView(new SurfaceView(context));
+
+    assertThat(MaterialContainerTransform.countViews(view)).isEqualTo(0);
+    assertThat(
+            MaterialContainerTransform.shouldDrawSnapshot(
+                RENDER_MODE_SNAPSHOT, view, MAX_SNAPSHOT_AREA))
+        .isFalse();
+  }
+
+  @Test
+  public void givenElevatedDescendant_whenCountViews_returnsZero() {
+    FrameLayout view = createHierarchy(16);
+    View elevatedChild = new View(context);
+    ViewCompat.setElevation(elevatedChild, 4);
+    view.addView(elevatedChild);
+
+    assertThat(MaterialContainerTransform.countViews(view)).isEqualTo(0);
+  }
+
+  @Test
+  public void givenNestedHierarchy_whenCountViews_countsAllViews() {
+    FrameLayout view = createHierarchy(4);
+    view.addView(createHierarchy(3));
+
+    assertThat(MaterialContainerTransform.countViews(view)).isEqualTo(7);
+  }
+
+  /** Creates a laid out 100x100 FrameLayout with {@code viewCount - 1} children. */
+  private FrameLayout createHierarchy(int viewCount) {
+    FrameLayout frameLayout = new FrameLayout(context);
+    for (int i = 1; i < viewCount; i++) {
+      frameLayout.addView(new View(context));
+    }
+    frameLayout.layout(0, 0, 100, 100);
+    return frameLayout;
+  }
+}